@@ -1,5 +1,5 @@
 from sqlalchemy.orm import Session
-from typing import List
+from typing import List, Optional
 import models
 import schemas
 import uuid
@@ -9,8 +9,12 @@ def get_attachment(db: Session, id: str):
     return db.query(models.Attachment).filter(models.Attachment.id == id).first()
 
 
-def get_attachments(db: Session, skip: int = 0, limit: int = 100):
-    return db.query(models.Attachment).offset(skip).limit(limit).all()
+def get_attachments(db: Session, skip: int = 0, limit: int = 100, cursor: Optional[str] = None):
+    query = db.query(models.Attachment)
+    if cursor:
+        # Keyset paging: the cursor is the last id of the previous page
+        query = query.filter(models.Attachment.id > cursor)
+    return query.order_by(models.Attachment.id).offset(skip).limit(limit).all()
 
 
 def get_attachments_by_ids(db: Session, ids: List[str]):
@@ -27,13 +27,14 @@ def get_attachments(
         ids: Optional[str] = Query(None),
         skip: int = 0,
         limit: int = 100,
+        cursor: Optional[str] = None,
         db: Session = Depends(get_db)
 ):
     if ids:
         ids_list = ids.split(",")
         attachments = crud.get_attachments_by_ids(db, ids_list)
     else:
-        attachments = crud.get_attachments(db, skip=skip, limit=limit)
+        attachments = crud.get_attachments(db, skip=skip, limit=limit, cursor=cursor)
     return attachments
 
 
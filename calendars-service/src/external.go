@@ -1,6 +1,7 @@
 package main
 
 import (
+	"context"
 	"encoding/json"
 	"fmt"
 	"net/http"
@@ -12,12 +13,18 @@ var httpClient = &http.Client{
 	Timeout: time.Second * 10,
 }
 
-func GetMeetingsByIds(ids []string) []MeetingSummary {
+func GetMeetingsByIds(ctx context.Context, ids []string) []MeetingSummary {
 	idsParam := strings.Join(ids, ",")
 
 	url := fmt.Sprintf("http://krakend:8080/meetings?ids=%s", idsParam)
 
-	resp, err := httpClient.Get(url)
+	req, err := newOutgoingRequest(ctx, http.MethodGet, url)
+	if err != nil {
+		fmt.Println("Error:", err)
+		return []MeetingSummary{}
+	}
+
+	resp, err := httpClient.Do(req)
 	if err != nil {
 		fmt.Println("Error:", err)
 		return []MeetingSummary{}
@@ -33,10 +40,16 @@ func GetMeetingsByIds(ids []string) []MeetingSummary {
 	return data
 }
 
-func AddCalendarToMeeting(meetingId string, calendarId string) {
+func AddCalendarToMeeting(ctx context.Context, meetingId string, calendarId string) {
 	url := fmt.Sprintf("http://krakend:8080/calendars/%s/addMeeting/%s", calendarId, meetingId)
 
-	resp, err := httpClient.Get(url)
+	req, err := newOutgoingRequest(ctx, http.MethodGet, url)
+	if err != nil {
+		fmt.Println("Error:", err)
+		return
+	}
+
+	resp, err := httpClient.Do(req)
 	if err != nil {
 		fmt.Println("Error:", err)
 		return
@@ -3,7 +3,9 @@ package main
 import (
 	"context"
 	"encoding/json"
+	"errors"
 	"net/http"
+	"strconv"
 	"strings"
 	"time"
 
@@ -19,7 +21,13 @@ func GetCalendars(w http.ResponseWriter, r *http.Request) {
 	ctx, cancel := context.WithTimeout(context.Background(), 10*time.Second)
 	defer cancel()
 
-	cursor, err := collection.Find(ctx, bson.M{})
+	filter, findOptions, err := parsePageQuery(r)
+	if err != nil {
+		http.Error(w, err.Error(), http.StatusBadRequest)
+		return
+	}
+
+	cursor, err := collection.Find(ctx, filter, findOptions)
 	if err != nil {
 		http.Error(w, "Error fetching calendarSummaries", http.StatusInternalServerError)
 		return
@@ -35,7 +43,7 @@ func GetCalendars(w http.ResponseWriter, r *http.Request) {
 	calendars := []Calendar{}
 
 	for _, calendarSummary := range calendarSummaries {
-		calendars = append(calendars, ConvertSummaryToFull(calendarSummary))
+		calendars = append(calendars, ConvertSummaryToFull(r.Context(), calendarSummary))
 	}
 
 	responseData, err := json.Marshal(calendars)
@@ -75,7 +83,7 @@ func CreateCalendar(w http.ResponseWriter, r *http.Request) {
 	}
 
 	if len(calendarSummary.Meetings) > 0 {
-		AddCalendarToMeeting(calendarSummary.Meetings[0], calendarSummary.ID)
+		AddCalendarToMeeting(r.Context(), calendarSummary.Meetings[0], calendarSummary.ID)
 	}
 
 	w.Header().Set("Content-Type", "application/json")
@@ -168,7 +176,7 @@ func AddMeetingToCalendar(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(calendarSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), calendarSummary))
 }
 
 func RemoveMeetingFromCalendar(w http.ResponseWriter, r *http.Request) {
@@ -199,7 +207,7 @@ func RemoveMeetingFromCalendar(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(calendarSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), calendarSummary))
 }
 
 func GetCalendarsByIds(w http.ResponseWriter, r *http.Request) {
@@ -241,8 +249,8 @@ func GetCalendarsByIds(w http.ResponseWriter, r *http.Request) {
 	respondWithJSON(w, http.StatusOK, calendarSummaries)
 }
 
-func ConvertSummaryToFull(calendarSummary CalendarSummary) Calendar {
-	meetings := GetMeetingsByIds(calendarSummary.Meetings)
+func ConvertSummaryToFull(ctx context.Context, calendarSummary CalendarSummary) Calendar {
+	meetings := GetMeetingsByIds(ctx, calendarSummary.Meetings)
 	var calendar = Calendar{
 		ID:       calendarSummary.ID,
 		Title:    calendarSummary.Title,
@@ -253,6 +261,27 @@ func ConvertSummaryToFull(calendarSummary CalendarSummary) Calendar {
 	return calendar
 }
 
+// Builds the filter and options for ?limit=&cursor= paging. Results are ordered by ID and the cursor is
+// the ID of the last record of the previous page; without a limit every record is returned.
+func parsePageQuery(r *http.Request) (bson.M, *options.FindOptions, error) {
+	query := r.URL.Query()
+	filter := bson.M{}
+	findOptions := options.Find().SetSort(bson.D{{Key: "_id", Value: 1}})
+
+	if cursor := query.Get("cursor"); cursor != "" {
+		filter["_id"] = bson.M{"$gt": cursor}
+	}
+	if limitParam := query.Get("limit"); limitParam != "" {
+		limit, err := strconv.ParseInt(limitParam, 10, 64)
+		if err != nil || limit <= 0 {
+			return nil, nil, errors.New("'limit' must be a positive integer")
+		}
+		findOptions.SetLimit(limit)
+	}
+
+	return filter, findOptions, nil
+}
+
 func respondWithError(w http.ResponseWriter, code int, message string) {
 	w.Header().Set("Content-Type", "application/json")
 	w.WriteHeader(code)
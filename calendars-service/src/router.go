@@ -6,6 +6,7 @@ import (
 
 func initializeRouter() *mux.Router {
 	router := mux.NewRouter()
+	router.Use(tracingMiddleware)
 
 	router.HandleFunc("/calendars", GetCalendarsByIds).Methods("GET").Queries("ids", "{ids}")
 	router.HandleFunc("/calendars", GetCalendars).Methods("GET")
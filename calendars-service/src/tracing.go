@@ -0,0 +1,72 @@
+package main
+
+import (
+	"context"
+	"crypto/rand"
+	"encoding/hex"
+	"log"
+	"net/http"
+	"strings"
+	"time"
+)
+
+// W3C Trace Context header: "00-<32 hex trace id>-<16 hex parent span id>-<flags>"
+const traceparentHeader = "traceparent"
+
+type traceKey struct{}
+
+// Continues the trace of the incoming request (or starts one) with a new span for this service and
+// keeps the traceparent to send on outgoing calls, so the fan-out shows up under the same trace.
+func tracingMiddleware(next http.Handler) http.Handler {
+	return http.HandlerFunc(func(w http.ResponseWriter, r *http.Request) {
+		traceID, parentID, flags := parseTraceparent(r.Header.Get(traceparentHeader))
+		if traceID == "" {
+			traceID, parentID, flags = randomHex(16), "", "01"
+		}
+		spanID := randomHex(8)
+
+		ctx := context.WithValue(r.Context(), traceKey{}, "00-"+traceID+"-"+spanID+"-"+flags)
+		start := time.Now()
+		next.ServeHTTP(w, r.WithContext(ctx))
+		log.Printf("trace=%s span=%s parent=%s %s %s %s", traceID, spanID, parentID, r.Method, r.URL.Path, time.Since(start))
+	})
+}
+
+// Builds a request to another service that carries the trace context of ctx
+func newOutgoingRequest(ctx context.Context, method string, url string) (*http.Request, error) {
+	req, err := http.NewRequestWithContext(ctx, method, url, nil)
+	if err != nil {
+		return nil, err
+	}
+	if traceparent, ok := ctx.Value(traceKey{}).(string); ok {
+		req.Header.Set(traceparentHeader, traceparent)
+	}
+	return req, nil
+}
+
+func parseTraceparent(header string) (traceID string, parentID string, flags string) {
+	parts := strings.Split(strings.TrimSpace(header), "-")
+	if len(parts) != 4 || parts[0] != "00" || !isHex(parts[1], 32) || !isHex(parts[2], 16) || !isHex(parts[3], 2) {
+		return "", "", ""
+	}
+	if parts[1] == strings.Repeat("0", 32) || parts[2] == strings.Repeat("0", 16) {
+		return "", "", ""
+	}
+	return parts[1], parts[2], parts[3]
+}
+
+func isHex(value string, length int) bool {
+	if len(value) != length {
+		return false
+	}
+	_, err := hex.DecodeString(value)
+	return err == nil && strings.ToLower(value) == value
+}
+
+func randomHex(bytes int) string {
+	buffer := make([]byte, bytes)
+	if _, err := rand.Read(buffer); err != nil {
+		log.Println("Error generating trace id:", err)
+	}
+	return hex.EncodeToString(buffer)
+}
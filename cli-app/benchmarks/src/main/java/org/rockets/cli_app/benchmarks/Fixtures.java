@@ -0,0 +1,114 @@
+package org.rockets.cli_app.benchmarks;
+
+import org.rockets.cli_app.components.Attachment;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.components.Participant;
+import org.rockets.cli_app.dto.CalendarDTO;
+import org.rockets.cli_app.dto.MeetingDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// Test data shaped like gateway responses: a meeting embeds its participants, attachments and calendars,
+// and a calendar embeds full meetings, which is the deepest nesting the services return.
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Meeting meeting(int related) {
+        return meeting(related, "Agenda: roadmap review, staffing, open questions");
+    }
+
+    static Meeting meeting(int related, String details) {
+        List<Participant> participants = new ArrayList<>();
+        List<Attachment> attachments = new ArrayList<>();
+        List<Calendar> calendars = new ArrayList<>();
+        for (int i = 0; i < related; i++) {
+            participants.add(new Participant(id(), "Participant " + i, "participant" + i + "@example.com"));
+            attachments.add(new Attachment(id(), "https://files.example.com/attachments/" + i + ".pdf"));
+            calendars.add(new Calendar(id(), "Calendar " + i, "Team calendar number " + i));
+        }
+        return new Meeting(id(), "Quarterly planning", "2024-06-01 10:00", "Room 4.12",
+                details, attachments, participants, calendars);
+    }
+
+    static Calendar calendar(int meetings, int related) {
+        List<Meeting> embedded = new ArrayList<>();
+        for (int i = 0; i < meetings; i++) {
+            embedded.add(meeting(related));
+        }
+        return new Calendar(id(), "Engineering", "Shared engineering calendar", embedded);
+    }
+
+    // Calendars that embed meetings drawn from a shared pool, so each meeting appears in several calendars
+    // the way it does in a reporting snapshot
+    static List<Calendar> snapshot(int calendars, int meetingsPerCalendar, List<Meeting> pool) {
+        Random random = new Random(42);
+        List<Calendar> snapshot = new ArrayList<>(calendars);
+        for (int i = 0; i < calendars; i++) {
+            List<Meeting> embedded = new ArrayList<>(meetingsPerCalendar);
+            for (int j = 0; j < meetingsPerCalendar; j++) {
+                embedded.add(pool.get(random.nextInt(pool.size())));
+            }
+            snapshot.add(new Calendar(id(), "Calendar " + i, "Team calendar number " + i, embedded));
+        }
+        return snapshot;
+    }
+
+    static List<Meeting> meetings(int count, int related) {
+        List<Meeting> meetings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            meetings.add(meeting(related));
+        }
+        return meetings;
+    }
+
+    static List<Meeting> meetings(int count, int related, int detailsLength) {
+        Random random = new Random(42);
+        List<Meeting> meetings = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            meetings.add(meeting(related, details(random, detailsLength)));
+        }
+        return meetings;
+    }
+
+    static MeetingDTO meetingDTO(int related) {
+        List<String> participants = new ArrayList<>();
+        for (int i = 0; i < related; i++) {
+            participants.add(id());
+        }
+        MeetingDTO dto = new MeetingDTO(id(), "Quarterly planning", "2024-06-01 10:00", "Room 4.12",
+                "Agenda: roadmap review, staffing, open questions", participants);
+        for (int i = 0; i < related; i++) {
+            dto.addAttachment(id());
+        }
+        return dto;
+    }
+
+    static CalendarDTO calendarDTO(int meetings) {
+        List<String> meetingIds = new ArrayList<>();
+        for (int i = 0; i < meetings; i++) {
+            meetingIds.add(id());
+        }
+        return new CalendarDTO(id(), "Engineering", "Shared engineering calendar", meetingIds);
+    }
+
+    // Prose-like text of the given length drawn from a small vocabulary, so it compresses like real notes
+    static String details(Random random, int length) {
+        String[] words = {"agenda", "review", "roadmap", "the", "team", "budget", "and", "action", "items", "for",
+                "release", "customer", "feedback", "open", "questions", "staffing", "plan", "next", "quarter", "notes"};
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(words[random.nextInt(words.length)]).append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.substring(0, length);
+    }
+
+    static String id() {
+        return UUID.randomUUID().toString();
+    }
+}
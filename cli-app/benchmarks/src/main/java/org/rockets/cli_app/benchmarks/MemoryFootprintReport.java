@@ -0,0 +1,62 @@
+package org.rockets.cli_app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+import org.rockets.cli_app.components.Attachment;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.IdentityMap;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.components.Participant;
+import org.rockets.cli_app.service.GatewayClient;
+
+import java.io.IOException;
+import java.util.List;
+
+// Retained heap of decoded gateway responses, measured with JOL rather than timed with JMH.
+// Prints the field layout of each record type, the bytes per decoded meeting scaled up to a 5M-meeting
+// snapshot, and a snapshot of calendars sharing a pool of meetings decoded plainly and identity-mapped.
+//     java -cp target/benchmarks.jar org.rockets.cli_app.benchmarks.MemoryFootprintReport [meetings] [calendars] [meetingsPerCalendar] [related]
+// Walking the graph needs a few times its size in heap; the defaults fit in 1 GB.
+public final class MemoryFootprintReport {
+    private static final long SNAPSHOT_MEETINGS = 5_000_000;
+
+    private MemoryFootprintReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int meetings = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int calendars = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int meetingsPerCalendar = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        int related = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        for (Class<?> type : List.of(Meeting.class, Calendar.class, Participant.class, Attachment.class)) {
+            System.out.println(ClassLayout.parseClass(type).toPrintable());
+        }
+
+        GatewayClient gateway = new GatewayClient("http://localhost:8080");
+        List<Meeting> pool = Fixtures.meetings(meetings, related);
+        byte[] poolJson = gateway.getObjectMapper().writeValueAsBytes(pool);
+        List<Meeting> decodedPool = gateway.listReader(Meeting.class).readValue(poolJson);
+        long poolBytes = GraphLayout.parseInstance(decodedPool).totalSize();
+        long perMeeting = poolBytes / meetings;
+        System.out.printf("%,d meetings with %d related records each: %,d bytes, %,d bytes per meeting, about %,d MB for %,d meetings%n%n",
+                meetings, related, poolBytes, perMeeting, perMeeting * SNAPSHOT_MEETINGS / (1024 * 1024), SNAPSHOT_MEETINGS);
+
+        byte[] snapshotJson = gateway.getObjectMapper().writeValueAsBytes(Fixtures.snapshot(calendars, meetingsPerCalendar, pool));
+        ObjectReader calendarListReader = gateway.listReader(Calendar.class);
+
+        List<Calendar> plain = calendarListReader.readValue(snapshotJson);
+        report("Plain decoding", plain);
+
+        IdentityMap identities = new IdentityMap();
+        List<Calendar> shared = identities.reader(calendarListReader).readValue(snapshotJson);
+        report("Identity-mapped decoding (" + identities.size() + " distinct records)", shared);
+    }
+
+    private static void report(String label, List<Calendar> calendars) {
+        GraphLayout layout = GraphLayout.parseInstance(calendars);
+        System.out.printf("%s: %,d calendars, %,d objects, %,d bytes%n", label, calendars.size(), layout.totalCount(), layout.totalSize());
+        System.out.println(layout.toFootprint());
+    }
+}
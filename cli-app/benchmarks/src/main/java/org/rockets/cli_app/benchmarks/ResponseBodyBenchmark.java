@@ -0,0 +1,79 @@
+package org.rockets.cli_app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.service.GatewayClient;
+import org.rockets.cli_app.service.MeetingService;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A large meeting listing read the old way (whole body as a String, then parsed) and the way the
+// services read it now (bound from the response stream). Run with "-prof gc" to compare the bytes
+// allocated per listing (gc.alloc.rate.norm) and the GC time, e.g.
+//     java -jar benchmarks.jar ResponseBodyBenchmark -prof gc
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+@State(Scope.Benchmark)
+public class ResponseBodyBenchmark {
+
+    @Param({"100", "1000"})
+    public int meetings;
+
+    // Participants, attachments and calendars per meeting
+    @Param({"5"})
+    public int related;
+
+    // Characters of details per meeting; create meeting allows up to 10,000
+    @Param({"2000"})
+    public int detailsLength;
+
+    private StubGateway stub;
+    private GatewayClient gateway;
+    private MeetingService meetingService;
+    private ObjectReader meetingListReader;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new StubGateway(meetings, related, detailsLength);
+        gateway = new GatewayClient(stub.baseUrl());
+        meetingService = new MeetingService(gateway);
+        meetingListReader = gateway.listReader(Meeting.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public List<Meeting> bufferedString() throws IOException, InterruptedException {
+        HttpRequest request = gateway.newRequest("/meetings").GET().build();
+        String body = gateway.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return meetingListReader.readValue(body);
+    }
+
+    @Benchmark
+    public List<Meeting> streamed() throws IOException, InterruptedException {
+        return meetingService.getMeetings();
+    }
+}
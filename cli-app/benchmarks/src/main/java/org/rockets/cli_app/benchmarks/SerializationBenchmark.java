@@ -0,0 +1,118 @@
+package org.rockets.cli_app.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.dto.CalendarDTO;
+import org.rockets.cli_app.dto.MeetingDTO;
+import org.rockets.cli_app.service.GatewayClient;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson encoding and decoding with the readers and writers the services use
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    // Participants, attachments and calendars per meeting
+    @Param({"1", "10", "100"})
+    public int related;
+
+    // Meetings per calendar and per meeting list
+    @Param({"10"})
+    public int meetings;
+
+    // Whether the gateway's mappers bind through Blackbird or through reflection
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectReader meetingReader;
+    private ObjectReader meetingListReader;
+    private ObjectReader calendarReader;
+    private ObjectWriter meetingWriter;
+    private ObjectWriter calendarWriter;
+    private ObjectWriter meetingDTOWriter;
+    private ObjectWriter calendarDTOWriter;
+
+    private Meeting meeting;
+    private Calendar calendar;
+    private MeetingDTO meetingDTO;
+    private CalendarDTO calendarDTO;
+    private String meetingJson;
+    private String meetingListJson;
+    private String calendarJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        System.setProperty("cli.jackson.blackbird", String.valueOf(blackbird));
+        GatewayClient gateway = new GatewayClient("http://localhost:8080");
+        meetingReader = gateway.reader(Meeting.class);
+        meetingListReader = gateway.listReader(Meeting.class);
+        calendarReader = gateway.reader(Calendar.class);
+        meetingWriter = gateway.writer(Meeting.class);
+        calendarWriter = gateway.writer(Calendar.class);
+        meetingDTOWriter = gateway.writer(MeetingDTO.class);
+        calendarDTOWriter = gateway.writer(CalendarDTO.class);
+
+        meeting = Fixtures.meeting(related);
+        calendar = Fixtures.calendar(meetings, related);
+        meetingDTO = Fixtures.meetingDTO(related);
+        calendarDTO = Fixtures.calendarDTO(meetings);
+        meetingJson = meetingWriter.writeValueAsString(meeting);
+        calendarJson = calendarWriter.writeValueAsString(calendar);
+        meetingListJson = gateway.getObjectMapper().writeValueAsString(Fixtures.meetings(meetings, related));
+    }
+
+    @Benchmark
+    public String serializeMeeting() throws JsonProcessingException {
+        return meetingWriter.writeValueAsString(meeting);
+    }
+
+    @Benchmark
+    public Meeting deserializeMeeting() throws JsonProcessingException {
+        return meetingReader.readValue(meetingJson);
+    }
+
+    @Benchmark
+    public List<Meeting> deserializeMeetingList() throws JsonProcessingException {
+        return meetingListReader.readValue(meetingListJson);
+    }
+
+    @Benchmark
+    public String serializeCalendar() throws JsonProcessingException {
+        return calendarWriter.writeValueAsString(calendar);
+    }
+
+    @Benchmark
+    public Calendar deserializeCalendar() throws JsonProcessingException {
+        return calendarReader.readValue(calendarJson);
+    }
+
+    @Benchmark
+    public String serializeMeetingDTO() throws JsonProcessingException {
+        return meetingDTOWriter.writeValueAsString(meetingDTO);
+    }
+
+    @Benchmark
+    public String serializeCalendarDTO() throws JsonProcessingException {
+        return calendarDTOWriter.writeValueAsString(calendarDTO);
+    }
+}
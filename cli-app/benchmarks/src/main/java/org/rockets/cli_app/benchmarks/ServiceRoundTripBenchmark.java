@@ -0,0 +1,105 @@
+package org.rockets.cli_app.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.dto.CalendarDTO;
+import org.rockets.cli_app.dto.MeetingDTO;
+import org.rockets.cli_app.service.CalendarService;
+import org.rockets.cli_app.service.GatewayClient;
+import org.rockets.cli_app.service.MeetingService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Full service calls (request building, HTTP round trip over loopback, decoding) against StubGateway
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ServiceRoundTripBenchmark {
+
+    // Meetings in a list response
+    @Param({"10", "100"})
+    public int meetings;
+
+    // Participants, attachments and calendars per meeting
+    @Param({"5"})
+    public int related;
+
+    // Whether list GETs go through the response cache
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private StubGateway stub;
+    private MeetingService meetingService;
+    private CalendarService calendarService;
+    private MeetingDTO meetingDTO;
+    private CalendarDTO calendarDTO;
+    private List<String> calendarIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new StubGateway(meetings, related);
+        GatewayClient gateway = new GatewayClient(stub.baseUrl());
+        if (cached) {
+            gateway.enableResponseCache(Duration.ofMinutes(10), 256, 64L * 1024 * 1024, null);
+        }
+        meetingService = new MeetingService(gateway);
+        calendarService = new CalendarService(gateway);
+        meetingDTO = Fixtures.meetingDTO(related);
+        calendarDTO = Fixtures.calendarDTO(related);
+        calendarIds = List.of(Fixtures.id(), Fixtures.id());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public List<Meeting> listMeetings() throws IOException, InterruptedException {
+        return meetingService.getMeetings();
+    }
+
+    @Benchmark
+    public Meeting createMeeting() throws IOException, InterruptedException {
+        return meetingService.createMeeting(meetingDTO);
+    }
+
+    @Benchmark
+    public void updateMeeting() throws IOException, InterruptedException {
+        meetingService.updateMeetingById(meetingDTO.getMeetingId(), meetingDTO);
+    }
+
+    @Benchmark
+    public List<Calendar> listCalendars() throws Exception {
+        return calendarService.getCalendars();
+    }
+
+    @Benchmark
+    public List<Calendar> listCalendarsByIds() throws Exception {
+        return calendarService.getCalendarsByIds(calendarIds);
+    }
+
+    @Benchmark
+    public Calendar createCalendar() throws Exception {
+        return calendarService.createCalendar(calendarDTO);
+    }
+}
@@ -0,0 +1,71 @@
+package org.rockets.cli_app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-process stand-in for the API gateway that answers every route with a canned body, so round-trip
+// benchmarks measure the client side (request building, transport, decoding) without a real backend.
+final class StubGateway implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final byte[] meetingList;
+    private final byte[] meeting;
+    private final byte[] calendarList;
+    private final byte[] calendar;
+
+    StubGateway(int meetings, int related) throws IOException {
+        this(meetings, related, 0);
+    }
+
+    // detailsLength > 0 gives every listed meeting details of that length, for payloads near the real maximum
+    StubGateway(int meetings, int related, int detailsLength) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        meetingList = mapper.writeValueAsBytes(detailsLength > 0
+                ? Fixtures.meetings(meetings, related, detailsLength)
+                : Fixtures.meetings(meetings, related));
+        meeting = mapper.writeValueAsBytes(Fixtures.meeting(related));
+        calendarList = mapper.writeValueAsBytes(List.of(Fixtures.calendar(meetings, related)));
+        calendar = mapper.writeValueAsBytes(Fixtures.calendar(0, related));
+
+        // Headers and body are written separately; without TCP_NODELAY every response waits on a delayed ACK
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/meetings", exchange -> respond(exchange, isList(exchange) ? meetingList : meeting));
+        server.createContext("/calendars", exchange -> respond(exchange, isList(exchange) ? calendarList : calendar));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static boolean isList(HttpExchange exchange) {
+        return exchange.getRequestMethod().equals("GET") && exchange.getRequestURI().getPath().lastIndexOf('/') == 0;
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        try (InputStream request = exchange.getRequestBody(); OutputStream response = exchange.getResponseBody()) {
+            request.transferTo(OutputStream.nullOutputStream());
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            response.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,67 @@
+package org.rockets.cli_app.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rockets.Check;
+
+import java.util.concurrent.TimeUnit;
+
+// The input checks every create/update/import runs before sending a request
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    public String validDateTime = "2024-06-01 10:00";
+    public String invalidDateTime = "06/01/2024 10am";
+    public String validEmail = "first.last+tag@mail.example.com";
+    public String invalidEmail = "first.last@@example";
+    public String validUrl = "https://files.example.com/attachments/agenda.pdf";
+    public String invalidUrl = "files.example.com/agenda.pdf";
+    public String longDetails = "x".repeat(12_000);
+
+    @Benchmark
+    public boolean validDateTime() {
+        return Check.validateDateTime(validDateTime);
+    }
+
+    @Benchmark
+    public boolean invalidDateTime() {
+        return Check.validateDateTime(invalidDateTime);
+    }
+
+    @Benchmark
+    public boolean validEmail() {
+        return Check.isValidEmail(validEmail);
+    }
+
+    @Benchmark
+    public boolean invalidEmail() {
+        return Check.isValidEmail(invalidEmail);
+    }
+
+    @Benchmark
+    public boolean validUrl() {
+        return Check.isValidURL(validUrl);
+    }
+
+    @Benchmark
+    public boolean invalidUrl() {
+        return Check.isValidURL(invalidUrl);
+    }
+
+    @Benchmark
+    public String limitString() {
+        return Check.limitString(longDetails, 10_000);
+    }
+}
@@ -0,0 +1,97 @@
+package org.rockets.cli_app.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.service.GatewayClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Bytes on the wire and decode/encode time of a meeting list response in each format the client
+// negotiates. The encoded sizes are printed once per trial, next to the timings.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "json-gzip", "smile", "smile-gzip"})
+    public String format;
+
+    // Meetings in the list response
+    @Param({"100"})
+    public int meetings;
+
+    // Participants, attachments and calendars per meeting
+    @Param({"1", "10"})
+    public int related;
+
+    // Characters of details per meeting; create meeting allows up to 10,000
+    @Param({"50", "2000", "10000"})
+    public int detailsLength;
+
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private boolean gzip;
+    private List<Meeting> list;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        GatewayClient gateway = new GatewayClient("http://localhost:8080");
+        ObjectReader jsonReader = gateway.listReader(Meeting.class);
+        ObjectMapper mapper = format.startsWith("smile") ? new ObjectMapper(new SmileFactory()) : gateway.getObjectMapper();
+        reader = format.startsWith("smile") ? jsonReader.with(mapper.getFactory()) : jsonReader;
+        writer = mapper.writerFor(jsonReader.getValueType());
+        gzip = format.endsWith("-gzip");
+
+        list = Fixtures.meetings(meetings, related, detailsLength);
+        encoded = encode();
+        System.out.printf("%n%s, %d meetings, related=%d, details=%d: %,d bytes on the wire%n",
+                format, meetings, related, detailsLength, encoded.length);
+    }
+
+    // What the client does with a response body: inflate it if needed and bind it
+    @Benchmark
+    public List<Meeting> decode() throws IOException {
+        try (InputStream in = gzip ? new GZIPInputStream(new ByteArrayInputStream(encoded), 16 * 1024) : new ByteArrayInputStream(encoded)) {
+            return reader.readValue(in);
+        }
+    }
+
+    // The backend's side of the same response
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encoded != null ? encoded.length : 64 * 1024);
+        if (gzip) {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(out, 16 * 1024)) {
+                writer.writeValue(compressed, list);
+            }
+        } else {
+            writer.writeValue(out, list);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,52 @@
+#!/usr/bin/env bash
+# Compares start-up time of the jar-with-dependencies assembly against the native executable.
+#
+#   mvn package && mvn -Pnative package
+#   scripts/startup-benchmark.sh [runs] [command...]
+#
+# The default command (--help) does not touch the network, so the numbers are pure start-up cost.
+# Uses hyperfine when it is installed, otherwise a plain timing loop.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-20}"
+shift || true
+ARGS=("${@:---help}")
+
+JAR="target/cli_app.jar"
+NATIVE="target/cli_app"
+
+for artifact in "$JAR" "$NATIVE"; do
+    if [[ ! -e "$artifact" ]]; then
+        echo "Missing $artifact - build it with 'mvn package' and 'mvn -Pnative package' first." >&2
+        exit 1
+    fi
+done
+
+# Keep the daemon out of the measurement
+export CLI_APP_NO_DAEMON=1
+
+if command -v hyperfine > /dev/null; then
+    hyperfine --warmup 3 --runs "$RUNS" --output=null \
+        "java -jar $JAR ${ARGS[*]}" \
+        "$NATIVE ${ARGS[*]}"
+    exit 0
+fi
+
+measure() {
+    local label="$1"
+    shift
+    local start end total=0
+    for _ in $(seq "$RUNS"); do
+        start=$(date +%s%N)
+        "$@" > /dev/null 2>&1 || true
+        end=$(date +%s%N)
+        total=$((total + end - start))
+    done
+    awk -v label="$label" -v total="$total" -v runs="$RUNS" \
+        'BEGIN { printf "%-8s %8.1f ms mean over %d runs\n", label, total / runs / 1000000, runs }'
+}
+
+measure "jar" java -jar "$JAR" "${ARGS[@]}"
+measure "native" "$NATIVE" "${ARGS[@]}"
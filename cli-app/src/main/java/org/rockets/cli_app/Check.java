@@ -1,16 +1,15 @@
 package org.rockets;
 
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.UUID;
-import java.util.regex.Pattern;
 
+// Input checks shared by the commands and the bulk importer. The format checks are hand-written
+// scanners over the input: they allocate nothing, compile nothing and never throw, so they stay cheap
+// when run once per record over a large import.
 public class Check {
 
+    private static final int[] DAYS_IN_MONTH = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
     // Validates if a list is empty or not of a generic type
     public static <T> boolean validateList(List<T> list) {
         return list != null && !list.isEmpty();
@@ -24,28 +23,35 @@ public class Check {
     // Strings:
     // Validates if a string is empty
     public static boolean validateString(String input) {
-        return input != null && !input.trim().isEmpty();
+        return input != null && !input.isBlank();
     }
 
     // Date and Time
+    // Accepts exactly "yyyy-MM-dd HH:mm" with a day that exists in that month
     public static boolean validateDateTimeFormat(String dateTime) {
-        if (!validateString(dateTime)) {
+        if (dateTime == null || dateTime.length() != 16
+                || dateTime.charAt(4) != '-' || dateTime.charAt(7) != '-'
+                || dateTime.charAt(10) != ' ' || dateTime.charAt(13) != ':') {
             return false;
         }
 
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-
-        try {
-            LocalDateTime.parse(dateTime, formatter);
-            return true;
-        } catch (DateTimeParseException e) {
+        int year = digits(dateTime, 0, 4);
+        int month = digits(dateTime, 5, 7);
+        int day = digits(dateTime, 8, 10);
+        int hour = digits(dateTime, 11, 13);
+        int minute = digits(dateTime, 14, 16);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
             return false;
         }
+        if (month == 2 && day == 29) {
+            return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        }
+        return day <= DAYS_IN_MONTH[month - 1];
     }
 
     // Validates if the given input is a string in the proper format
     public static boolean validateDateTime(String dateTime) {
-        return validateString(dateTime) && validateDateTimeFormat(dateTime);
+        return validateDateTimeFormat(dateTime);
     }
 
     // RETURNS A STRING
@@ -61,31 +67,220 @@ public class Check {
     }
 
     // Email Checker:
-    // Validates that an email is in the proper format
+    // Validates that an email is in the proper format: dot-separated runs of [a-zA-Z0-9_+&*-] before the @,
+    // then one or more [a-zA-Z0-9-] labels and a top-level domain of 2 to 7 letters
     public static boolean isValidEmail(String email) {
-        // DO NOT DELETE
-        // NOT SURE HOW IT WORKS but it defines an expression for the email
-        String emailRegex = "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@" +
-                "(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$";
+        if (email == null) {
+            return false;
+        }
 
-        // Compile the regular expression pattern
-        Pattern pattern = Pattern.compile(emailRegex);
+        int at = email.indexOf('@');
+        if (at <= 0 || !isDotSeparated(email, 0, at)) {
+            return false;
+        }
 
-        // Check if the email matches the pattern
-        if (email == null) {
+        int lastDot = email.lastIndexOf('.');
+        if (lastDot <= at + 1) {
+            return false;
+        }
+        int tldLength = email.length() - lastDot - 1;
+        if (tldLength < 2 || tldLength > 7) {
             return false;
         }
-        // Returns true or false depending on if the email is in proper format
-        return pattern.matcher(email).matches();
+        for (int i = lastDot + 1; i < email.length(); i++) {
+            if (!isAsciiLetter(email.charAt(i))) {
+                return false;
+            }
+        }
+
+        // Every label before the top-level domain must be non-empty
+        int labelStart = at + 1;
+        for (int i = labelStart; i <= lastDot; i++) {
+            char c = email.charAt(i);
+            if (c == '.') {
+                if (i == labelStart) {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (!isAsciiLetterOrDigit(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
     }
 
-    // Validates if a URL is valid or not
+    // Validates if a URL is valid or not: a scheme the JDK can open, no whitespace, and for
+    // http/https/ftp a non-empty host with an optional numeric port. Accepts nothing new URL(...) rejects.
     public static boolean isValidURL(String url) {
-        try {
-            new URL(url);
-            return true;
-        } catch (MalformedURLException e) {
+        if (url == null) {
+            return false;
+        }
+
+        int colon = url.indexOf(':');
+        if (colon <= 0) {
+            return false;
+        }
+        for (int i = 0; i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c <= ' ' || c == 0x7f) {
+                return false;
+            }
+        }
+
+        if (schemeIs(url, colon, "jar")) {
+            // jar:<url>!/<entry>, where <url> must be valid itself; the only case that allocates
+            int bang = url.indexOf("!/", colon + 1);
+            return bang > colon + 1 && isValidURL(url.substring(colon + 1, bang));
+        }
+        if (schemeIs(url, colon, "mailto")) {
+            // Everything after the scheme up to any fragment is the address
+            return colon + 1 < url.length() && url.charAt(colon + 1) != '#';
+        }
+        boolean needsHost = schemeIs(url, colon, "http") || schemeIs(url, colon, "https") || schemeIs(url, colon, "ftp");
+        if (!needsHost && !schemeIs(url, colon, "file") && !schemeIs(url, colon, "jrt")) {
+            return false;
+        }
+        if (!url.startsWith("//", colon + 1)) {
+            return !needsHost && colon + 1 < url.length();
+        }
+        return isValidAuthority(url, colon + 3, needsHost);
+    }
+
+    // The authority from start to the first '/', '?' or '#': optional user info, then a host name or an
+    // IPv6 literal in brackets, then an optional numeric port. Only file and similar URLs may leave out the host.
+    private static boolean isValidAuthority(String url, int start, boolean needsHost) {
+        int authorityEnd = start;
+        while (authorityEnd < url.length() && "/?#".indexOf(url.charAt(authorityEnd)) < 0) {
+            authorityEnd++;
+        }
+        // Skip user info
+        int hostBegin = url.lastIndexOf('@', authorityEnd - 1) + 1;
+        if (hostBegin < start) {
+            hostBegin = start;
+        }
+        for (int i = start; i < hostBegin; i++) {
+            if ("[\\]".indexOf(url.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+
+        int hostEnd = authorityEnd;
+        if (hostBegin < authorityEnd && url.charAt(hostBegin) == '[') {
+            int close = url.indexOf(']', hostBegin);
+            if (close < 0 || close >= authorityEnd || !isIpv6(url, hostBegin + 1, close)) {
+                return false;
+            }
+            hostEnd = close + 1;
+        } else {
+            int portColon = url.indexOf(':', hostBegin);
+            if (portColon >= 0 && portColon < authorityEnd) {
+                hostEnd = portColon;
+            }
+            for (int i = hostBegin; i < hostEnd; i++) {
+                if ("\"<>[\\]^`{|}".indexOf(url.charAt(i)) >= 0) {
+                    return false;
+                }
+            }
+        }
+        if (needsHost && hostEnd == hostBegin) {
             return false;
         }
+        if (hostEnd < authorityEnd) {
+            if (url.charAt(hostEnd) != ':') {
+                return false;
+            }
+            for (int i = hostEnd + 1; i < authorityEnd; i++) {
+                if (!isAsciiDigit(url.charAt(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // An IPv6 address in hex groups: up to eight groups of 1 to 4 hex digits, fewer only around one "::".
+    // Embedded IPv4 and zone IDs are not accepted.
+    private static boolean isIpv6(String input, int start, int end) {
+        int groups = 0;
+        boolean compressed = false;
+        int i = start;
+        if (input.startsWith("::", i)) {
+            compressed = true;
+            i += 2;
+        }
+        while (i < end) {
+            int digits = 0;
+            while (i < end && Character.digit(input.charAt(i), 16) >= 0 && input.charAt(i) < 0x80) {
+                digits++;
+                i++;
+            }
+            if (digits == 0 || digits > 4) {
+                return false;
+            }
+            groups++;
+            if (i == end) {
+                break;
+            }
+            if (input.charAt(i) != ':') {
+                return false;
+            }
+            if (input.startsWith("::", i)) {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i += 2;
+            } else if (++i == end) {
+                return false;
+            }
+        }
+        return compressed ? groups < 8 : groups == 8;
+    }
+
+    // Parses a fixed-width run of ASCII digits, -1 if any character is not a digit
+    private static int digits(String input, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (!isAsciiDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDotSeparated(String input, int start, int end) {
+        boolean previousWasDot = true;
+        for (int i = start; i < end; i++) {
+            char c = input.charAt(i);
+            if (c == '.') {
+                if (previousWasDot) {
+                    return false;
+                }
+                previousWasDot = true;
+            } else if (isAsciiLetterOrDigit(c) || c == '_' || c == '+' || c == '&' || c == '*' || c == '-') {
+                previousWasDot = false;
+            } else {
+                return false;
+            }
+        }
+        return !previousWasDot;
+    }
+
+    private static boolean schemeIs(String url, int colon, String scheme) {
+        return colon == scheme.length() && url.regionMatches(true, 0, scheme, 0, colon);
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c);
     }
 }
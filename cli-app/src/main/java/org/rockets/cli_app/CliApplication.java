@@ -1,14 +1,25 @@
 package org.rockets.cli_app;
 
 import org.rockets.cli_app.cli.parser.CommandLineParser;
+import org.rockets.cli_app.daemon.DaemonClient;
+import org.rockets.cli_app.daemon.DaemonProtocol;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
+import java.util.OptionalInt;
+
 public class CliApplication {
 
     public static void main(String[] args) {
-        CommandLineParser parser = new CommandLineParser();
-        CommandLine commandLine = new CommandLine(parser);
+        // Hand the command to a running daemon if there is one, to skip JVM and connection warm-up
+        if (DaemonClient.shouldForward(args)) {
+            OptionalInt forwardedExitCode = DaemonClient.tryExecute(DaemonProtocol.defaultSocket(), args);
+            if (forwardedExitCode.isPresent()) {
+                System.exit(forwardedExitCode.getAsInt());
+            }
+        }
+
+        CommandLine commandLine = CommandLineParser.newCommandLine();
 
         int exitCode = commandLine.execute(args);
 
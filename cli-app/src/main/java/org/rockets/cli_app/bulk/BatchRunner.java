@@ -0,0 +1,236 @@
+package org.rockets.cli_app.bulk;
+
+import org.rockets.cli_app.service.GatewayClient;
+import picocli.CommandLine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Runs the steps of a CommandScript in one process, each on its own virtual thread, so thousands of
+// blocking commands wait on the gateway together instead of one after another. A step starts once the
+// steps it depends on have succeeded and everything before a preceding "wait" has finished; a step
+// whose dependency failed is skipped, and so is one whose dependency only had its writes queued in the
+// outbox, since the record it would act on is not on the server yet. At most maxInFlight steps per backend
+// run at the same time.
+// Each step's output is collected and printed in one piece, prefixed with its line number.
+public class BatchRunner {
+
+    public enum Status {
+        SUCCEEDED, QUEUED, FAILED, SKIPPED
+    }
+
+    public record Result(long succeeded, long queued, long failed, long skipped, Duration elapsed) {
+
+        public double throughput() {
+            double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+            return (succeeded + queued + failed) / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Ran %d commands (%d queued, %d failed, %d skipped) in %.1fs - %.1f commands/s",
+                    succeeded + queued + failed + skipped, queued, failed, skipped, elapsed.toMillis() / 1000.0, throughput());
+        }
+    }
+
+    private final int maxInFlight;
+    // Command trees are not thread-safe, so every running step borrows one; they are built on demand
+    private final Supplier<CommandLine> commandLines;
+    private final Queue<CommandLine> idle = new ConcurrentLinkedQueue<>();
+    private final Map<String, Semaphore> backends = new ConcurrentHashMap<>();
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    public BatchRunner(int maxInFlight, Supplier<CommandLine> commandLines) {
+        this.maxInFlight = maxInFlight;
+        this.commandLines = commandLines;
+    }
+
+    public Result run(List<CommandScript.Step> steps) {
+        long start = System.nanoTime();
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        // Commands print to System.out and System.err; each step's thread gets its own buffers behind them
+        CapturingOutputStream stdout = new CapturingOutputStream(out);
+        CapturingOutputStream stderr = new CapturingOutputStream(err);
+        System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+        System.setErr(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+
+        List<CompletableFuture<Status>> futures = new ArrayList<>(steps.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Void> barrier = CompletableFuture.completedFuture(null);
+            int barrierSize = 0;
+            for (CommandScript.Step step : steps) {
+                if (step.barrier() != barrierSize) {
+                    barrierSize = step.barrier();
+                    barrier = CompletableFuture.allOf(futures.subList(0, barrierSize).toArray(new CompletableFuture<?>[0]));
+                }
+
+                List<CompletableFuture<Status>> dependencies = new ArrayList<>();
+                step.dependsOn().forEach(index -> dependencies.add(futures.get(index)));
+                CompletableFuture<?>[] waitFor = new CompletableFuture<?>[dependencies.size() + 1];
+                waitFor[0] = barrier;
+                for (int i = 0; i < dependencies.size(); i++) {
+                    waitFor[i + 1] = dependencies.get(i);
+                }
+
+                futures.add(CompletableFuture.allOf(waitFor).thenApplyAsync(ignored -> {
+                    for (CompletableFuture<Status> dependency : dependencies) {
+                        Status status = dependency.join();
+                        if (status != Status.SUCCEEDED) {
+                            skipped.increment();
+                            print(err, step, status == Status.QUEUED
+                                    ? "skipped: a line it runs after was queued in the outbox, not applied"
+                                    : "skipped: a line it runs after did not succeed");
+                            return Status.SKIPPED;
+                        }
+                    }
+                    return execute(step, stdout, stderr, out, err);
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+        return new Result(succeeded.sum(), queued.sum(), failed.sum(), skipped.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    // A command reports most failures on stderr rather than through its exit code, so either counts
+    private Status execute(CommandScript.Step step, CapturingOutputStream stdout, CapturingOutputStream stderr,
+                           PrintStream out, PrintStream err) {
+        Semaphore permits = backends.computeIfAbsent(backend(step.args()), ignored -> new Semaphore(maxInFlight));
+        ByteArrayOutputStream stepOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream stepErr = new ByteArrayOutputStream();
+        LongAdder stepQueued = new LongAdder();
+        int exitCode;
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment();
+            print(err, step, "interrupted");
+            return Status.FAILED;
+        }
+
+        CommandLine commandLine = idle.poll();
+        stdout.capture(stepOut);
+        stderr.capture(stepErr);
+        GatewayClient.trackQueuedWrites(stepQueued);
+        try {
+            if (commandLine == null) {
+                commandLine = commandLines.get();
+            }
+            exitCode = commandLine.execute(step.args().toArray(String[]::new));
+        } catch (RuntimeException e) {
+            exitCode = CommandLine.ExitCode.SOFTWARE;
+            System.err.println("An error occurred: " + e.getMessage());
+        } finally {
+            GatewayClient.untrackQueuedWrites();
+            stdout.release();
+            stderr.release();
+            if (commandLine != null) {
+                idle.add(commandLine);
+            }
+            permits.release();
+        }
+
+        print(out, step, stepOut.toString(StandardCharsets.UTF_8));
+        print(err, step, stepErr.toString(StandardCharsets.UTF_8));
+        if (exitCode != 0 || stepErr.size() > 0) {
+            failed.increment();
+            return Status.FAILED;
+        }
+        long queuedWrites = stepQueued.sum();
+        if (queuedWrites > 0) {
+            queued.increment();
+            print(err, step, "queued: " + queuedWrites + (queuedWrites == 1 ? " change was" : " changes were")
+                    + " queued in the outbox and not applied yet");
+            return Status.QUEUED;
+        }
+        succeeded.increment();
+        return Status.SUCCEEDED;
+    }
+
+    // Steps are limited per backend service, named after the record type they work on: "create meeting"
+    // and "list meetings" count against "meetings"; commands without a record type against their own name
+    static String backend(List<String> args) {
+        if (args.size() < 2 || args.get(1).startsWith("-")) {
+            return args.get(0);
+        }
+        String type = args.get(1).toLowerCase(Locale.ROOT);
+        return type.endsWith("s") ? type : type + "s";
+    }
+
+    private static void print(PrintStream stream, CommandScript.Step step, String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        for (String line : text.split("\\R")) {
+            lines.append('[').append(step.lineNumber()).append("] ").append(line).append(System.lineSeparator());
+        }
+        synchronized (stream) {
+            stream.print(lines);
+            stream.flush();
+        }
+    }
+
+    // Sends what the current thread writes to the buffer it has claimed, or to the real stream otherwise
+    private static final class CapturingOutputStream extends OutputStream {
+        private final OutputStream fallback;
+        private final ThreadLocal<OutputStream> target = new ThreadLocal<>();
+
+        CapturingOutputStream(OutputStream fallback) {
+            this.fallback = fallback;
+        }
+
+        void capture(OutputStream buffer) {
+            target.set(buffer);
+        }
+
+        void release() {
+            target.remove();
+        }
+
+        private OutputStream current() {
+            OutputStream buffer = target.get();
+            return buffer != null ? buffer : fallback;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.rockets.cli_app.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.rockets.cli_app.service.CircuitOpenException;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Pushes records through a handler on virtual threads. At most `concurrency` records are in flight:
+// the reader blocks until a slot frees up, so a slow gateway throttles how fast the file is read.
+public class BulkImporter {
+
+    @FunctionalInterface
+    public interface RecordHandler {
+        void handle(JsonNode fields) throws Exception;
+    }
+
+    public record Result(long succeeded, long failed, long retries, Duration elapsed) {
+
+        public double throughput() {
+            double seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+            return (succeeded + failed) / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Imported %d records (%d failed, %d retries) in %.1fs - %.1f records/s",
+                    succeeded, failed, retries, elapsed.toMillis() / 1000.0, throughput());
+        }
+    }
+
+    private static final Duration BASE_BACKOFF = Duration.ofMillis(200);
+
+    private final int concurrency;
+    private final int maxRetries;
+    private final Duration progressInterval;
+    private final PrintStream progressOut;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public BulkImporter(int concurrency, int maxRetries, Duration progressInterval, PrintStream progressOut) {
+        if (concurrency < 1 || maxRetries < 0 || progressInterval.toMillis() < 1) {
+            throw new IllegalArgumentException("concurrency and progress interval must be positive, retries not negative");
+        }
+        this.concurrency = concurrency;
+        this.maxRetries = maxRetries;
+        this.progressInterval = progressInterval;
+        this.progressOut = progressOut;
+    }
+
+    public Result run(Iterator<RecordReader.Record> records, RecordHandler handler) throws InterruptedException {
+        long start = System.nanoTime();
+        Semaphore inFlight = new Semaphore(concurrency);
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().factory());
+        progress.scheduleAtFixedRate(() -> progressOut.println(snapshot(start)),
+                progressInterval.toMillis(), progressInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (records.hasNext()) {
+                inFlight.acquire();
+                RecordReader.Record record = records.next();
+                executor.execute(() -> {
+                    try {
+                        importWithRetry(record, handler);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            progress.shutdownNow();
+        }
+
+        return snapshot(start);
+    }
+
+    private void importWithRetry(RecordReader.Record record, RecordHandler handler) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                handler.handle(record.fields());
+                succeeded.increment();
+                return;
+            } catch (IllegalArgumentException | JsonProcessingException e) {
+                // Invalid records and unreadable responses will not get better by retrying
+                fail(record, e);
+                return;
+            } catch (CircuitOpenException e) {
+                // The gateway client already gave up on the backend; waiting here would only hold the slot
+                fail(record, e);
+                return;
+            } catch (Exception e) {
+                // Each attempt is itself retried by the gateway client (cli.retry.max) where that is safe, so
+                // a record is sent at most (maxRetries + 1) * (cli.retry.max + 1) times
+                if (attempt >= maxRetries) {
+                    fail(record, e);
+                    return;
+                }
+                retries.increment();
+                if (!sleep(backoff(attempt))) {
+                    fail(record, e);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Exponential backoff with equal jitter: a random wait between half the step and the whole step
+    private static long backoff(int attempt) {
+        long cap = BASE_BACKOFF.toMillis() << Math.min(attempt, 6);
+        return ThreadLocalRandom.current().nextLong(cap / 2, cap + 1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void fail(RecordReader.Record record, Exception e) {
+        failed.increment();
+        System.err.println("Record on line " + record.line() + " failed: " + e.getMessage());
+    }
+
+    private Result snapshot(long start) {
+        return new Result(succeeded.sum(), failed.sum(), retries.sum(), Duration.ofNanos(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,100 @@
+package org.rockets.cli_app.bulk;
+
+import org.jline.reader.Parser;
+import org.jline.reader.impl.DefaultParser;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// A batch script: one CLI command per line, split into words the way the shell splits them (quotes and
+// escapes included). Blank lines and lines starting with # are skipped. A line can be prefixed with
+//     name=<label>            so that later lines can refer to it
+//     after=<label>[,<label>]  to run only once those lines have succeeded
+// and a line containing only "wait" makes every later line wait for every earlier one.
+// Labels must be defined before they are referred to, so the dependencies cannot form a cycle.
+public class CommandScript {
+
+    private static final String NAME = "name=";
+    private static final String AFTER = "after=";
+    private static final String WAIT = "wait";
+
+    // dependsOn holds indexes of earlier steps; barrier is the number of steps a "wait" before this one covers
+    public record Step(int index, int lineNumber, String label, Set<Integer> dependsOn, int barrier, List<String> args) {
+    }
+
+    private CommandScript() {
+    }
+
+    public static List<Step> read(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    public static List<Step> parse(BufferedReader reader) throws IOException {
+        DefaultParser parser = new DefaultParser();
+        List<Step> steps = new ArrayList<>();
+        Map<String, Integer> labels = new HashMap<>();
+        int barrier = 0;
+        int lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            if (trimmed.equals(WAIT)) {
+                barrier = steps.size();
+                continue;
+            }
+
+            List<String> words;
+            try {
+                words = new ArrayList<>(parser.parse(trimmed, trimmed.length(), Parser.ParseContext.ACCEPT_LINE).words());
+            } catch (RuntimeException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+            words.removeIf(String::isEmpty);
+
+            String label = null;
+            Set<Integer> dependsOn = new LinkedHashSet<>();
+            while (!words.isEmpty() && (words.get(0).startsWith(NAME) || words.get(0).startsWith(AFTER))) {
+                String prefix = words.remove(0);
+                if (prefix.startsWith(NAME)) {
+                    label = prefix.substring(NAME.length());
+                    if (label.isEmpty() || labels.containsKey(label)) {
+                        throw new IOException("Line " + lineNumber + ": " + (label.isEmpty() ? "empty name" : "duplicate name '" + label + "'"));
+                    }
+                    continue;
+                }
+                for (String dependency : prefix.substring(AFTER.length()).split(",")) {
+                    Integer index = labels.get(dependency);
+                    if (index == null) {
+                        throw new IOException("Line " + lineNumber + ": no earlier line is named '" + dependency + "'");
+                    }
+                    dependsOn.add(index);
+                }
+            }
+            if (words.isEmpty()) {
+                throw new IOException("Line " + lineNumber + ": no command");
+            }
+
+            if (label != null) {
+                labels.put(label, steps.size());
+            }
+            steps.add(new Step(steps.size(), lineNumber, label, dependsOn, barrier, List.copyOf(words)));
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,59 @@
+package org.rockets.cli_app.bulk;
+
+import org.rockets.cli_app.components.Attachment;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.components.Participant;
+
+import java.util.List;
+import java.util.function.Function;
+
+// The columns written for each record type. Names match what the importer reads, so an export can be
+// imported again; related records are written as lists of IDs.
+public record ExportSchema<T>(List<Column<T>> columns) {
+
+    // A column holds either a single text value or a list of IDs
+    public record Column<T>(String name, Function<T, String> text, Function<T, List<String>> ids) {
+
+        public boolean isList() {
+            return ids != null;
+        }
+    }
+
+    public static final ExportSchema<Meeting> MEETING = new ExportSchema<>(List.of(
+            text("id", Meeting::getId),
+            text("title", Meeting::getTitle),
+            text("datetime", Meeting::getDateTime),
+            text("location", Meeting::getLocation),
+            text("details", Meeting::getDetails),
+            ids("participants", meeting -> idsOf(meeting.getParticipants(), Participant::getId)),
+            ids("attachments", meeting -> idsOf(meeting.getAttachments(), Attachment::getId)),
+            ids("calendars", meeting -> idsOf(meeting.getCalendars(), Calendar::getId))));
+
+    public static final ExportSchema<Calendar> CALENDAR = new ExportSchema<>(List.of(
+            text("id", Calendar::getId),
+            text("title", Calendar::getTitle),
+            text("details", Calendar::getDetails),
+            ids("meetings", calendar -> idsOf(calendar.getMeetings(), Meeting::getId))));
+
+    public static final ExportSchema<Participant> PARTICIPANT = new ExportSchema<>(List.of(
+            text("id", Participant::getId),
+            text("name", Participant::getName),
+            text("email", Participant::getEmail)));
+
+    public static final ExportSchema<Attachment> ATTACHMENT = new ExportSchema<>(List.of(
+            text("id", Attachment::getId),
+            text("url", Attachment::getUrl)));
+
+    private static <T> Column<T> text(String name, Function<T, String> value) {
+        return new Column<>(name, value, null);
+    }
+
+    private static <T> Column<T> ids(String name, Function<T, List<String>> value) {
+        return new Column<>(name, null, value);
+    }
+
+    private static <R> List<String> idsOf(List<R> related, Function<R, String> idOf) {
+        return related.stream().map(idOf).toList();
+    }
+}
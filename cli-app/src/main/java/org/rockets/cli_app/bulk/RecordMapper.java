@@ -0,0 +1,91 @@
+package org.rockets.cli_app.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.rockets.Check;
+import org.rockets.cli_app.components.Attachment;
+import org.rockets.cli_app.components.Participant;
+import org.rockets.cli_app.dto.CalendarDTO;
+import org.rockets.cli_app.dto.MeetingDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Turns imported records into the objects the create* service methods expect, applying the same
+// limits and validation as the create commands. Invalid records raise IllegalArgumentException.
+public class RecordMapper {
+
+    private RecordMapper() {
+    }
+
+    public static MeetingDTO toMeeting(JsonNode fields) {
+        requireValid(RecordValidator.RecordType.MEETING, fields);
+
+        MeetingDTO meeting = new MeetingDTO(
+                idOrRandom(fields, "meetingId"),
+                Check.limitString(text(fields, "title"), 2000),
+                text(fields, "datetime"),
+                Check.limitString(text(fields, "location"), 2000),
+                Check.limitString(text(fields, "details"), 10000),
+                list(fields, "participants"));
+        meeting.setAttachments(list(fields, "attachments"));
+        return meeting;
+    }
+
+    public static CalendarDTO toCalendar(JsonNode fields) {
+        requireValid(RecordValidator.RecordType.CALENDAR, fields);
+
+        return new CalendarDTO(
+                idOrRandom(fields, "calendarId"),
+                Check.limitString(text(fields, "title"), 2000),
+                Check.limitString(text(fields, "details"), 10000),
+                list(fields, "meetings"));
+    }
+
+    public static Participant toParticipant(JsonNode fields) {
+        requireValid(RecordValidator.RecordType.PARTICIPANT, fields);
+
+        return new Participant(idOrRandom(fields, "participantId"), Check.limitString(text(fields, "name"), 600), text(fields, "email"));
+    }
+
+    public static Attachment toAttachment(JsonNode fields) {
+        requireValid(RecordValidator.RecordType.ATTACHMENT, fields);
+
+        return new Attachment(idOrRandom(fields, "attachmentId"), text(fields, "url"));
+    }
+
+    // Reports every problem of the record at once rather than only the first
+    private static void requireValid(RecordValidator.RecordType type, JsonNode fields) {
+        List<String> problems = RecordValidator.validate(type, fields);
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", problems));
+        }
+    }
+
+    private static String idOrRandom(JsonNode fields, String alias) {
+        String id = text(fields, "id");
+        if (id == null) {
+            id = text(fields, alias);
+        }
+        return id != null ? id : UUID.randomUUID().toString();
+    }
+
+    static String text(JsonNode fields, String name) {
+        JsonNode value = fields.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    static List<String> list(JsonNode fields, String name) {
+        List<String> values = new ArrayList<>();
+        JsonNode node = fields.get(name);
+        if (node == null || node.isNull()) {
+            return values;
+        }
+        if (node.isArray()) {
+            node.forEach(item -> values.add(item.isObject() ? item.path("id").asText() : item.asText()));
+        } else {
+            values.add(node.asText());
+        }
+        return values;
+    }
+}
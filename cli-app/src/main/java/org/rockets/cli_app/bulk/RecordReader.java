@@ -0,0 +1,164 @@
+package org.rockets.cli_app.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Reads records one line at a time from a JSONL or CSV file, so files of any size can be imported
+// without loading them into memory. CSV files need a header row; list columns are separated by ';'.
+public class RecordReader implements Iterator<RecordReader.Record>, Closeable {
+
+    public enum Format {
+        JSONL, CSV;
+
+        public static Format fromFileName(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".csv") ? CSV : JSONL;
+        }
+    }
+
+    // A single input record together with the line it was read from, for error reporting
+    public record Record(long line, JsonNode fields) {
+    }
+
+    private static final Set<String> LIST_COLUMNS = Set.of("participants", "attachments", "meetings", "calendars");
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private final String[] header;
+    private long lineNumber;
+    private Record next;
+
+    public RecordReader(Path file, Format format, ObjectMapper objectMapper) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.format = format;
+        this.objectMapper = objectMapper;
+        this.header = format == Format.CSV ? readHeader() : null;
+    }
+
+    private String[] readHeader() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return new String[0];
+        }
+        List<String> columns = splitCsvLine(line);
+        return columns.stream().map(String::trim).toArray(String[]::new);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Record record = next;
+        next = null;
+        return record;
+    }
+
+    private Record readNext() throws IOException {
+        String line = nextNonBlankLine();
+        if (line == null) {
+            return null;
+        }
+        JsonNode fields = format == Format.CSV ? parseCsv(line) : objectMapper.readTree(line);
+        return new Record(lineNumber, fields);
+    }
+
+    private String nextNonBlankLine() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (!line.isBlank()) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private JsonNode parseCsv(String line) {
+        List<String> values = splitCsvLine(line);
+        ObjectNode node = objectMapper.createObjectNode();
+
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            if (LIST_COLUMNS.contains(header[i])) {
+                ArrayNode items = node.putArray(header[i]);
+                for (String item : value.split(";")) {
+                    if (!item.isBlank()) {
+                        items.add(item.trim());
+                    }
+                }
+            } else {
+                node.put(header[i], value);
+            }
+        }
+
+        return node;
+    }
+
+    // Splits a CSV line, honouring double-quoted fields and "" escapes
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+
+        return values;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
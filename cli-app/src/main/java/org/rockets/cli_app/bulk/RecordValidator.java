@@ -0,0 +1,110 @@
+package org.rockets.cli_app.bulk;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.rockets.Check;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Checks imported records against the rules the create commands apply. Every problem of a record is
+// collected instead of stopping at the first one, so a single pass over a file reports all of them.
+public class RecordValidator {
+
+    public enum RecordType {
+        MEETING, CALENDAR, PARTICIPANT, ATTACHMENT
+    }
+
+    public record Violation(long line, String message) {
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    public record Report(long records, long invalidRecords, long violations, Duration elapsed) {
+
+        public boolean isValid() {
+            return invalidRecords == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Validated %d records in %.1fs: %d invalid, %d problems",
+                    records, elapsed.toMillis() / 1000.0, invalidRecords, violations);
+        }
+    }
+
+    private RecordValidator() {
+    }
+
+    // Problems with a single record, empty when it can be imported
+    public static List<String> validate(RecordType type, JsonNode fields) {
+        List<String> problems = new ArrayList<>();
+        switch (type) {
+            case MEETING -> {
+                requireText(fields, "title", problems);
+                String dateTime = RecordMapper.text(fields, "datetime");
+                if (!Check.validateDateTime(dateTime)) {
+                    problems.add("Invalid Date Time: " + dateTime);
+                }
+                requireText(fields, "location", problems);
+                requireText(fields, "details", problems);
+            }
+            case CALENDAR -> {
+                requireText(fields, "title", problems);
+                requireText(fields, "details", problems);
+                if (RecordMapper.list(fields, "meetings").isEmpty()) {
+                    problems.add("Meeting IDs are empty");
+                }
+            }
+            case PARTICIPANT -> {
+                requireText(fields, "name", problems);
+                String email = RecordMapper.text(fields, "email");
+                if (!Check.isValidEmail(email)) {
+                    problems.add("Invalid Email: " + email);
+                }
+            }
+            case ATTACHMENT -> {
+                String url = RecordMapper.text(fields, "url");
+                if (!Check.validateString(url)) {
+                    problems.add("Missing url");
+                } else if (!Check.isValidURL(url)) {
+                    problems.add("Invalid URL: " + url);
+                }
+            }
+        }
+        return problems;
+    }
+
+    // Validates every record of a file without sending anything, passing each problem to the sink
+    public static Report validateAll(Iterator<RecordReader.Record> records, RecordType type, Consumer<Violation> sink) {
+        long start = System.nanoTime();
+        long count = 0;
+        long invalid = 0;
+        long violations = 0;
+
+        while (records.hasNext()) {
+            RecordReader.Record record = records.next();
+            count++;
+            List<String> problems = validate(type, record.fields());
+            if (!problems.isEmpty()) {
+                invalid++;
+                violations += problems.size();
+                for (String problem : problems) {
+                    sink.accept(new Violation(record.line(), problem));
+                }
+            }
+        }
+        return new Report(count, invalid, violations, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private static void requireText(JsonNode fields, String name, List<String> problems) {
+        if (!Check.validateString(RecordMapper.text(fields, name))) {
+            problems.add("Missing " + name);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package org.rockets.cli_app.bulk;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Writes exported records one at a time, so an export uses the same memory however many records
+// there are. NDJSON and CSV write each record as soon as it arrives; the columnar format buffers one
+// row group and then writes it column by column.
+public abstract class RecordWriter<T> implements Closeable {
+
+    public enum Format {
+        NDJSON, CSV, COLUMNAR;
+
+        public static Format fromFileName(Path file) {
+            if (file == null) {
+                return NDJSON;
+            }
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".csv") ? CSV : name.endsWith(".columnar.json") ? COLUMNAR : NDJSON;
+        }
+    }
+
+    public static final int DEFAULT_ROW_GROUP_SIZE = 10_000;
+
+    protected final ExportSchema<T> schema;
+    private long written;
+
+    protected RecordWriter(ExportSchema<T> schema) {
+        this.schema = schema;
+    }
+
+    public static <T> RecordWriter<T> create(Format format, ExportSchema<T> schema, OutputStream out,
+                                             JsonFactory jsonFactory, int rowGroupSize) throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter<>(schema, jsonFactory.createGenerator(out));
+            case CSV -> new CsvWriter<>(schema, new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16));
+            case COLUMNAR -> new ColumnarWriter<>(schema, jsonFactory.createGenerator(out), rowGroupSize);
+        };
+    }
+
+    public final void write(T record) throws IOException {
+        writeRecord(record);
+        written++;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    protected abstract void writeRecord(T record) throws IOException;
+
+    private static void writeIds(JsonGenerator generator, List<String> ids) throws IOException {
+        generator.writeStartArray();
+        for (String id : ids) {
+            generator.writeString(id);
+        }
+        generator.writeEndArray();
+    }
+
+    // One JSON object per line; null values are left out
+    private static class NdjsonWriter<T> extends RecordWriter<T> {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(ExportSchema<T> schema, JsonGenerator generator) {
+            super(schema);
+            this.generator = generator;
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        protected void writeRecord(T record) throws IOException {
+            generator.writeStartObject();
+            for (ExportSchema.Column<T> column : schema.columns()) {
+                if (column.isList()) {
+                    generator.writeFieldName(column.name());
+                    writeIds(generator, column.ids().apply(record));
+                } else {
+                    String value = column.text().apply(record);
+                    if (value != null) {
+                        generator.writeStringField(column.name(), value);
+                    }
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (getWritten() > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+
+    // A header row, then one row per record with lists joined by ';' as the importer expects
+    private static class CsvWriter<T> extends RecordWriter<T> {
+        private final Writer out;
+
+        CsvWriter(ExportSchema<T> schema, Writer out) throws IOException {
+            super(schema);
+            this.out = out;
+            List<ExportSchema.Column<T>> columns = schema.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(columns.get(i).name());
+            }
+            out.write('\n');
+        }
+
+        @Override
+        protected void writeRecord(T record) throws IOException {
+            List<ExportSchema.Column<T>> columns = schema.columns();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                ExportSchema.Column<T> column = columns.get(i);
+                String value = column.isList() ? String.join(";", column.ids().apply(record)) : column.text().apply(record);
+                if (value != null) {
+                    writeField(value);
+                }
+            }
+            out.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean needsQuotes = false;
+            for (int i = 0; i < value.length() && !needsQuotes; i++) {
+                char c = value.charAt(i);
+                needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!needsQuotes) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.write('"');
+                }
+                out.write(c);
+            }
+            out.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // Row groups of up to rowGroupSize records, one JSON line each:
+    // {"rows":n,"columns":{"id":[...],"title":[...],"participants":[[...],...]}}
+    // Each column is stored contiguously, which compresses and scans well in analytics tools.
+    private static class ColumnarWriter<T> extends RecordWriter<T> {
+        private final JsonGenerator generator;
+        private final int rowGroupSize;
+        private final List<T> rowGroup;
+
+        ColumnarWriter(ExportSchema<T> schema, JsonGenerator generator, int rowGroupSize) {
+            super(schema);
+            this.generator = generator;
+            this.rowGroupSize = Math.max(rowGroupSize, 1);
+            this.rowGroup = new ArrayList<>(Math.min(this.rowGroupSize, DEFAULT_ROW_GROUP_SIZE));
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        protected void writeRecord(T record) throws IOException {
+            rowGroup.add(record);
+            if (rowGroup.size() >= rowGroupSize) {
+                flushRowGroup();
+            }
+        }
+
+        private void flushRowGroup() throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("rows", rowGroup.size());
+            generator.writeObjectFieldStart("columns");
+            for (ExportSchema.Column<T> column : schema.columns()) {
+                generator.writeArrayFieldStart(column.name());
+                for (T record : rowGroup) {
+                    if (column.isList()) {
+                        writeIds(generator, column.ids().apply(record));
+                    } else {
+                        String value = column.text().apply(record);
+                        if (value != null) {
+                            generator.writeString(value);
+                        } else {
+                            generator.writeNull();
+                        }
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            rowGroup.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!rowGroup.isEmpty()) {
+                flushRowGroup();
+            }
+            if (getWritten() > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+}
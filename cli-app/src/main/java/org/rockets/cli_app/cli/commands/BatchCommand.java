@@ -0,0 +1,83 @@
+package org.rockets.cli_app.cli.commands;
+
+import org.rockets.cli_app.bulk.BatchRunner;
+import org.rockets.cli_app.bulk.CommandScript;
+import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.cli.parser.CommandLineParser;
+import org.rockets.cli_app.daemon.DaemonProtocol;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Command(name = "batch", description = "Run a script of commands, one per line, concurrently in this process")
+public class BatchCommand implements Runnable {
+
+    @Mixin
+    private HelpOption helpOption;
+
+    @Option(names = {"-f", "--file"}, required = true, description = "Script to run: one command per line, e.g. 'create meeting --title Standup ...'. "
+            + "Prefix a line with name=<label> and later lines with after=<label> to order them; a line with only 'wait' waits for all earlier lines.")
+    private Path file;
+
+    @Option(names = "--max-in-flight", defaultValue = "16", description = "Most commands running at once against each backend service (default: ${DEFAULT-VALUE})")
+    private int maxInFlight;
+
+    @Option(names = "--validate-only", description = "Check every line of the script without running it")
+    private boolean validateOnly;
+
+    @Override
+    public void run() {
+        if (maxInFlight < 1) {
+            System.err.println("An error occurred: --max-in-flight must be at least 1");
+            return;
+        }
+
+        List<CommandScript.Step> steps;
+        try {
+            steps = CommandScript.read(file);
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+            return;
+        }
+
+        // Every line is parsed before anything runs, so a typo on line 9,000 does not leave a half-applied script
+        List<String> problems = validate(steps);
+        if (!problems.isEmpty()) {
+            problems.forEach(System.err::println);
+            System.err.println(problems.size() + " of " + steps.size() + " lines are invalid; nothing was run.");
+            return;
+        }
+        if (validateOnly) {
+            System.out.println("All " + steps.size() + " lines are valid.");
+            return;
+        }
+
+        // Lines skip the per-command metrics and trace; options given before 'batch' cover the whole script
+        BatchRunner runner = new BatchRunner(maxInFlight,
+                () -> CommandLineParser.newCommandLine().setExecutionStrategy(new CommandLine.RunLast()));
+        System.out.println(runner.run(steps));
+    }
+
+    private static List<String> validate(List<CommandScript.Step> steps) {
+        List<String> problems = new ArrayList<>();
+        CommandLine commandLine = CommandLineParser.newCommandLine();
+        for (CommandScript.Step step : steps) {
+            String command = step.args().get(0);
+            if (command.equals("batch") || DaemonProtocol.LOCAL_COMMANDS.contains(command)) {
+                problems.add("Line " + step.lineNumber() + ": '" + command + "' cannot run inside a batch");
+                continue;
+            }
+            try {
+                commandLine.parseArgs(step.args().toArray(String[]::new));
+            } catch (CommandLine.ParameterException e) {
+                problems.add("Line " + step.lineNumber() + ": " + e.getMessage());
+            }
+        }
+        return problems;
+    }
+}
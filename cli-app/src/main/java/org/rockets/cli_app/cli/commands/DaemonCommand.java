@@ -0,0 +1,39 @@
+package org.rockets.cli_app.cli.commands;
+
+import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.daemon.DaemonProtocol;
+import org.rockets.cli_app.daemon.DaemonServer;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Command(name = "daemon", description = "Run in the background and execute commands handed over by later invocations")
+public class DaemonCommand implements Runnable {
+
+    @Mixin
+    private HelpOption helpOption;
+
+    @Option(names = "--socket", description = "Unix domain socket to listen on (default: $CLI_APP_SOCKET, else daemon.sock in $XDG_RUNTIME_DIR/cli_app or ~/.cli_app)")
+    private Path socket;
+
+    @Option(names = "--idle-timeout", description = "Minutes without commands before the daemon exits, 0 to run forever (default: ${DEFAULT-VALUE})", defaultValue = "30")
+    private long idleTimeoutMinutes;
+
+    @Option(names = "--sync-interval", description = "Seconds between attempts to send queued changes to the gateway, 0 to only sync on request (default: ${DEFAULT-VALUE})", defaultValue = "30")
+    private long syncIntervalSeconds;
+
+    @Override
+    public void run() {
+        Path socketPath = socket != null ? socket : DaemonProtocol.defaultSocket();
+        try {
+            System.out.println("Daemon listening on " + socketPath);
+            new DaemonServer(socketPath, Duration.ofMinutes(idleTimeoutMinutes), Duration.ofSeconds(syncIntervalSeconds)).serve();
+            System.out.println("Daemon stopped");
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package org.rockets.cli_app.cli.commands;
+
+import org.rockets.cli_app.bulk.ExportSchema;
+import org.rockets.cli_app.bulk.RecordWriter;
+import org.rockets.cli_app.cli.common.ExportOptions;
+import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.cli.common.PageOptions;
+import org.rockets.cli_app.service.AttachmentService;
+import org.rockets.cli_app.service.CalendarService;
+import org.rockets.cli_app.service.GatewayClient;
+import org.rockets.cli_app.service.MeetingService;
+import org.rockets.cli_app.service.PageIterator;
+import org.rockets.cli_app.service.ParticipantService;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+@Command(
+        name = "export",
+        description = "Export records as NDJSON, CSV or columnar row groups",
+        subcommands = {
+                ExportCommand.ExportMeetingCommand.class,
+                ExportCommand.ExportCalendarCommand.class,
+                ExportCommand.ExportParticipantCommand.class,
+                ExportCommand.ExportAttachmentCommand.class
+        }
+)
+public class ExportCommand implements Runnable {
+
+    public ExportCommand() {
+    }
+
+    @Mixin
+    private HelpOption helpOption;
+
+    @Override
+    public void run() {
+        System.out.println("Use one of the subcommands to export a specific record type (meeting, calendar, participant, attachment).");
+    }
+
+    // Writes each record as its page streams in; the summary goes to stderr so stdout stays machine-readable
+    static <T> void exportAll(ExportOptions options, ExportSchema<T> schema, PageIterator<T> records) {
+        long start = System.nanoTime();
+        try (records) {
+            RecordWriter<T> writer = RecordWriter.create(options.resolveFormat(), schema, open(options),
+                    GatewayClient.getInstance().getObjectMapper().getFactory(), options.rowGroupSize);
+            try (writer) {
+                while (records.hasNext()) {
+                    writer.write(records.next());
+                }
+            }
+            System.err.printf("Exported %d records in %.1fs%n", writer.getWritten(), (System.nanoTime() - start) / 1e9);
+            if (records.hasMore()) {
+                System.err.println("More records available, continue with --cursor " + records.getCursor());
+            }
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+        }
+    }
+
+    private static OutputStream open(ExportOptions options) throws IOException {
+        if (options.out != null) {
+            return new BufferedOutputStream(Files.newOutputStream(options.out), 1 << 16);
+        }
+        // Standard output is flushed but left open
+        return new BufferedOutputStream(System.out, 1 << 16) {
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    // Subcommand for exporting meetings
+    @Command(name = "meeting", aliases = "meetings", description = "Export meetings")
+    public static class ExportMeetingCommand implements Runnable {
+
+        @Mixin
+        private ExportOptions options;
+
+        @Mixin
+        private PageOptions pageOptions;
+
+        @Override
+        public void run() {
+            String invalid = pageOptions.invalidOption();
+            if (invalid != null) {
+                System.err.println("An error occurred: " + invalid);
+                return;
+            }
+            MeetingService meetingService = new MeetingService();
+            exportAll(options, ExportSchema.MEETING,
+                    meetingService.iterateMeetings(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit));
+        }
+    }
+
+    // Subcommand for exporting calendars
+    @Command(name = "calendar", aliases = "calendars", description = "Export calendars")
+    public static class ExportCalendarCommand implements Runnable {
+
+        @Mixin
+        private ExportOptions options;
+
+        @Mixin
+        private PageOptions pageOptions;
+
+        @Override
+        public void run() {
+            String invalid = pageOptions.invalidOption();
+            if (invalid != null) {
+                System.err.println("An error occurred: " + invalid);
+                return;
+            }
+            CalendarService calendarService = new CalendarService();
+            exportAll(options, ExportSchema.CALENDAR,
+                    calendarService.iterateCalendars(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit));
+        }
+    }
+
+    // Subcommand for exporting participants
+    @Command(name = "participant", aliases = "participants", description = "Export participants")
+    public static class ExportParticipantCommand implements Runnable {
+
+        @Mixin
+        private ExportOptions options;
+
+        @Mixin
+        private PageOptions pageOptions;
+
+        @Override
+        public void run() {
+            String invalid = pageOptions.invalidOption();
+            if (invalid != null) {
+                System.err.println("An error occurred: " + invalid);
+                return;
+            }
+            ParticipantService participantService = new ParticipantService();
+            exportAll(options, ExportSchema.PARTICIPANT,
+                    participantService.iterateParticipants(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit));
+        }
+    }
+
+    // Subcommand for exporting attachments
+    @Command(name = "attachment", aliases = "attachments", description = "Export attachments")
+    public static class ExportAttachmentCommand implements Runnable {
+
+        @Mixin
+        private ExportOptions options;
+
+        @Mixin
+        private PageOptions pageOptions;
+
+        @Override
+        public void run() {
+            String invalid = pageOptions.invalidOption();
+            if (invalid != null) {
+                System.err.println("An error occurred: " + invalid);
+                return;
+            }
+            AttachmentService attachmentService = new AttachmentService();
+            exportAll(options, ExportSchema.ATTACHMENT,
+                    attachmentService.iterateAttachments(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.rockets.cli_app.cli.commands;
+
+import org.rockets.cli_app.bulk.BulkImporter;
+import org.rockets.cli_app.bulk.RecordMapper;
+import org.rockets.cli_app.bulk.RecordReader;
+import org.rockets.cli_app.bulk.RecordValidator;
+import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.cli.common.ImportOptions;
+import org.rockets.cli_app.components.Attachment;
+import org.rockets.cli_app.service.AttachmentService;
+import org.rockets.cli_app.service.CalendarService;
+import org.rockets.cli_app.service.GatewayClient;
+import org.rockets.cli_app.service.MeetingService;
+import org.rockets.cli_app.service.ParticipantService;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+
+import java.io.IOException;
+import java.time.Duration;
+
+@Command(
+        name = "import",
+        description = "Bulk import records from a JSONL or CSV file",
+        subcommands = {
+                ImportCommand.ImportMeetingCommand.class,
+                ImportCommand.ImportCalendarCommand.class,
+                ImportCommand.ImportParticipantCommand.class,
+                ImportCommand.ImportAttachmentCommand.class
+        }
+)
+public class ImportCommand implements Runnable {
+
+    public ImportCommand() {
+    }
+
+    @Mixin
+    private HelpOption helpOption;
+
+    @Override
+    public void run() {
+        System.out.println("Use one of the subcommands to import a specific record type (meeting, calendar, participant, attachment).");
+    }
+
+    // Streams the file through the importer and prints the final report
+    static void importFile(ImportOptions options, RecordValidator.RecordType type, BulkImporter.RecordHandler handler) {
+        String invalid = options.invalidOption();
+        if (invalid != null) {
+            System.err.println("An error occurred: " + invalid);
+            return;
+        }
+        if (options.validateOnly) {
+            validateFile(options, type);
+            return;
+        }
+
+        BulkImporter importer = new BulkImporter(options.concurrency, options.retries,
+                Duration.ofSeconds(options.progressInterval), System.err);
+
+        try (RecordReader records = new RecordReader(options.file, options.resolveFormat(),
+                GatewayClient.getInstance().getObjectMapper())) {
+            BulkImporter.Result result = importer.run(records, handler);
+            System.out.println(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Import interrupted");
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+        }
+    }
+
+    // Checks every record of the file in one pass and prints all problems, without contacting the gateway
+    static void validateFile(ImportOptions options, RecordValidator.RecordType type) {
+        try (RecordReader records = new RecordReader(options.file, options.resolveFormat(),
+                GatewayClient.getInstance().getObjectMapper())) {
+            RecordValidator.Report report = RecordValidator.validateAll(records, type, System.err::println);
+            System.out.println(report);
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+        }
+    }
+
+    // Subcommand for importing meetings
+    @Command(name = "meeting", aliases = "meetings", description = "Import meetings")
+    public static class ImportMeetingCommand implements Runnable {
+
+        @Mixin
+        private ImportOptions options;
+
+        @Override
+        public void run() {
+            MeetingService meetingService = new MeetingService();
+            importFile(options, RecordValidator.RecordType.MEETING, fields -> meetingService.createMeeting(RecordMapper.toMeeting(fields)));
+        }
+    }
+
+    // Subcommand for importing calendars
+    @Command(name = "calendar", aliases = "calendars", description = "Import calendars")
+    public static class ImportCalendarCommand implements Runnable {
+
+        @Mixin
+        private ImportOptions options;
+
+        @Override
+        public void run() {
+            CalendarService calendarService = new CalendarService();
+            importFile(options, RecordValidator.RecordType.CALENDAR, fields -> calendarService.createCalendar(RecordMapper.toCalendar(fields)));
+        }
+    }
+
+    // Subcommand for importing participants
+    @Command(name = "participant", aliases = "participants", description = "Import participants")
+    public static class ImportParticipantCommand implements Runnable {
+
+        @Mixin
+        private ImportOptions options;
+
+        @Override
+        public void run() {
+            ParticipantService participantService = new ParticipantService();
+            importFile(options, RecordValidator.RecordType.PARTICIPANT, fields -> participantService.createParticipant(RecordMapper.toParticipant(fields)));
+        }
+    }
+
+    // Subcommand for importing attachments
+    @Command(name = "attachment", aliases = "attachments", description = "Import attachments")
+    public static class ImportAttachmentCommand implements Runnable {
+
+        @Mixin
+        private ImportOptions options;
+
+        @Override
+        public void run() {
+            AttachmentService attachmentService = new AttachmentService();
+            importFile(options, RecordValidator.RecordType.ATTACHMENT, fields -> {
+                Attachment attachment = RecordMapper.toAttachment(fields);
+                // The attachment service reports failures by returning null
+                if (attachmentService.createAttachment(attachment) == null) {
+                    throw new IOException("Failed to create attachment " + attachment.getId());
+                }
+            });
+        }
+    }
+}
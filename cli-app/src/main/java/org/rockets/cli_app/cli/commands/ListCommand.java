@@ -1,9 +1,9 @@
 package org.rockets.cli_app.cli.commands;
 
 import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.cli.common.PageOptions;
 import org.rockets.cli_app.components.Attachment;
 import org.rockets.cli_app.components.Calendar;
-import org.rockets.cli_app.components.Meeting;
 import org.rockets.cli_app.components.Participant;
 import org.rockets.cli_app.service.AttachmentService;
 import org.rockets.cli_app.service.CalendarService;
@@ -14,6 +14,9 @@ import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Command(
         name = "list",
@@ -38,23 +41,38 @@ public class ListCommand implements Runnable {
         System.out.println("Use one of the subcommands to list records for a specific type.");
     }
 
+    private static <T> void reportMissing(String type, List<String> requestedIds, List<T> found, Function<T, String> idOf) {
+        Set<String> foundIds = found.stream().map(idOf).collect(Collectors.toSet());
+        requestedIds.stream()
+                .distinct()
+                .filter(id -> !foundIds.contains(id))
+                .forEach(id -> System.out.println("No " + type + " found with id " + id));
+    }
+
     // Subcommand for listing meetings
     @Command(name = "meeting", description = "List meetings")
     public static class ListMeetingCommand implements Runnable {
 
+        @Mixin
+        private PageOptions pageOptions;
+
         @Override
         public void run() {
             try {
+                String invalid = pageOptions.invalidOption();
+                if (invalid != null) {
+                    System.err.println("An error occurred: " + invalid);
+                    return;
+                }
                 MeetingService mtgController = new MeetingService();
 
-                List<Meeting> meetings = mtgController.getMeetings();
                 System.out.println("Listing all meetings.");
-                for (Meeting meeting : meetings) {
+                pageOptions.printAll(mtgController.iterateMeetings(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit), meeting -> {
                     System.out.println(meeting);
                     System.out.println(meeting.calendarsToString());
                     System.out.println(meeting.participantsToString());
                     System.out.println(meeting.attachmentsToString());
-                }
+                });
             } catch (Exception e) {
                 System.err.println("An error occurred: " + e.getMessage());
             }
@@ -65,20 +83,39 @@ public class ListCommand implements Runnable {
     @Command(name = "calendar", description = "List calendars, optionally filtered by UUID")
     public static class ListCalendarCommand implements Runnable {
 
-        @Option(names = "--calendarId", description = "Optional UUID of the calendar to filter")
-        private String calendarId;
+        @Option(names = "--calendarId", split = ",", description = "Optional UUIDs of the calendars to filter, comma-separated")
+        private List<String> calendarIds;
+
+        @Mixin
+        private PageOptions pageOptions;
 
         @Override
         public void run() {
             try {
+                String invalid = pageOptions.invalidOption();
+                if (invalid != null) {
+                    System.err.println("An error occurred: " + invalid);
+                    return;
+                }
                 CalendarService calendarController = new CalendarService();
 
-                List<Calendar> calendars = calendarController.getCalendars();
+                if (calendarIds != null) {
+                    // One ?ids= request for all requested IDs instead of listing the whole collection
+                    List<Calendar> calendars = calendarController.getCalendarsByIds(calendarIds);
+                    System.out.println("Listing requested calendars.");
+                    calendars.forEach(calendar -> {
+                        System.out.println(calendar);
+                        System.out.println(calendar.meetingsToString());
+                    });
+                    reportMissing("calendar", calendarIds, calendars, Calendar::getId);
+                    return;
+                }
+
                 System.out.println("Listing all calendars.");
-                for (Calendar calendar : calendars) {
+                pageOptions.printAll(calendarController.iterateCalendars(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit), calendar -> {
                     System.out.println(calendar);
                     System.out.println(calendar.meetingsToString());
-                }
+                });
 
             } catch (Exception e) {
                 System.err.println("An error occurred: " + e.getMessage());
@@ -90,20 +127,35 @@ public class ListCommand implements Runnable {
     @Command(name = "participant", description = "List participants, optionally filtered by UUID")
     public static class ListParticipantCommand implements Runnable {
 
-        @Option(names = "--participantId", description = "Optional UUID of the participant to filter")
-        private String participantId;
+        @Option(names = "--participantId", split = ",", description = "Optional UUIDs of the participants to filter, comma-separated")
+        private List<String> participantIds;
+
+        @Mixin
+        private PageOptions pageOptions;
 
         @Override
         public void run() {
             try {
+                String invalid = pageOptions.invalidOption();
+                if (invalid != null) {
+                    System.err.println("An error occurred: " + invalid);
+                    return;
+                }
                 ParticipantService participantController = new ParticipantService();
 
-                List<Participant> participants = participantController.getParticipants();
-                System.out.println("Listing all participants.");
-                for (Participant participant : participants) {
-                    System.out.println(participant);
+                if (participantIds != null) {
+                    // One ?ids= request for all requested IDs instead of listing the whole collection
+                    List<Participant> participants = participantController.getParticipantsByIds(participantIds);
+                    System.out.println("Listing requested participants.");
+                    participants.forEach(System.out::println);
+                    reportMissing("participant", participantIds, participants, Participant::getId);
+                    return;
                 }
 
+                System.out.println("Listing all participants.");
+                pageOptions.printAll(participantController.iterateParticipants(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit),
+                        System.out::println);
+
             } catch (Exception e) {
                 System.err.println("An error occurred: " + e.getMessage());
             }
@@ -114,20 +166,35 @@ public class ListCommand implements Runnable {
     @Command(name = "attachment", description = "List attachments, optionally filtered by UUID")
     public static class ListAttachmentCommand implements Runnable {
 
-        @Option(names = "--attachmentId", description = "Optional UUID of the attachment to filter")
-        private String attachmentId;
+        @Option(names = "--attachmentId", split = ",", description = "Optional UUIDs of the attachments to filter, comma-separated")
+        private List<String> attachmentIds;
+
+        @Mixin
+        private PageOptions pageOptions;
 
         @Override
         public void run() {
             try {
+                String invalid = pageOptions.invalidOption();
+                if (invalid != null) {
+                    System.err.println("An error occurred: " + invalid);
+                    return;
+                }
                 AttachmentService attachmentController = new AttachmentService();
 
-                List<Attachment> attachments = attachmentController.getAttachments();
-                System.out.println("Listing all attachments.");
-                for (Attachment attachment : attachments) {
-                    System.out.println(attachment);
+                if (attachmentIds != null) {
+                    // One ?ids= request for all requested IDs instead of listing the whole collection
+                    List<Attachment> attachments = attachmentController.getAttachmentsByIds(attachmentIds);
+                    System.out.println("Listing requested attachments.");
+                    attachments.forEach(System.out::println);
+                    reportMissing("attachment", attachmentIds, attachments, Attachment::getId);
+                    return;
                 }
 
+                System.out.println("Listing all attachments.");
+                pageOptions.printAll(attachmentController.iterateAttachments(pageOptions.pageSize, pageOptions.cursor, pageOptions.limit),
+                        System.out::println);
+
             } catch (Exception e) {
                 System.err.println("An error occurred: " + e.getMessage());
             }
@@ -0,0 +1,83 @@
+package org.rockets.cli_app.cli.commands;
+
+import org.jline.reader.EndOfFileException;
+import org.jline.reader.LineReader;
+import org.jline.reader.LineReaderBuilder;
+import org.jline.reader.UserInterruptException;
+import org.jline.reader.impl.DefaultParser;
+import org.jline.terminal.Terminal;
+import org.jline.terminal.TerminalBuilder;
+import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.cli.parser.CommandLineParser;
+import org.rockets.cli_app.daemon.DaemonProtocol;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+import picocli.shell.jline3.PicocliCommands;
+
+import java.nio.file.Path;
+import java.util.List;
+
+@Command(name = "shell", description = "Start an interactive shell that runs commands in this process")
+public class ShellCommand implements Runnable {
+
+    @Mixin
+    private HelpOption helpOption;
+
+    @Option(names = "--history-file", description = "File to keep command history in (default: ~/.cli_app_history)")
+    private Path historyFile = Path.of(System.getProperty("user.home"), ".cli_app_history");
+
+    @Override
+    public void run() {
+        // One command tree for the whole session; picocli resets option values before each parse
+        CommandLine commandLine = CommandLineParser.newCommandLine();
+        PicocliCommands commands = new PicocliCommands(commandLine);
+
+        try (Terminal terminal = TerminalBuilder.builder().build()) {
+            var completer = commands.compileCompleters();
+            completer.compile();
+
+            LineReader reader = LineReaderBuilder.builder()
+                    .terminal(terminal)
+                    .completer(completer)
+                    .parser(new DefaultParser())
+                    .variable(LineReader.HISTORY_FILE, historyFile)
+                    .build();
+
+            System.out.println("Type a command (e.g. 'list meeting'), 'help' for usage, or 'exit' to quit.");
+            while (true) {
+                String line;
+                try {
+                    line = reader.readLine("cli> ");
+                } catch (UserInterruptException e) {
+                    continue;
+                } catch (EndOfFileException e) {
+                    break;
+                }
+
+                List<String> words = reader.getParsedLine().words().stream()
+                        .filter(word -> !word.isEmpty())
+                        .toList();
+                if (words.isEmpty()) {
+                    continue;
+                }
+                if (words.get(0).equals("exit") || words.get(0).equals("quit")) {
+                    break;
+                }
+                if (words.get(0).equals("help")) {
+                    commandLine.usage(System.out);
+                    continue;
+                }
+                if (DaemonProtocol.LOCAL_COMMANDS.contains(words.get(0))) {
+                    System.err.println("'" + words.get(0) + "' cannot be started from the shell.");
+                    continue;
+                }
+
+                commandLine.execute(words.toArray(String[]::new));
+            }
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+        }
+    }
+}
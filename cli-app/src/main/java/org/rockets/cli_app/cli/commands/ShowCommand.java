@@ -0,0 +1,62 @@
+package org.rockets.cli_app.cli.commands;
+
+import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.service.MeetingDetailService;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+@Command(
+        name = "show",
+        description = "Shows a single record together with its related records",
+        subcommands = {
+                ShowCommand.ShowMeetingCommand.class
+        }
+)
+public class ShowCommand implements Runnable {
+
+    public ShowCommand() {
+    }
+
+    @Mixin
+    private HelpOption helpOption;
+
+    @Override
+    public void run() {
+        System.out.println("Use one of the subcommands to show a specific type of record.");
+    }
+
+    // Subcommand for showing a meeting with its participants, attachments and calendars
+    @Command(name = "meeting", description = "Show a meeting and its related records")
+    public static class ShowMeetingCommand implements Runnable {
+
+        @Option(names = "--id", description = "Meeting ID", required = true)
+        private String id;
+
+        @Option(names = "--expand", split = ",",
+                description = "Related records to fetch in full: ${COMPLETION-CANDIDATES} (default: IDs only)")
+        private List<MeetingDetailService.Expand> expand = new ArrayList<>();
+
+        @Override
+        public void run() {
+            try {
+                MeetingDetailService detailService = new MeetingDetailService();
+
+                Meeting meeting = detailService.getMeetingDetail(id, expand.isEmpty()
+                        ? EnumSet.noneOf(MeetingDetailService.Expand.class)
+                        : EnumSet.copyOf(expand));
+                System.out.println(meeting);
+                System.out.println(meeting.calendarsToString());
+                System.out.println(meeting.participantsToString());
+                System.out.println(meeting.attachmentsToString());
+            } catch (Exception e) {
+                System.err.println("An error occurred: " + e.getMessage());
+            }
+        }
+    }
+}
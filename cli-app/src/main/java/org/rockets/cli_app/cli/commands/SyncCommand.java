@@ -0,0 +1,229 @@
+package org.rockets.cli_app.cli.commands;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.dto.CalendarDTO;
+import org.rockets.cli_app.service.CalendarDiff;
+import org.rockets.cli_app.service.CalendarService;
+import org.rockets.cli_app.service.GatewayClient;
+import org.rockets.cli_app.service.MeetingService;
+import org.rockets.cli_app.service.Outbox;
+import org.rockets.cli_app.service.OutboxSync;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+@Command(
+        name = "sync",
+        description = "Synchronizes local state with the gateway",
+        subcommands = {
+                SyncCommand.SyncOutboxCommand.class,
+                SyncCommand.SyncCalendarCommand.class
+        }
+)
+public class SyncCommand implements Runnable {
+
+    public SyncCommand() {
+    }
+
+    @Mixin
+    private HelpOption helpOption;
+
+    @Override
+    public void run() {
+        System.out.println("Use one of the subcommands to choose what to synchronize.");
+    }
+
+    // Subcommand for sending the changes queued while the gateway was unreachable
+    @Command(name = "outbox", description = "Send the creates, updates and deletes queued while the gateway was unreachable")
+    public static class SyncOutboxCommand implements Runnable {
+
+        @Option(names = "--batch-size", description = "Changes to different records sent at once (default: ${DEFAULT-VALUE})", defaultValue = "16")
+        private int batchSize;
+
+        @Option(names = "--force", description = "Also resend changes held as conflicts or rejected, overwriting edits made on the server")
+        private boolean force;
+
+        @Option(names = "--list", description = "Only list the queued changes")
+        private boolean list;
+
+        @Option(names = "--drop", split = ",", description = "Discard queued changes by number, comma-separated")
+        private List<Long> drop = new ArrayList<>();
+
+        @Override
+        public void run() {
+            try {
+                Outbox outbox = GatewayClient.getInstance().getOutbox();
+                if (outbox == null) {
+                    System.err.println("The outbox is disabled (cli.outbox.enabled=false)");
+                    return;
+                }
+                if (batchSize < 1) {
+                    System.err.println("Batch size must be at least 1");
+                    return;
+                }
+
+                if (!drop.isEmpty()) {
+                    for (long seq : drop) {
+                        System.out.println(outbox.drop(seq) ? "Dropped change #" + seq : "No queued change #" + seq);
+                    }
+                    outbox.compact();
+                    return;
+                }
+                if (list) {
+                    printEntries(outbox.entries());
+                    return;
+                }
+
+                OutboxSync.Result result = new OutboxSync(GatewayClient.getInstance(), outbox).sync(batchSize, force, System.out);
+                System.out.println("Sent " + result.sent() + ", conflicts " + result.conflicts() + ", rejected " + result.rejected()
+                        + ", still queued " + result.remaining());
+                if (result.offline()) {
+                    System.err.println("The gateway is still unreachable; the remaining changes stay queued.");
+                } else if (result.remaining() > 0) {
+                    System.err.println("Held changes are kept; resend them with --force or discard them with --drop.");
+                }
+            } catch (Exception e) {
+                System.err.println("An error occurred: " + e.getMessage());
+            }
+        }
+
+        private static void printEntries(List<Outbox.Entry> entries) {
+            if (entries.isEmpty()) {
+                System.out.println("No queued changes");
+                return;
+            }
+            for (Outbox.Entry entry : entries) {
+                Outbox.Change change = entry.change();
+                String state = entry.isPending() ? "queued"
+                        : entry.ack().status().name().toLowerCase() + (entry.ack().detail() != null ? ": " + entry.ack().detail() : "");
+                System.out.printf("#%-4d %-6s %-60s %s  %s%n", change.seq(), change.method(), change.path(),
+                        Instant.ofEpochMilli(change.queuedAt()), state);
+            }
+        }
+    }
+
+    // Subcommand for bringing a calendar in line with a desired state without recreating it
+    @Command(name = "calendar", description = "Make a calendar match a desired state, adding and removing only the meetings that differ")
+    public static class SyncCalendarCommand implements Runnable {
+
+        @Option(names = "--from", description = "JSON file with the desired calendar: an object, an array or NDJSON as written by export", required = true)
+        private Path from;
+
+        @Option(names = "--id", description = "Calendar ID; required when the file holds more than one calendar")
+        private String id;
+
+        @Option(names = "--dry-run", description = "Only print the changes that would be made")
+        private boolean dryRun;
+
+        @Override
+        public void run() {
+            try {
+                CalendarDTO desired = readDesired(from, id);
+                CalendarService calendarService = new CalendarService();
+
+                // The current calendar and the desired meetings are looked up together
+                CompletableFuture<Calendar> current = calendarService.getCalendarByIdAsync(desired.getCalendarId());
+                CompletableFuture<List<Meeting>> meetings = desired.getMeetings() == null || desired.getMeetings().isEmpty()
+                        ? CompletableFuture.completedFuture(List.of())
+                        : new MeetingService().getMeetingsByIdsAsync(desired.getMeetings());
+                CalendarDiff diff = CalendarDiff.between(current.get(), desired);
+
+                Set<String> found = new HashSet<>();
+                meetings.get().forEach(meeting -> found.add(meeting.getId()));
+                List<String> missing = diff.addMeetings().stream().filter(meetingId -> !found.contains(meetingId)).toList();
+                if (!missing.isEmpty()) {
+                    System.err.println("Meetings not found: " + String.join(", ", missing));
+                    return;
+                }
+
+                if (diff.isEmpty()) {
+                    System.out.println("Calendar (" + diff.calendarId() + ") is already up to date");
+                    return;
+                }
+                printDiff(diff);
+                if (dryRun) {
+                    return;
+                }
+
+                calendarService.apply(diff);
+                System.out.println("Successfully synchronized calendar (" + diff.calendarId() + ")");
+            } catch (Exception e) {
+                Throwable cause = e;
+                while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+                    cause = cause.getCause();
+                }
+                System.err.println("An error occurred: " + cause.getMessage());
+            }
+        }
+
+        private static void printDiff(CalendarDiff diff) {
+            diff.addMeetings().forEach(meetingId -> System.out.println("+ meeting " + meetingId));
+            diff.removeMeetings().forEach(meetingId -> System.out.println("- meeting " + meetingId));
+            if (diff.fieldUpdate() != null) {
+                System.out.println("~ title: " + diff.fieldUpdate().getTitle() + " | details: " + diff.fieldUpdate().getDetails());
+            }
+        }
+
+        // Meetings may be listed as IDs or as embedded records; a missing "meetings" leaves them untouched
+        private static CalendarDTO readDesired(Path file, String id) throws IOException {
+            List<JsonNode> calendars = new ArrayList<>();
+            try (MappingIterator<JsonNode> nodes = GatewayClient.getInstance().getObjectMapper().readerFor(JsonNode.class).readValues(file.toFile())) {
+                while (nodes.hasNext()) {
+                    JsonNode node = nodes.next();
+                    if (node.isArray()) {
+                        node.forEach(calendars::add);
+                    } else {
+                        calendars.add(node);
+                    }
+                }
+            }
+
+            JsonNode calendar = null;
+            for (JsonNode candidate : calendars) {
+                if (id == null ? calendars.size() == 1 : id.equals(text(candidate, "id"))) {
+                    calendar = candidate;
+                }
+            }
+            if (calendar == null && id != null && calendars.size() == 1 && text(calendars.get(0), "id") == null) {
+                calendar = calendars.get(0);
+            }
+            if (calendar == null) {
+                throw new IOException(id == null ? file + " holds " + calendars.size() + " calendars; choose one with --id"
+                        : "No calendar " + id + " in " + file);
+            }
+
+            List<String> meetingIds = null;
+            if (calendar.has("meetings") && !calendar.get("meetings").isNull()) {
+                meetingIds = new ArrayList<>();
+                for (JsonNode meeting : calendar.get("meetings")) {
+                    String meetingId = meeting.isTextual() ? meeting.asText() : text(meeting, "id");
+                    if (meetingId == null) {
+                        throw new IOException("A meeting in " + file + " has no id");
+                    }
+                    meetingIds.add(meetingId);
+                }
+            }
+            return new CalendarDTO(id != null ? id : text(calendar, "id"), text(calendar, "title"), text(calendar, "details"), meetingIds);
+        }
+
+        private static String text(JsonNode node, String field) {
+            JsonNode value = node.get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+    }
+}
@@ -5,7 +5,7 @@ import org.rockets.cli_app.cli.common.HelpOption;
 import org.rockets.cli_app.components.Attachment;
 import org.rockets.cli_app.components.Participant;
 import org.rockets.cli_app.dto.CalendarDTO;
-import org.rockets.cli_app.dto.MeetingDTO;
+import org.rockets.cli_app.dto.MeetingBatchDTO;
 import org.rockets.cli_app.service.AttachmentService;
 import org.rockets.cli_app.service.CalendarService;
 import org.rockets.cli_app.service.MeetingService;
@@ -14,6 +14,7 @@ import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Command(
@@ -58,31 +59,32 @@ public class UpdateCommand implements Runnable {
         @Option(names = "--details", description = "New meeting details")
         private String details;
 
-        @Option(names = "--add-participantId", description = "Add a Participant ID to the meeting")
-        private String addParticipantId;
+        @Option(names = "--add-participantId", split = ",", description = "Add Participant IDs to the meeting, comma-separated")
+        private List<String> addParticipantIds = new ArrayList<>();
 
-        @Option(names = "--remove-participantId", description = "Remove a Participant ID from the meeting")
-        private String removeParticipantId;
+        @Option(names = "--remove-participantId", split = ",", description = "Remove Participant IDs from the meeting, comma-separated")
+        private List<String> removeParticipantIds = new ArrayList<>();
 
-        @Option(names = "--add-attachmentId", description = "Add an Attachment ID to the meeting")
-        private String addAttachmentId;
+        @Option(names = "--add-attachmentId", split = ",", description = "Add Attachment IDs to the meeting, comma-separated")
+        private List<String> addAttachmentIds = new ArrayList<>();
 
-        @Option(names = "--remove-attachmentId", description = "Remove an Attachment ID from the meeting")
-        private String removeAttachmentId;
+        @Option(names = "--remove-attachmentId", split = ",", description = "Remove Attachment IDs from the meeting, comma-separated")
+        private List<String> removeAttachmentIds = new ArrayList<>();
 
         @Override
         public void run() {
             // Check at least one option is provided
             if (title == null && dateTime == null && location == null && details == null &&
-                    addParticipantId == null && removeParticipantId == null &&
-                    addAttachmentId == null && removeAttachmentId == null) {
+                    addParticipantIds.isEmpty() && removeParticipantIds.isEmpty() &&
+                    addAttachmentIds.isEmpty() && removeAttachmentIds.isEmpty()) {
                 System.err.println("At least one update option must be specified.");
                 return;
             }
             try {
                 MeetingService mtgController = new MeetingService();
 
-                MeetingDTO meeting = new MeetingDTO(id);
+                // Everything goes out as one batched update instead of a request per option
+                MeetingBatchDTO meeting = new MeetingBatchDTO();
 
                 if (title != null) {
                     title = Check.limitString(title, 2000);
@@ -103,20 +105,12 @@ public class UpdateCommand implements Runnable {
                     Check.limitString(details, 10000);
                     meeting.setDetails(details);
                 }
-                if (addParticipantId != null) {
-                    mtgController.addParticipantsToMeeting(id, List.of(addParticipantId));
-                }
-                if (removeParticipantId != null) {
-                    mtgController.removeParticipantsFromMeeting(id, List.of(removeParticipantId));
-                }
-                if (addAttachmentId != null) {
-                    mtgController.addAttachmentsToMeeting(id, List.of(addAttachmentId));
-                }
-                if (removeAttachmentId != null) {
-                    mtgController.removeAttachmentsFromMeeting(id, List.of(removeAttachmentId));
-                }
+                meeting.setAddParticipants(addParticipantIds);
+                meeting.setRemoveParticipants(removeParticipantIds);
+                meeting.setAddAttachments(addAttachmentIds);
+                meeting.setRemoveAttachments(removeAttachmentIds);
 
-                mtgController.updateMeetingById(id, meeting);
+                mtgController.batchUpdateMeeting(id, meeting);
                 System.out.println("Successfully updated meeting (" + id + ")");
             } catch (Exception e) {
                 System.err.println("An error occurred: " + e.getMessage());
@@ -0,0 +1,22 @@
+package org.rockets.cli_app.cli.common;
+
+import org.rockets.cli_app.bulk.RecordWriter;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+public class ExportOptions {
+
+    @Option(names = "--out", description = "File to write (default: standard output)")
+    public Path out;
+
+    @Option(names = "--format", description = "Output format: ${COMPLETION-CANDIDATES} (default: from the file extension, else NDJSON)")
+    public RecordWriter.Format format;
+
+    @Option(names = "--row-group-size", description = "Records per row group in the columnar format (default: ${DEFAULT-VALUE})", defaultValue = "10000")
+    public int rowGroupSize;
+
+    public RecordWriter.Format resolveFormat() {
+        return format != null ? format : RecordWriter.Format.fromFileName(out);
+    }
+}
@@ -0,0 +1,45 @@
+package org.rockets.cli_app.cli.common;
+
+import org.rockets.cli_app.bulk.RecordReader;
+import picocli.CommandLine.Option;
+
+import java.nio.file.Path;
+
+public class ImportOptions {
+
+    @Option(names = "--file", description = "JSONL or CSV file with one record per line", required = true)
+    public Path file;
+
+    @Option(names = "--format", description = "Input format: ${COMPLETION-CANDIDATES} (default: from the file extension)")
+    public RecordReader.Format format;
+
+    @Option(names = "--concurrency", description = "Maximum number of records in flight (default: ${DEFAULT-VALUE})", defaultValue = "16")
+    public int concurrency;
+
+    @Option(names = "--retries", description = "Retries per record for failed requests, on top of the gateway client's own retries (default: ${DEFAULT-VALUE})", defaultValue = "3")
+    public int retries;
+
+    @Option(names = "--progress-interval", description = "Seconds between progress reports (default: ${DEFAULT-VALUE})", defaultValue = "5")
+    public int progressInterval;
+
+    @Option(names = "--validate-only", description = "Check every record and report all problems without importing anything")
+    public boolean validateOnly;
+
+    // A concurrency of 0 would never start a record and an interval of 0 cannot be scheduled
+    public String invalidOption() {
+        if (concurrency < 1) {
+            return "--concurrency must be at least 1";
+        }
+        if (retries < 0) {
+            return "--retries must not be negative";
+        }
+        if (progressInterval < 1) {
+            return "--progress-interval must be at least 1";
+        }
+        return null;
+    }
+
+    public RecordReader.Format resolveFormat() {
+        return format != null ? format : RecordReader.Format.fromFileName(file);
+    }
+}
@@ -0,0 +1,38 @@
+package org.rockets.cli_app.cli.common;
+
+import org.rockets.cli_app.service.PageIterator;
+import picocli.CommandLine.Option;
+
+import java.util.function.Consumer;
+
+public class PageOptions {
+
+    @Option(names = "--page-size", description = "Records fetched per request (default: ${DEFAULT-VALUE})", defaultValue = "100")
+    public int pageSize;
+
+    @Option(names = "--cursor", description = "ID of the record to continue listing after")
+    public String cursor;
+
+    @Option(names = "--limit", description = "Maximum number of records to list (default: all)", defaultValue = "0")
+    public long limit;
+
+    // A page size below 1 would have the gateway return nothing, or everything, on every page
+    public String invalidOption() {
+        if (pageSize < 1) {
+            return "--page-size must be at least 1";
+        }
+        return null;
+    }
+
+    // Prints records as their page streams in and tells the user how to continue when the limit cut the listing short
+    public <T> void printAll(PageIterator<T> records, Consumer<T> printer) {
+        try (records) {
+            while (records.hasNext()) {
+                printer.accept(records.next());
+            }
+            if (records.hasMore()) {
+                System.out.println("More records available, continue with --cursor " + records.getCursor());
+            }
+        }
+    }
+}
@@ -1,28 +1,175 @@
 package org.rockets.cli_app.cli.parser;
 
+import org.rockets.cli_app.cli.commands.BatchCommand;
 import org.rockets.cli_app.cli.commands.CreateCommand;
+import org.rockets.cli_app.cli.commands.DaemonCommand;
 import org.rockets.cli_app.cli.commands.DeleteCommand;
+import org.rockets.cli_app.cli.commands.ExportCommand;
+import org.rockets.cli_app.cli.commands.ImportCommand;
 import org.rockets.cli_app.cli.commands.ListCommand;
+import org.rockets.cli_app.cli.commands.ShellCommand;
+import org.rockets.cli_app.cli.commands.ShowCommand;
+import org.rockets.cli_app.cli.commands.SyncCommand;
 import org.rockets.cli_app.cli.commands.UpdateCommand;
 import org.rockets.cli_app.cli.common.HelpOption;
+import org.rockets.cli_app.service.GatewayClient;
+import org.rockets.cli_app.service.GatewayMetrics;
+import org.rockets.cli_app.trace.FileSpanExporter;
+import org.rockets.cli_app.trace.OtlpHttpSpanExporter;
+import org.rockets.cli_app.trace.Span;
+import org.rockets.cli_app.trace.Tracer;
+import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Mixin;
 import picocli.CommandLine.Option;
 
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.StringJoiner;
+
 @Command(
         name = "CLIManager",
-        subcommands = {CreateCommand.class, ListCommand.class, UpdateCommand.class, DeleteCommand.class},
+        subcommands = {CreateCommand.class, ListCommand.class, UpdateCommand.class, DeleteCommand.class, ImportCommand.class,
+                ExportCommand.class, ShowCommand.class, SyncCommand.class, ShellCommand.class, DaemonCommand.class,
+                BatchCommand.class},
         versionProvider = VersionProvider.class,
         mixinStandardHelpOptions = true, // Enables -h and --help options
         description = "CLI for managing meetings, calendars, participants, and attachments."
 )
 public class CommandLineParser implements Runnable {
+    // Exit code of a command that otherwise succeeded but had writes queued in the outbox instead of applied
+    // (EX_TEMPFAIL in sysexits.h), so scripts can tell "queued" from "done"
+    public static final int EXIT_QUEUED = 75;
+
     @Mixin
     private HelpOption helpOption;
 
     @Option(names = {"-v", "--version"}, versionHelp = true, description = "Print version information and exit.")
     private boolean versionHelpRequested;
 
+    @Option(names = "--metrics", description = "Print per-endpoint gateway latency (p50/p95/p99), traffic and status codes to stderr when the command ends.")
+    private boolean metrics;
+
+    @Option(names = "--metrics-file", description = "Also write the metrics to this file: JSON for *.json, Prometheus text format otherwise.")
+    private Path metricsFile;
+
+    @Option(names = "--trace-file", description = "Trace the command and append its spans to this file as OTLP/JSON, one line per command.")
+    private Path traceFile;
+
+    @Option(names = "--trace-endpoint", description = "Trace the command and send its spans to this OTLP/HTTP collector, e.g. http://localhost:4318/v1/traces.")
+    private URI traceEndpoint;
+
+    // Command line with the settings every entry point (direct run, daemon, shell) shares
+    public static CommandLine newCommandLine() {
+        return new CommandLine(new CommandLineParser())
+                .setCaseInsensitiveEnumValuesAllowed(true)
+                .setExecutionStrategy(CommandLineParser::execute);
+    }
+
+    // Runs the selected subcommand and tells the user about writes it had to queue for a later sync
+    public static int execute(CommandLine.ParseResult parseResult) {
+        long queuedBefore = GatewayClient.getDefaultQueuedWriteCount();
+        int exitCode = CommandLine.ExitCode.SOFTWARE;
+        try {
+            exitCode = executeInstrumented(parseResult);
+        } finally {
+            long queued = GatewayClient.getDefaultQueuedWriteCount() - queuedBefore;
+            if (queued > 0) {
+                System.err.println("Gateway unreachable: " + queued + (queued == 1 ? " change was" : " changes were") + " queued in "
+                        + GatewayClient.getInstance().getOutbox().getFile() + " and not applied yet. Run 'sync outbox' to send them.");
+                exitCode = exitCode == CommandLine.ExitCode.OK ? EXIT_QUEUED : exitCode;
+            }
+        }
+        return exitCode;
+    }
+
+    // Collects gateway metrics and a trace around the subcommand when they were asked for
+    private static int executeInstrumented(CommandLine.ParseResult parseResult) {
+        CommandLineParser parser = parseResult.commandSpec().commandLine().getCommand();
+        boolean wantsMetrics = parser.metrics || parser.metricsFile != null;
+        boolean wantsTrace = parser.traceFile != null || parser.traceEndpoint != null;
+        if (!wantsMetrics && !wantsTrace) {
+            return new CommandLine.RunLast().execute(parseResult);
+        }
+
+        // A command run from the shell is already covered by the shell's own metrics and trace
+        GatewayClient gateway = GatewayClient.getInstance();
+        GatewayMetrics collected = wantsMetrics && gateway.getMetrics() == null ? new GatewayMetrics() : null;
+        Tracer tracer = wantsTrace && gateway.getTracer() == null ? new Tracer(commandName(parseResult)) : null;
+        gateway.setMetrics(collected != null ? collected : gateway.getMetrics());
+        gateway.setTracer(tracer != null ? tracer : gateway.getTracer());
+
+        int exitCode = CommandLine.ExitCode.SOFTWARE;
+        try {
+            exitCode = new CommandLine.RunLast().execute(parseResult);
+            return exitCode;
+        } finally {
+            if (collected != null) {
+                gateway.setMetrics(null);
+                parser.report(collected, gateway);
+            }
+            if (tracer != null) {
+                gateway.setTracer(null);
+                parser.exportTrace(tracer, exitCode, gateway);
+            }
+        }
+    }
+
+    // The subcommand path, e.g. "list meeting"
+    private static String commandName(CommandLine.ParseResult parseResult) {
+        StringJoiner name = new StringJoiner(" ");
+        for (CommandLine.ParseResult result = parseResult.subcommand(); result != null; result = result.subcommand()) {
+            name.add(result.commandSpec().name());
+        }
+        return name.length() > 0 ? name.toString() : parseResult.commandSpec().name();
+    }
+
+    private void exportTrace(Tracer tracer, int exitCode, GatewayClient gateway) {
+        Span root = tracer.getRoot().setAttribute("cli.exit_code", exitCode);
+        if (exitCode != 0) {
+            root.setError("exit code " + exitCode);
+        }
+        root.end();
+
+        try {
+            if (traceFile != null) {
+                new FileSpanExporter(traceFile, gateway.getObjectMapper()).export(tracer.getFinishedSpans());
+            }
+            if (traceEndpoint != null) {
+                new OtlpHttpSpanExporter(traceEndpoint, gateway.getHttpClient(), gateway.getObjectMapper()).export(tracer.getFinishedSpans());
+            }
+            System.err.println("Trace " + tracer.getTraceId());
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+        }
+    }
+
+    private void report(GatewayMetrics collected, GatewayClient gateway) {
+        if (metrics) {
+            collected.printSummary(System.err);
+        }
+        if (metricsFile == null) {
+            return;
+        }
+        try {
+            if (metricsFile.getFileName().toString().toLowerCase().endsWith(".json")) {
+                try (OutputStream out = Files.newOutputStream(metricsFile)) {
+                    collected.writeJson(out, gateway.getObjectMapper());
+                }
+            } else {
+                try (Writer out = Files.newBufferedWriter(metricsFile, StandardCharsets.UTF_8)) {
+                    collected.writePrometheus(out);
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("An error occurred: " + e.getMessage());
+        }
+    }
+
     @Override
     public void run() {
         // Logic when no specific command is provided
@@ -6,11 +6,18 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Objects;
 
 public class Attachment {
-    private final String id;
+    // See Compact: the ID as two longs when it is a UUID, otherwise as text
+    private final long idHigh;
+    private final long idLow;
+    private final String idText;
     private String url;
 
+    // Related records are sometimes returned as bare IDs
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
     public Attachment(String id) {
-        this.id = id;
+        this.idText = Compact.idText(id);
+        this.idHigh = idText == null ? Compact.idHigh(id) : 0;
+        this.idLow = idText == null ? Compact.idLow(id) : 0;
     }
 
     @JsonCreator
@@ -20,7 +27,7 @@ public class Attachment {
     }
 
     public String getId() {
-        return id;
+        return Compact.id(idHigh, idLow, idText);
     }
 
     public String getUrl() {
@@ -31,17 +38,22 @@ public class Attachment {
         this.url = url;
     }
 
+    // Takes the fields this copy lacks from another copy of the same attachment; see IdentityMap
+    void fill(Attachment other) {
+        url = url != null ? url : other.url;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Attachment attachment = (Attachment) o;
-        return Objects.equals(id, attachment.id);
+        return idHigh == attachment.idHigh && idLow == attachment.idLow && Objects.equals(idText, attachment.idText);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Compact.idHash(idHigh, idLow, idText);
     }
 
     @Override
@@ -3,18 +3,26 @@ package org.rockets.cli_app.components;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 public class Calendar {
-    private final String id;
+    // See Compact: the ID as two longs when it is a UUID, otherwise as text
+    private final long idHigh;
+    private final long idLow;
+    private final String idText;
     private String title;
     private String details;
-    private List<Meeting> meetings = new ArrayList<>();
+    // The shared Collections.emptyList() until a meeting is added
+    private List<Meeting> meetings = Collections.emptyList();
 
+    // Related records are sometimes returned as bare IDs
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
     public Calendar(String calendarId) {
-        this.id = calendarId;
+        this.idText = Compact.idText(calendarId);
+        this.idHigh = idText == null ? Compact.idHigh(calendarId) : 0;
+        this.idLow = idText == null ? Compact.idLow(calendarId) : 0;
     }
 
     public Calendar(String calendarId, String title, String details) {
@@ -29,15 +37,15 @@ public class Calendar {
             @JsonProperty("title") String title,
             @JsonProperty("details") String details,
             @JsonProperty("meetings") List<Meeting> meetings) {
-        this.id = calendarId;
+        this(calendarId);
         this.title = title;
         this.details = details;
-        this.meetings = meetings != null ? meetings : new ArrayList<>();
+        this.meetings = Compact.list(meetings);
     }
 
 
     public String getId() {
-        return id;
+        return Compact.id(idHigh, idLow, idText);
     }
 
     public String getTitle() {
@@ -66,6 +74,7 @@ public class Calendar {
 
     public void addMeeting(Meeting meeting) {
         if (meeting.getId() != null && !meetings.contains(meeting)) {
+            meetings = Compact.mutable(meetings);
             meetings.add(meeting);
         }
     }
@@ -76,17 +85,24 @@ public class Calendar {
         }
     }
 
+    // Takes the fields this copy lacks from another copy of the same calendar; see IdentityMap
+    void fill(Calendar other) {
+        title = title != null ? title : other.title;
+        details = details != null ? details : other.details;
+        meetings = meetings.isEmpty() ? other.meetings : meetings;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Calendar calendar = (Calendar) o;
-        return Objects.equals(id, calendar.getId());
+        return idHigh == calendar.idHigh && idLow == calendar.idLow && Objects.equals(idText, calendar.idText);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Compact.idHash(idHigh, idLow, idText);
     }
 
     @Override
@@ -0,0 +1,106 @@
+package org.rockets.cli_app.components;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Storage helpers that keep large decoded graphs small.
+// IDs are UUIDs in practice, so a record keeps its ID as two longs (16 bytes) instead of a String
+// (about 80 bytes with its byte array) and formats it again on demand. Anything other than a lowercase
+// canonical UUID, the nil UUID included, is kept as the String it came in as; a null ID is all zeros.
+// Related-record lists start as the shared empty list and are trimmed to size once decoded.
+final class Compact {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Compact() {
+    }
+
+    // The ID when it cannot be stored as two longs, otherwise null
+    static String idText(String id) {
+        return isUuid(id) ? null : id;
+    }
+
+    // Halves of an ID that idText returned null for
+    static long idHigh(String id) {
+        return id != null ? parse(id, 0) : 0;
+    }
+
+    static long idLow(String id) {
+        return id != null ? parse(id, 19) : 0;
+    }
+
+    static String id(long high, long low, String text) {
+        if (text != null || (high == 0 && low == 0)) {
+            return text;
+        }
+        char[] chars = new char[36];
+        format(high, chars, 0);
+        chars[18] = '-';
+        format(low, chars, 19);
+        return new String(chars);
+    }
+
+    static int idHash(long high, long low, String text) {
+        return text != null ? text.hashCode() : Long.hashCode(high ^ low);
+    }
+
+    // Lists decoded from the gateway; the empty ones are all the same instance
+    static <T> List<T> list(List<T> list) {
+        if (list == null || list.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (list instanceof ArrayList<T> arrayList) {
+            arrayList.trimToSize();
+        }
+        return list;
+    }
+
+    // A list that can be added to, replacing the shared empty list on first use
+    static <T> List<T> mutable(List<T> list) {
+        return list == Collections.<T>emptyList() ? new ArrayList<>(4) : list;
+    }
+
+    private static boolean isUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return false;
+        }
+        boolean nil = true;
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            } else if (c != '0') {
+                nil = false;
+            }
+        }
+        return !nil;
+    }
+
+    // The 16 hex digits from offset on, skipping dashes: the first or the second half of the UUID
+    private static long parse(String id, int offset) {
+        long value = 0;
+        for (int i = offset, digits = 0; digits < 16; i++) {
+            char c = id.charAt(i);
+            if (c != '-') {
+                value = (value << 4) | Character.digit(c, 16);
+                digits++;
+            }
+        }
+        return value;
+    }
+
+    private static void format(long value, char[] chars, int offset) {
+        for (int i = offset, shift = 60; shift >= 0; i++) {
+            if (i == 8 || i == 13 || i == 23) {
+                chars[i] = '-';
+                continue;
+            }
+            chars[i] = HEX[(int) (value >>> shift) & 0xf];
+            shift -= 4;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.rockets.cli_app.components;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.std.DelegatingDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Identity-mapped decoding: every record read through reader(...) with the same type and ID comes back
+// as the same instance, so a meeting embedded in a thousand calendars is held once instead of a
+// thousand times. When a bare-ID reference is read before the full record, the full record's fields
+// are filled into the instance already handed out. One map can span several reads, e.g. the pages of
+// a snapshot; drop it once decoding is done and the records keep sharing their instances.
+// Changing a shared record changes it everywhere it appears.
+public final class IdentityMap {
+    private static final Set<Class<?>> RECORD_TYPES = Set.of(Meeting.class, Calendar.class, Participant.class, Attachment.class);
+
+    // Records hash and compare by type and ID, so each one is its own key
+    private final Map<Object, Object> records = new ConcurrentHashMap<>();
+
+    public ObjectReader reader(ObjectReader reader) {
+        return reader.withAttribute(IdentityMap.class, this);
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    // The Jackson module that consults the map during reads that carry one; other reads are unaffected
+    public static Module module() {
+        SimpleModule module = new SimpleModule("IdentityMap");
+        module.setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public JsonDeserializer<?> modifyDeserializer(DeserializationConfig config, BeanDescription description,
+                                                          JsonDeserializer<?> deserializer) {
+                return RECORD_TYPES.contains(description.getBeanClass()) ? new Canonicalizing(deserializer) : deserializer;
+            }
+        });
+        return module;
+    }
+
+    private Object canonical(Object record) {
+        Object existing = records.putIfAbsent(record, record);
+        if (existing == null) {
+            return record;
+        }
+        switch (existing) {
+            case Meeting meeting -> meeting.fill((Meeting) record);
+            case Calendar calendar -> calendar.fill((Calendar) record);
+            case Participant participant -> participant.fill((Participant) record);
+            case Attachment attachment -> attachment.fill((Attachment) record);
+            default -> {
+            }
+        }
+        return existing;
+    }
+
+    private static final class Canonicalizing extends DelegatingDeserializer {
+        private static final long serialVersionUID = 1L;
+
+        Canonicalizing(JsonDeserializer<?> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected JsonDeserializer<?> newDelegatingInstance(JsonDeserializer<?> newDelegatee) {
+            return new Canonicalizing(newDelegatee);
+        }
+
+        @Override
+        public Object deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            Object record = _delegatee.deserialize(parser, context);
+            if (record == null || !(context.getAttribute(IdentityMap.class) instanceof IdentityMap identities)) {
+                return record;
+            }
+            // Records without an ID cannot be matched with anything. Their hash is 0, which saves
+            // formatting the ID of every other record to find them.
+            if (record.hashCode() == 0 && isWithoutId(record)) {
+                return record;
+            }
+            return identities.canonical(record);
+        }
+
+        private static boolean isWithoutId(Object record) {
+            return switch (record) {
+                case Meeting meeting -> meeting.getId() == null;
+                case Calendar calendar -> calendar.getId() == null;
+                case Participant participant -> participant.getId() == null;
+                case Attachment attachment -> attachment.getId() == null;
+                default -> true;
+            };
+        }
+    }
+}
@@ -4,23 +4,31 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class Meeting {
-    private final String id;
+    // See Compact: the ID as two longs when it is a UUID, otherwise as text
+    private final long idHigh;
+    private final long idLow;
+    private final String idText;
     private String title;
     private String dateTime;
     private String location;
     private String details;
-    private List<Participant> participants = new ArrayList<>();
-    private List<Attachment> attachments = new ArrayList<>();
-    private List<Calendar> calendars = new ArrayList<>();
+    // Empty lists are the shared Collections.emptyList() until something is added
+    private List<Participant> participants = Collections.emptyList();
+    private List<Attachment> attachments = Collections.emptyList();
+    private List<Calendar> calendars = Collections.emptyList();
 
+    // Related records are sometimes returned as bare IDs
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
     public Meeting(String id) {
-        this.id = id;
+        this.idText = Compact.idText(id);
+        this.idHigh = idText == null ? Compact.idHigh(id) : 0;
+        this.idLow = idText == null ? Compact.idLow(id) : 0;
     }
 
     @JsonCreator
@@ -33,18 +41,18 @@ public class Meeting {
             @JsonProperty("attachments") List<Attachment> attachments,
             @JsonProperty("participants") List<Participant> participants,
             @JsonProperty("calendars") List<Calendar> calendars) {
-        this.id = id;
+        this(id);
         this.title = title;
         this.dateTime = dateTime;
         this.location = location;
         this.details = details;
-        this.participants = participants != null ? participants : new ArrayList<>();
-        this.attachments = attachments != null ? attachments : new ArrayList<>();
-        this.calendars = calendars != null ? calendars : new ArrayList<>();
+        this.participants = Compact.list(participants);
+        this.attachments = Compact.list(attachments);
+        this.calendars = Compact.list(calendars);
     }
 
     public String getId() {
-        return id;
+        return Compact.id(idHigh, idLow, idText);
     }
 
     public String getTitle() {
@@ -105,6 +113,7 @@ public class Meeting {
 
     public void addParticipant(Participant participant) {
         if (participant != null && participant.getId() != null && !participants.contains(participant)) {
+            participants = Compact.mutable(participants);
             participants.add(participant);
         }
     }
@@ -115,6 +124,7 @@ public class Meeting {
 
     public void addAttachment(Attachment attachment) {
         if (attachment != null && attachment.getId() != null && !attachments.contains(attachment)) {
+            attachments = Compact.mutable(attachments);
             attachments.add(attachment);
         }
     }
@@ -125,6 +135,7 @@ public class Meeting {
 
     public void addCalendar(Calendar calendar) {
         if (calendar != null && calendar.getId() != null && !calendars.contains(calendar)) {
+            calendars = Compact.mutable(calendars);
             calendars.add(calendar);
         }
     }
@@ -133,17 +144,28 @@ public class Meeting {
         calendars.remove(calendar);
     }
 
+    // Takes the fields this copy lacks from another copy of the same meeting; see IdentityMap
+    void fill(Meeting other) {
+        title = title != null ? title : other.title;
+        dateTime = dateTime != null ? dateTime : other.dateTime;
+        location = location != null ? location : other.location;
+        details = details != null ? details : other.details;
+        participants = participants.isEmpty() ? other.participants : participants;
+        attachments = attachments.isEmpty() ? other.attachments : attachments;
+        calendars = calendars.isEmpty() ? other.calendars : calendars;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Meeting meeting = (Meeting) o;
-        return Objects.equals(id, meeting.id);
+        return idHigh == meeting.idHigh && idLow == meeting.idLow && Objects.equals(idText, meeting.idText);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Compact.idHash(idHigh, idLow, idText);
     }
 
     @Override
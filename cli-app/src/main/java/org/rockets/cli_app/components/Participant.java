@@ -6,12 +6,19 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.Objects;
 
 public class Participant {
-    private final String id;
+    // See Compact: the ID as two longs when it is a UUID, otherwise as text
+    private final long idHigh;
+    private final long idLow;
+    private final String idText;
     private String name;
     private String email;
 
+    // Related records are sometimes returned as bare IDs
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
     public Participant(String id) {
-        this.id = id;
+        this.idText = Compact.idText(id);
+        this.idHigh = idText == null ? Compact.idHigh(id) : 0;
+        this.idLow = idText == null ? Compact.idLow(id) : 0;
     }
 
     @JsonCreator
@@ -22,7 +29,7 @@ public class Participant {
     }
 
     public String getId() {
-        return id;
+        return Compact.id(idHigh, idLow, idText);
     }
 
     public String getName() {
@@ -41,17 +48,23 @@ public class Participant {
         this.email = email;
     }
 
+    // Takes the fields this copy lacks from another copy of the same participant; see IdentityMap
+    void fill(Participant other) {
+        name = name != null ? name : other.name;
+        email = email != null ? email : other.email;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Participant participant = (Participant) o;
-        return Objects.equals(id, participant.id);
+        return idHigh == participant.idHigh && idLow == participant.idLow && Objects.equals(idText, participant.idText);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Compact.idHash(idHigh, idLow, idText);
     }
 
     @Override
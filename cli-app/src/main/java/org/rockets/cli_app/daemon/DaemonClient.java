@@ -0,0 +1,97 @@
+package org.rockets.cli_app.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalInt;
+import java.util.Set;
+
+// Hands a command line to a running daemon so it runs on a warm JVM with an established
+// connection pool. Falls back to local execution when no daemon is listening.
+public class DaemonClient {
+    // Top-level options that take a value, which must not be mistaken for the subcommand
+    private static final Set<String> OPTIONS_WITH_VALUES = Set.of("--metrics-file", "--trace-file", "--trace-endpoint");
+
+    private DaemonClient() {
+    }
+
+    public static boolean shouldForward(String[] args) {
+        if (System.getenv("CLI_APP_NO_DAEMON") != null || args.length == 0) {
+            return false;
+        }
+        return !DaemonProtocol.LOCAL_COMMANDS.contains(commandName(args)) && Files.exists(DaemonProtocol.defaultSocket());
+    }
+
+    // The subcommand, skipping options given to the top-level command such as --metrics
+    private static String commandName(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (OPTIONS_WITH_VALUES.contains(args[i])) {
+                i++;
+            } else if (!args[i].startsWith("-")) {
+                return args[i];
+            }
+        }
+        return "";
+    }
+
+    public static OptionalInt tryExecute(Path socket, String[] args) {
+        try {
+            DaemonProtocol.checkSocket(socket);
+        } catch (IOException e) {
+            // Someone else may be listening there: keep the command and its output in this process
+            System.err.println("Not using the daemon: " + e.getMessage());
+            return OptionalInt.empty();
+        }
+
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            channel.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            // Stale socket or daemon shutting down: run the command locally instead
+            return OptionalInt.empty();
+        }
+
+        try (channel) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+            DataInputStream in = new DataInputStream(Channels.newInputStream(channel));
+            DaemonProtocol.writeRequest(out, Path.of("").toAbsolutePath(), args);
+
+            return OptionalInt.of(readResponse(in));
+        } catch (IOException e) {
+            // The command may already have run, so it is not retried locally
+            System.err.println("Lost connection to the daemon: " + e.getMessage());
+            return OptionalInt.of(1);
+        }
+    }
+
+    private static int readResponse(DataInputStream in) throws IOException {
+        while (true) {
+            byte type = in.readByte();
+            byte[] payload = in.readNBytes(in.readInt());
+
+            switch (type) {
+                case DaemonProtocol.STDOUT -> write(System.out, payload);
+                case DaemonProtocol.STDERR -> write(System.err, payload);
+                case DaemonProtocol.EXIT -> {
+                    System.out.flush();
+                    System.err.flush();
+                    return ByteBuffer.wrap(payload).getInt();
+                }
+                default -> throw new IOException("Unknown daemon frame type: " + type);
+            }
+        }
+    }
+
+    private static void write(PrintStream stream, byte[] payload) {
+        stream.write(payload, 0, payload.length);
+    }
+}
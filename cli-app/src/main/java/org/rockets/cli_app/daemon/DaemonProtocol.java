@@ -0,0 +1,163 @@
+package org.rockets.cli_app.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Set;
+
+// Wire format between a forwarding client and the daemon over the Unix domain socket.
+// Request:  UTF working directory, int argument count, UTF arguments.
+// Response: a sequence of frames (type byte, int length, bytes) ending with an EXIT frame
+//           whose payload is the 4-byte exit code.
+public class DaemonProtocol {
+    public static final byte STDOUT = 'O';
+    public static final byte STDERR = 'E';
+    public static final byte EXIT = 'X';
+
+    // Commands that must always run in the invoking process
+    public static final Set<String> LOCAL_COMMANDS = Set.of("daemon", "shell");
+
+    private static final Set<PosixFilePermission> OWNER_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+
+    private DaemonProtocol() {
+    }
+
+    // The socket sits in a directory only the user can enter ($XDG_RUNTIME_DIR/cli_app, else ~/.cli_app), so
+    // another user can neither bind it first nor connect to it
+    public static Path defaultSocket() {
+        String configured = System.getenv("CLI_APP_SOCKET");
+        if (configured != null && !configured.isBlank()) {
+            return Path.of(configured);
+        }
+        return defaultDirectory().resolve("daemon.sock");
+    }
+
+    private static Path defaultDirectory() {
+        String runtime = System.getenv("XDG_RUNTIME_DIR");
+        if (runtime != null && !runtime.isBlank()) {
+            return Path.of(runtime, "cli_app");
+        }
+        return Path.of(System.getProperty("user.home"), ".cli_app");
+    }
+
+    // Creates a missing socket directory as owner-only. The default directory must also be owned by the user
+    // and closed to everyone else; a socket configured elsewhere is the user's call.
+    public static void prepareDirectory(Path socket) throws IOException {
+        Path directory = socket.toAbsolutePath().getParent();
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_PERMISSIONS));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system
+                Files.createDirectories(directory);
+            }
+        }
+        if (directory.equals(defaultDirectory().toAbsolutePath())) {
+            checkPrivate(directory);
+        }
+    }
+
+    // Refuses a socket, or a default socket directory, that belongs to another user or that others could
+    // have replaced the socket in
+    public static void checkSocket(Path socket) throws IOException {
+        Path directory = socket.toAbsolutePath().getParent();
+        if (directory.equals(defaultDirectory().toAbsolutePath())) {
+            checkPrivate(directory);
+        }
+        checkOwner(socket);
+    }
+
+    private static void checkPrivate(Path directory) throws IOException {
+        if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+            throw new IOException(directory + " is not a directory");
+        }
+        checkOwner(directory);
+        PosixFileAttributeView view = Files.getFileAttributeView(directory, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+        if (view == null) {
+            return;
+        }
+        PosixFileAttributes attributes = view.readAttributes();
+        for (PosixFilePermission permission : attributes.permissions()) {
+            if (!OWNER_PERMISSIONS.contains(permission)) {
+                throw new IOException(directory + " is accessible to other users (" + PosixFilePermissions.toString(attributes.permissions())
+                        + "); run chmod 700 on it");
+            }
+        }
+    }
+
+    private static void checkOwner(Path path) throws IOException {
+        UserPrincipal owner = Files.getOwner(path, LinkOption.NOFOLLOW_LINKS);
+        UserPrincipal user = path.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+        if (!owner.equals(user)) {
+            throw new IOException(path + " is owned by " + owner.getName() + ", not " + user.getName());
+        }
+    }
+
+    public static void writeRequest(DataOutputStream out, Path workingDirectory, String[] args) throws IOException {
+        out.writeUTF(workingDirectory.toString());
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+    }
+
+    public static String[] readArgs(DataInputStream in) throws IOException {
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+        return args;
+    }
+
+    public static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(EXIT);
+            out.writeInt(4);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    // Output stream that wraps everything written to it in frames of the given type
+    public static class FrameOutputStream extends OutputStream {
+        private final DataOutputStream out;
+        private final byte type;
+
+        public FrameOutputStream(DataOutputStream out, byte type) {
+            this.out = out;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(type);
+                out.writeInt(length);
+                out.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.rockets.cli_app.daemon;
+
+import org.rockets.cli_app.cli.parser.CommandLineParser;
+import org.rockets.cli_app.service.GatewayClient;
+import org.rockets.cli_app.service.Outbox;
+import org.rockets.cli_app.service.OutboxSync;
+import picocli.CommandLine;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Long-lived process that runs commands handed over by DaemonClient. The command tree, the JIT-compiled
+// code and the shared gateway connection pool stay warm between invocations. While running it also sends
+// the changes queued in the outbox in the background once the gateway is reachable again.
+public class DaemonServer {
+    private static final int SYNC_BATCH_SIZE = 16;
+
+    private final Path socket;
+    private final Duration idleTimeout;
+    private final Duration syncInterval;
+    // The daemon's own stderr, as System.err is handed to whichever client's command is running
+    private final PrintStream log = System.err;
+    private final CommandLine commandLine = CommandLineParser.newCommandLine();
+    // Commands print to System.out, so only one can own the standard streams at a time
+    private final ReentrantLock executionLock = new ReentrantLock();
+    private volatile long lastActivity = System.nanoTime();
+    private Path clientDirectory;
+
+    public DaemonServer(Path socket, Duration idleTimeout, Duration syncInterval) {
+        this.socket = socket;
+        this.idleTimeout = idleTimeout;
+        this.syncInterval = syncInterval;
+        this.commandLine.setExecutionStrategy(parseResult -> {
+            resolveRelativePaths(parseResult, clientDirectory);
+            return CommandLineParser.execute(parseResult);
+        });
+    }
+
+    public void serve() throws IOException {
+        DaemonProtocol.prepareDirectory(socket);
+        if (isListening(socket)) {
+            throw new IOException("A daemon is already listening on " + socket);
+        }
+        Files.deleteIfExists(socket);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socket));
+            Runtime.getRuntime().addShutdownHook(new Thread(this::deleteSocket));
+            ScheduledExecutorService idleCheck = scheduleIdleShutdown(server);
+            ScheduledExecutorService sync = scheduleOutboxSync();
+
+            try {
+                while (true) {
+                    SocketChannel client = server.accept();
+                    lastActivity = System.nanoTime();
+                    Thread.ofVirtual().start(() -> handle(client));
+                }
+            } catch (AsynchronousCloseException e) {
+                // Closed by the idle check
+            } finally {
+                idleCheck.shutdownNow();
+                sync.shutdownNow();
+                deleteSocket();
+            }
+        }
+    }
+
+    private ScheduledExecutorService scheduleIdleShutdown(ServerSocketChannel server) {
+        ScheduledExecutorService idleCheck = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().factory());
+        if (!idleTimeout.isZero()) {
+            idleCheck.scheduleAtFixedRate(() -> {
+                if (!executionLock.isLocked() && System.nanoTime() - lastActivity > idleTimeout.toNanos()) {
+                    try {
+                        server.close();
+                    } catch (IOException ignored) {
+                        // Nothing left to clean up
+                    }
+                }
+            }, 1, 1, TimeUnit.SECONDS);
+        }
+        return idleCheck;
+    }
+
+    private ScheduledExecutorService scheduleOutboxSync() {
+        ScheduledExecutorService sync = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().factory());
+        if (!syncInterval.isZero()) {
+            sync.scheduleWithFixedDelay(this::syncOutbox, syncInterval.toMillis(), syncInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return sync;
+    }
+
+    private void syncOutbox() {
+        Outbox outbox = GatewayClient.getInstance().getOutbox();
+        try {
+            if (outbox == null || outbox.entries().stream().noneMatch(Outbox.Entry::isPending)) {
+                return;
+            }
+            OutboxSync.Result result = new OutboxSync(GatewayClient.getInstance(), outbox).sync(SYNC_BATCH_SIZE, false, null);
+            if (result.sent() + result.conflicts() + result.rejected() > 0) {
+                log.println("Outbox sync: sent " + result.sent() + ", conflicts " + result.conflicts()
+                        + ", rejected " + result.rejected() + ", still queued " + result.remaining());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // A sync started from a command holds the outbox; the next run will try again
+            log.println("Outbox sync failed: " + e.getMessage());
+        }
+    }
+
+    private void handle(SocketChannel client) {
+        try (client) {
+            DataInputStream in = new DataInputStream(Channels.newInputStream(client));
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(client));
+
+            Path workingDirectory = Path.of(in.readUTF());
+            String[] args = DaemonProtocol.readArgs(in);
+
+            int exitCode = execute(workingDirectory, args, out);
+            DaemonProtocol.writeExit(out, exitCode);
+        } catch (EOFException e) {
+            // Liveness probe or client that went away before sending a command
+        } catch (IOException e) {
+            System.err.println("Daemon connection failed: " + e.getMessage());
+        } finally {
+            lastActivity = System.nanoTime();
+        }
+    }
+
+    private int execute(Path workingDirectory, String[] args, DataOutputStream out) {
+        PrintStream stdout = new PrintStream(new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDOUT), true, StandardCharsets.UTF_8);
+        PrintStream stderr = new PrintStream(new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDERR), true, StandardCharsets.UTF_8);
+
+        if (args.length > 0 && DaemonProtocol.LOCAL_COMMANDS.contains(args[0])) {
+            stderr.println("'" + args[0] + "' cannot run inside the daemon.");
+            return 1;
+        }
+
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        executionLock.lock();
+        try {
+            System.setOut(stdout);
+            System.setErr(stderr);
+            commandLine.setOut(new PrintWriter(stdout, true));
+            commandLine.setErr(new PrintWriter(stderr, true));
+            clientDirectory = workingDirectory;
+
+            return commandLine.execute(args);
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            executionLock.unlock();
+        }
+    }
+
+    // File options are resolved against the daemon's directory by default; rebase relative ones onto the
+    // directory the client was invoked from.
+    private static void resolveRelativePaths(CommandLine.ParseResult parseResult, Path base) {
+        for (CommandLine.ParseResult result = parseResult; result != null; result = result.subcommand()) {
+            for (CommandLine.Model.OptionSpec option : result.matchedOptions()) {
+                Object value = option.getValue();
+                if (value instanceof Path path && !path.isAbsolute()) {
+                    option.setValue(base.resolve(path));
+                }
+            }
+        }
+    }
+
+    private static boolean isListening(Path socket) {
+        if (!Files.exists(socket)) {
+            return false;
+        }
+        try (SocketChannel probe = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            return probe.connect(UnixDomainSocketAddress.of(socket));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void deleteSocket() {
+        try {
+            Files.deleteIfExists(socket);
+        } catch (IOException ignored) {
+            // Best effort; a stale socket is detected by the client
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.rockets.cli_app.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.rockets.cli_app.components.Meeting;
 
 import java.util.ArrayList;
@@ -27,6 +28,8 @@ public class CalendarDTO {
         this.meetings = meetings;
     }
 
+    // The services read the record ID from "id"
+    @JsonProperty("id")
     public String getCalendarId() {
         return calendarId;
     }
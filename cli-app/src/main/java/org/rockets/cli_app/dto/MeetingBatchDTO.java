@@ -0,0 +1,101 @@
+package org.rockets.cli_app.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Body of POST /meetings/{id}/batch: field changes plus participant/attachment additions and removals,
+// applied by the meetings service in one update. Unset fields and empty lists are left out.
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class MeetingBatchDTO {
+    private String title;
+    private String datetime;
+    private String location;
+    private String details;
+    private List<String> addParticipants = new ArrayList<>();
+    private List<String> removeParticipants = new ArrayList<>();
+    private List<String> addAttachments = new ArrayList<>();
+    private List<String> removeAttachments = new ArrayList<>();
+
+    public MeetingBatchDTO() {
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDatetime() {
+        return datetime;
+    }
+
+    public void setDatetime(String datetime) {
+        this.datetime = datetime;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public void setDetails(String details) {
+        this.details = details;
+    }
+
+    public List<String> getAddParticipants() {
+        return addParticipants;
+    }
+
+    public void setAddParticipants(List<String> addParticipants) {
+        this.addParticipants = addParticipants;
+    }
+
+    public List<String> getRemoveParticipants() {
+        return removeParticipants;
+    }
+
+    public void setRemoveParticipants(List<String> removeParticipants) {
+        this.removeParticipants = removeParticipants;
+    }
+
+    public List<String> getAddAttachments() {
+        return addAttachments;
+    }
+
+    public void setAddAttachments(List<String> addAttachments) {
+        this.addAttachments = addAttachments;
+    }
+
+    public List<String> getRemoveAttachments() {
+        return removeAttachments;
+    }
+
+    public void setRemoveAttachments(List<String> removeAttachments) {
+        this.removeAttachments = removeAttachments;
+    }
+
+    public boolean hasFieldUpdates() {
+        return title != null || datetime != null || location != null || details != null;
+    }
+
+    public boolean hasAssociationUpdates() {
+        return !addParticipants.isEmpty() || !removeParticipants.isEmpty()
+                || !addAttachments.isEmpty() || !removeAttachments.isEmpty();
+    }
+
+    // The same field changes as a MeetingDTO, for backends without the batch endpoint
+    public MeetingDTO toMeetingDTO(String meetingId) {
+        return new MeetingDTO(meetingId, title, datetime, location, details);
+    }
+}
@@ -1,5 +1,6 @@
 package org.rockets.cli_app.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import org.rockets.cli_app.components.Calendar;
 
 import java.util.ArrayList;
@@ -33,6 +34,8 @@ public class MeetingDTO {
         this.participants = participants;
     }
 
+    // The services read the record ID from "id"
+    @JsonProperty("id")
     public String getMeetingId() {
         return meetingId;
     }
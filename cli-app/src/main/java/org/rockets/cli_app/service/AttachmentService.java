@@ -1,34 +1,36 @@
 package org.rockets.cli_app.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.rockets.cli_app.components.Attachment;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 public class AttachmentService {
-    private String baseUrl = "http://localhost:8080";
-    HttpClient client = HttpClient.newHttpClient();
-    ObjectMapper objectMapper = new ObjectMapper();
+    private final GatewayClient gateway;
+    // Counts the writes of the command that built this service that were queued in the outbox instead of
+    // applied; see GatewayClient.trackQueuedWrites
+    private final LongAdder queuedWrites;
+
+    public AttachmentService() {
+        this(GatewayClient.getInstance());
+    }
+
+    public AttachmentService(GatewayClient gateway) {
+        this.gateway = gateway;
+        this.queuedWrites = GatewayClient.queuedWriteCounter();
+    }
 
     public List<Attachment> getAttachments() {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/attachments"))
-                .GET()
-                .build();
         List<Attachment> attachments = new ArrayList<>();
 
         try {
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            String responseBody = response.body();
-            return objectMapper.readValue(responseBody, List.class);
+            return gateway.sendCached(getAttachmentsRequest(), gateway.listReader(Attachment.class));
         } catch (Error | IOException | InterruptedException e) {
             System.err.println(e.getMessage());
         }
@@ -36,17 +38,42 @@ public class AttachmentService {
         return attachments;
     }
 
-    public Attachment createAttachment(Attachment attachment) {
+    public CompletableFuture<List<Attachment>> getAttachmentsAsync() {
+        return gateway.<List<Attachment>>sendCachedAsync(getAttachmentsRequest(), gateway.listReader(Attachment.class))
+                .exceptionally(e -> {
+                    System.err.println(e.getMessage());
+                    return new ArrayList<>();
+                });
+    }
+
+    public List<Attachment> getAttachmentsByIds(List<String> ids) {
+        List<Attachment> attachments = new ArrayList<>();
+
         try {
-            String requestBody = objectMapper.writeValueAsString(attachment);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/attachments"))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
+            return gateway.sendCached(getAttachmentsByIdsRequest(ids), gateway.listReader(Attachment.class));
+        } catch (Error | IOException | InterruptedException e) {
+            System.err.println(e.getMessage());
+        }
+
+        return attachments;
+    }
+
+    public CompletableFuture<List<Attachment>> getAttachmentsByIdsAsync(List<String> ids) {
+        return gateway.<List<Attachment>>sendCachedAsync(getAttachmentsByIdsRequest(ids), gateway.listReader(Attachment.class))
+                .exceptionally(e -> {
+                    System.err.println(e.getMessage());
+                    return new ArrayList<>();
+                });
+    }
 
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            return objectMapper.readValue(response.body(), Attachment.class);
+    // Lazily pages through /attachments and parses each page as it streams in; limit <= 0 means no limit
+    public PageIterator<Attachment> iterateAttachments(int pageSize, String cursor, long limit) {
+        return new PageIterator<>(gateway, "/attachments", gateway.reader(Attachment.class), Attachment::getId, pageSize, cursor, limit);
+    }
+
+    public Attachment createAttachment(Attachment attachment) {
+        try {
+            return gateway.send(createAttachmentRequest(attachment), gateway.reader(Attachment.class), queuedWrites);
         } catch (IOException | InterruptedException e) {
             System.err.println(e.getMessage());
         }
@@ -54,31 +81,84 @@ public class AttachmentService {
         return null;
     }
 
+    public CompletableFuture<Attachment> createAttachmentAsync(Attachment attachment) {
+        return gateway.<Attachment>sendAsync(() -> createAttachmentRequest(attachment), gateway.reader(Attachment.class))
+                .exceptionally(e -> {
+                    System.err.println(e.getMessage());
+                    return null;
+                });
+    }
+
     public void updateAttachmentById(String id, Attachment attachment) {
         try {
-            String requestBody = objectMapper.writeValueAsString(attachment);
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/attachments/" + id))
-                    .header("Content-Type", "application/json")
-                    .method("PUT", HttpRequest.BodyPublishers.ofString(requestBody))
-                    .build();
-
-            client.send(request, HttpResponse.BodyHandlers.ofString());
+            gateway.send(updateAttachmentRequest(id, attachment), HttpResponse.BodyHandlers.discarding(), queuedWrites);
         } catch (IOException | InterruptedException e) {
             System.err.println(e.getMessage());
         }
     }
 
-    public void deleteAttachmentById(String id) {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/attachments/" + id))
-                .DELETE()
-                .build();
+    public CompletableFuture<Void> updateAttachmentByIdAsync(String id, Attachment attachment) {
+        return gateway.sendAsyncDiscarding(() -> updateAttachmentRequest(id, attachment), queuedWrites)
+                .exceptionally(e -> {
+                    System.err.println(e.getMessage());
+                    return null;
+                });
+    }
 
+    public void deleteAttachmentById(String id) {
         try {
-            client.send(request, HttpResponse.BodyHandlers.discarding());
+            gateway.send(deleteAttachmentRequest(id), HttpResponse.BodyHandlers.discarding(), queuedWrites);
         } catch (IOException | InterruptedException e) {
             System.err.println(e.getMessage());
         }
     }
+
+    public CompletableFuture<Void> deleteAttachmentByIdAsync(String id) {
+        return gateway.sendAsyncDiscarding(() -> deleteAttachmentRequest(id), queuedWrites)
+                .exceptionally(e -> {
+                    System.err.println(e.getMessage());
+                    return null;
+                });
+    }
+
+    private HttpRequest getAttachmentsRequest() {
+        return gateway.newRequest("/attachments")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest getAttachmentsByIdsRequest(List<String> ids) {
+        return gateway.newRequest(GatewayClient.withIds("/attachments", ids))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest createAttachmentRequest(Attachment attachment) throws JsonProcessingException {
+        String requestBody = gateway.writer(Attachment.class).writeValueAsString(attachment);
+        // POST /attachments assigns its own ID, so records that carry one are created under that ID
+        if (attachment.getId() == null) {
+            return gateway.newRequest("/attachments")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .build();
+        }
+        return gateway.newCreateRequest("/attachments/" + attachment.getId(), attachment.getId())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                .build();
+    }
+
+    private HttpRequest updateAttachmentRequest(String id, Attachment attachment) throws JsonProcessingException {
+        String requestBody = gateway.writer(Attachment.class).writeValueAsString(attachment);
+        return gateway.newRequest("/attachments/" + id)
+                .header("Content-Type", "application/json")
+                .method("PUT", HttpRequest.BodyPublishers.ofString(requestBody))
+                .build();
+    }
+
+    private HttpRequest deleteAttachmentRequest(String id) {
+        return gateway.newRequest("/attachments/" + id)
+                .DELETE()
+                .build();
+    }
 }
@@ -0,0 +1,190 @@
+package org.rockets.cli_app.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Collects single-record lookups made within a short window and sends them as one ?ids= request, the
+// way a DataLoader does. A batch goes out when it holds maxBatchSize IDs or delay after its first ID,
+// whichever comes first. IDs the source can serve from its cache skip the batch, and an ID whose batch
+// is already on the wire joins it instead of being sent again. IDs the backend does not return fail
+// with "<Type> not found: <id>".
+// Records are mutable, so callers asking for the same ID each get their own copy.
+public class BatchLoader<T> {
+
+    // Where the records come from
+    public interface Source<T> {
+        CompletableFuture<List<T>> loadAll(List<String> ids);
+
+        // The record if it can be had without a request, otherwise null
+        T cached(String id);
+
+        String idOf(T record);
+
+        T copy(T record);
+    }
+
+    private final String typeName;
+    private final Source<T> source;
+    private final Executor executor;
+    private volatile int maxBatchSize;
+    private volatile Duration delay;
+
+    // Batch still taking IDs, null until the next lookup; guarded by this
+    private Batch<T> open;
+    // ID -> the batch that was sent with it and has not completed yet
+    private final Map<String, Batch<T>> sent = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public BatchLoader(String typeName, Source<T> source, int maxBatchSize, Duration delay, Executor executor) {
+        this.typeName = typeName;
+        this.source = source;
+        this.executor = executor;
+        configure(maxBatchSize, delay);
+    }
+
+    // Applies to batches opened from now on
+    public void configure(int maxBatchSize, Duration delay) {
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.delay = delay.isNegative() ? Duration.ZERO : delay;
+    }
+
+    public CompletableFuture<T> load(String id) {
+        loads.increment();
+        T cached;
+        try {
+            cached = source.cached(id);
+        } catch (RuntimeException e) {
+            cached = null;
+        }
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Batch<T> running = sent.get(id);
+        if (running != null && running.add(id, result)) {
+            return result;
+        }
+
+        Batch<T> full = null;
+        synchronized (this) {
+            if (open == null) {
+                Batch<T> batch = new Batch<>();
+                open = batch;
+                CompletableFuture.delayedExecutor(delay.toNanos(), TimeUnit.NANOSECONDS, executor).execute(() -> flush(batch));
+            }
+            open.add(id, result);
+            if (open.size() >= maxBatchSize) {
+                full = open;
+                open = null;
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return result;
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    // Sends the batch when its window ends, unless it already went out full
+    private void flush(Batch<T> batch) {
+        synchronized (this) {
+            if (open != batch) {
+                return;
+            }
+            open = null;
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<T> batch) {
+        batches.increment();
+        List<String> ids = batch.ids();
+        ids.forEach(id -> sent.put(id, batch));
+
+        CompletableFuture<List<T>> records;
+        try {
+            records = source.loadAll(ids);
+        } catch (RuntimeException e) {
+            records = CompletableFuture.failedFuture(e);
+        }
+
+        records.whenComplete((loaded, error) -> {
+            Map<String, List<CompletableFuture<T>>> waiters = batch.settle();
+            ids.forEach(id -> sent.remove(id, batch));
+            if (error != null) {
+                waiters.values().forEach(callers -> callers.forEach(caller -> caller.completeExceptionally(error)));
+                return;
+            }
+
+            Map<String, T> byId = new HashMap<>();
+            for (T record : loaded) {
+                byId.putIfAbsent(source.idOf(record), record);
+            }
+            waiters.forEach((id, callers) -> {
+                T record = byId.get(id);
+                if (record == null) {
+                    IOException notFound = new IOException(typeName + " not found: " + id);
+                    callers.forEach(caller -> caller.completeExceptionally(new CompletionException(notFound)));
+                    return;
+                }
+                // Copies are taken before the first caller gets the original and can change it
+                for (int i = callers.size() - 1; i >= 0; i--) {
+                    try {
+                        callers.get(i).complete(i == 0 ? record : source.copy(record));
+                    } catch (RuntimeException e) {
+                        callers.get(i).completeExceptionally(e);
+                    }
+                }
+            });
+        });
+    }
+
+    private static final class Batch<T> {
+        // ID -> callers waiting for it, in the order the IDs were asked for; guarded by this
+        private final Map<String, List<CompletableFuture<T>>> waiters = new LinkedHashMap<>();
+        private boolean settled;
+
+        // False once the response is in; the caller then starts a new batch
+        synchronized boolean add(String id, CompletableFuture<T> caller) {
+            if (settled) {
+                return false;
+            }
+            waiters.computeIfAbsent(id, ignored -> new ArrayList<>(1)).add(caller);
+            return true;
+        }
+
+        synchronized int size() {
+            return waiters.size();
+        }
+
+        synchronized List<String> ids() {
+            return new ArrayList<>(waiters.keySet());
+        }
+
+        synchronized Map<String, List<CompletableFuture<T>>> settle() {
+            settled = true;
+            return waiters;
+        }
+    }
+}
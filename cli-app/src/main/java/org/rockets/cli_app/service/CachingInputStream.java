@@ -0,0 +1,61 @@
+package org.rockets.cli_app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+// Copies the bytes read from a response body and hands them over once the end of the stream is reached,
+// so a body that is parsed incrementally can still be cached. Bodies larger than the limit, and bodies
+// that are closed before they were fully read, are not cached.
+class CachingInputStream extends FilterInputStream {
+    private final long limit;
+    private final Consumer<byte[]> onComplete;
+    private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+    private boolean completed;
+
+    CachingInputStream(InputStream in, long limit, Consumer<byte[]> onComplete) {
+        super(in);
+        this.limit = limit;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b < 0) {
+            complete();
+        } else if (copy != null) {
+            copy.write(b);
+            checkLimit();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+        if (count < 0) {
+            complete();
+        } else if (copy != null) {
+            copy.write(buffer, offset, count);
+            checkLimit();
+        }
+        return count;
+    }
+
+    private void checkLimit() {
+        if (copy.size() > limit) {
+            copy = null;
+        }
+    }
+
+    private void complete() {
+        if (!completed && copy != null) {
+            completed = true;
+            onComplete.accept(copy.toByteArray());
+            copy = null;
+        }
+    }
+}
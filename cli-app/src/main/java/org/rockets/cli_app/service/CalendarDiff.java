@@ -0,0 +1,57 @@
+package org.rockets.cli_app.service;
+
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.dto.CalendarDTO;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// Smallest set of changes that turns a calendar's current state into the desired one: the meetings to add
+// and to remove, and a field update when the title or details differ. Meeting order is not significant.
+// fieldUpdate is null when the fields already match; the PUT sets both fields, so it carries both.
+public record CalendarDiff(String calendarId, List<String> addMeetings, List<String> removeMeetings, CalendarDTO fieldUpdate) {
+
+    // A null title, details or meeting list in desired leaves that part of the calendar as it is
+    public static CalendarDiff between(Calendar current, CalendarDTO desired) {
+        List<String> add = new ArrayList<>();
+        List<String> remove = new ArrayList<>();
+        if (desired.getMeetings() != null) {
+            Set<String> currentIds = new LinkedHashSet<>();
+            for (Meeting meeting : current.getMeetings()) {
+                currentIds.add(meeting.getId());
+            }
+            Set<String> desiredIds = new LinkedHashSet<>(desired.getMeetings());
+            for (String id : desiredIds) {
+                if (!currentIds.contains(id)) {
+                    add.add(id);
+                }
+            }
+            for (String id : currentIds) {
+                if (!desiredIds.contains(id)) {
+                    remove.add(id);
+                }
+            }
+        }
+
+        String title = desired.getTitle() != null ? desired.getTitle() : current.getTitle();
+        String details = desired.getDetails() != null ? desired.getDetails() : current.getDetails();
+        CalendarDTO fieldUpdate = Objects.equals(title, current.getTitle()) && Objects.equals(details, current.getDetails())
+                ? null
+                : new CalendarDTO(current.getId(), title, details);
+        return new CalendarDiff(current.getId(), add, remove, fieldUpdate);
+    }
+
+    public boolean isEmpty() {
+        return addMeetings.isEmpty() && removeMeetings.isEmpty() && fieldUpdate == null;
+    }
+
+    @Override
+    public String toString() {
+        return "(CalendarDiff) id: " + calendarId + " | add meetings: " + addMeetings.size()
+                + " | remove meetings: " + removeMeetings.size() + " | fields: " + (fieldUpdate != null ? "changed" : "unchanged");
+    }
+}
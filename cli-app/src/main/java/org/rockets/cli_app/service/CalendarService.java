@@ -1,110 +1,198 @@
 package org.rockets.cli_app.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.rockets.cli_app.components.Calendar;
 import org.rockets.cli_app.dto.CalendarDTO;
 
-import java.net.URI;
-import java.net.http.HttpClient;
+import java.io.IOException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 
 public class CalendarService {
 
-    private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
-    private final String baseUrl = "http://localhost:8080";
+    // Per-ID meeting association calls kept in flight at once
+    private static final int MAX_IN_FLIGHT = 16;
+
+    private final GatewayClient gateway;
+    // Counts the writes of the command that built this service that were queued in the outbox instead of
+    // applied; see GatewayClient.trackQueuedWrites
+    private final LongAdder queuedWrites;
 
     public CalendarService() {
-        this.httpClient = HttpClient.newHttpClient();
-        this.objectMapper = new ObjectMapper();
+        this(GatewayClient.getInstance());
+    }
+
+    public CalendarService(GatewayClient gateway) {
+        this.gateway = gateway;
+        this.queuedWrites = GatewayClient.queuedWriteCounter();
     }
 
     public List<Calendar> getCalendars() throws Exception {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/calendars"))
-                .GET()
-                .build();
+        List<Calendar> apiResponse = gateway.sendCached(getCalendarsRequest(), gateway.listReader(Calendar.class));
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        System.out.println(response.body());
-        List<Calendar> apiResponse = objectMapper.readValue(response.body(), new TypeReference<>() {
-        });
+        return Objects.requireNonNull(apiResponse);
+    }
+
+    public CompletableFuture<List<Calendar>> getCalendarsAsync() {
+        return gateway.sendCachedAsync(getCalendarsRequest(), gateway.listReader(Calendar.class));
+    }
 
+    public List<Calendar> getCalendarsByIds(List<String> ids) throws Exception {
+        List<Calendar> apiResponse = gateway.sendCached(getCalendarsByIdsRequest(ids), gateway.listReader(Calendar.class));
 
         return Objects.requireNonNull(apiResponse);
     }
 
-    public Calendar createCalendar(CalendarDTO calendar) throws Exception {
-        String requestBody = objectMapper.writeValueAsString(calendar);
+    public CompletableFuture<List<Calendar>> getCalendarsByIdsAsync(List<String> ids) {
+        return gateway.sendCachedAsync(getCalendarsByIdsRequest(ids), gateway.listReader(Calendar.class));
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/calendars"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
-                .build();
+    // Lazily pages through /calendars and parses each page as it streams in; limit <= 0 means no limit
+    public PageIterator<Calendar> iterateCalendars(int pageSize, String cursor, long limit) {
+        return new PageIterator<>(gateway, "/calendars", gateway.reader(Calendar.class), Calendar::getId, pageSize, cursor, limit);
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        Calendar apiResponse = objectMapper.readValue(response.body(), new TypeReference<Calendar>() {
-        });
+    public Calendar createCalendar(CalendarDTO calendar) throws Exception {
+        Calendar apiResponse = gateway.send(createCalendarRequest(calendar), gateway.reader(Calendar.class), queuedWrites);
 
         return Objects.requireNonNull(apiResponse);
     }
 
-    public void updateCalendarById(String id, CalendarDTO calendar) throws Exception {
-        String requestBody = objectMapper.writeValueAsString(calendar);
+    public CompletableFuture<Calendar> createCalendarAsync(CalendarDTO calendar) {
+        return gateway.sendAsync(() -> createCalendarRequest(calendar), gateway.reader(Calendar.class), queuedWrites);
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/calendars/" + id))
-                .header("Content-Type", "application/json")
-                .method("PUT", HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
-                .build();
+    public void updateCalendarById(String id, CalendarDTO calendar) throws Exception {
+        gateway.send(updateCalendarRequest(id, calendar), HttpResponse.BodyHandlers.discarding(), queuedWrites);
+    }
 
-        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<Void> updateCalendarByIdAsync(String id, CalendarDTO calendar) {
+        return gateway.sendAsyncDiscarding(() -> updateCalendarRequest(id, calendar), queuedWrites);
     }
 
     public void deleteCalendarById(String id) throws Exception {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/calendars/" + id))
-                .DELETE()
-                .build();
+        gateway.send(deleteCalendarRequest(id), HttpResponse.BodyHandlers.discarding(), queuedWrites);
+    }
 
-        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<Void> deleteCalendarByIdAsync(String id) {
+        return gateway.sendAsyncDiscarding(() -> deleteCalendarRequest(id), queuedWrites);
     }
 
     public Calendar addMeetingsToCalendar(String calendarId, List<String> meetingIds) throws Exception {
-        String requestBody = objectMapper.writeValueAsString(meetingIds);
+        return changeMeetings(calendarId, meetingIds, List.of());
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/calendars/" + calendarId + "/addMeetings"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
-                .build();
+    public CompletableFuture<Calendar> addMeetingsToCalendarAsync(String calendarId, List<String> meetingIds) {
+        return changeMeetingsAsync(calendarId, meetingIds, List.of());
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        Calendar apiResponse = objectMapper.readValue(response.body(), new TypeReference<Calendar>() {
-        });
+    public Calendar removeMeetingsFromCalendar(String calendarId, List<String> meetingIds) throws Exception {
+        return changeMeetings(calendarId, List.of(), meetingIds);
+    }
 
-        return Objects.requireNonNull(apiResponse);
+    public CompletableFuture<Calendar> removeMeetingsFromCalendarAsync(String calendarId, List<String> meetingIds) {
+        return changeMeetingsAsync(calendarId, List.of(), meetingIds);
     }
 
-    public Calendar removeMeetingsFromCalendar(String calendarId, List<String> meetingIds) throws Exception {
-        String requestBody = objectMapper.writeValueAsString(meetingIds);
+    // The gateway only has per-ID association endpoints (GET /calendars/{id}/addMeeting/{meetingId}), so
+    // every change is its own request; they are sent concurrently and the calendar is read back once.
+    public Calendar changeMeetings(String calendarId, List<String> add, List<String> remove) throws IOException, InterruptedException {
+        gateway.sendAll(meetingRequests(calendarId, add, remove), MAX_IN_FLIGHT, queuedWrites);
+        return getCalendarById(calendarId);
+    }
+
+    public CompletableFuture<Calendar> changeMeetingsAsync(String calendarId, List<String> add, List<String> remove) {
+        return gateway.sendAllAsync(meetingRequests(calendarId, add, remove), MAX_IN_FLIGHT, queuedWrites)
+                .thenCompose(ignored -> getCalendarByIdAsync(calendarId));
+    }
+
+    // Applies the field update and the meeting changes of a diff together and returns the resulting calendar
+    public Calendar apply(CalendarDiff diff) throws IOException, InterruptedException {
+        try {
+            return applyAsync(diff).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    public CompletableFuture<Calendar> applyAsync(CalendarDiff diff) {
+        CompletableFuture<Void> fieldUpdate = diff.fieldUpdate() == null
+                ? CompletableFuture.completedFuture(null)
+                : updateCalendarByIdAsync(diff.calendarId(), diff.fieldUpdate());
+        CompletableFuture<Void> meetings = gateway.sendAllAsync(
+                meetingRequests(diff.calendarId(), diff.addMeetings(), diff.removeMeetings()), MAX_IN_FLIGHT, queuedWrites);
+        return CompletableFuture.allOf(fieldUpdate, meetings)
+                .thenCompose(ignored -> getCalendarByIdAsync(diff.calendarId()));
+    }
+
+    // Single lookups made at about the same time are batched into one ?ids= request
+    public Calendar getCalendarById(String id) throws IOException, InterruptedException {
+        return GatewayClient.await(getCalendarByIdAsync(id));
+    }
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/calendars/" + calendarId + "/removeMeetings"))
+    public CompletableFuture<Calendar> getCalendarByIdAsync(String id) {
+        return gateway.loader("/calendars", Calendar.class, Calendar::getId).load(id);
+    }
+
+    private HttpRequest getCalendarsRequest() {
+        return gateway.newRequest("/calendars")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest getCalendarsByIdsRequest(List<String> ids) {
+        return gateway.newRequest(GatewayClient.withIds("/calendars", ids))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest createCalendarRequest(CalendarDTO calendar) throws JsonProcessingException {
+        String requestBody = gateway.writer(CalendarDTO.class).writeValueAsString(calendar);
+
+        return gateway.newCreateRequest("/calendars", calendar.getCalendarId())
                 .header("Content-Type", "application/json")
                 .POST(HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
                 .build();
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-        Calendar apiResponse = objectMapper.readValue(response.body(), new TypeReference<Calendar>() {
-        });
+    private HttpRequest updateCalendarRequest(String id, CalendarDTO calendar) throws JsonProcessingException {
+        String requestBody = gateway.writer(CalendarDTO.class).writeValueAsString(calendar);
 
-        return Objects.requireNonNull(apiResponse);
+        return gateway.newRequest("/calendars/" + id)
+                .header("Content-Type", "application/json")
+                .method("PUT", HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpRequest deleteCalendarRequest(String id) {
+        return gateway.newRequest("/calendars/" + id)
+                .DELETE()
+                .build();
+    }
+
+    private List<HttpRequest> meetingRequests(String calendarId, List<String> add, List<String> remove) {
+        List<HttpRequest> requests = new ArrayList<>();
+        add.forEach(meetingId -> requests.add(meetingRequest(calendarId, "addMeeting", meetingId)));
+        remove.forEach(meetingId -> requests.add(meetingRequest(calendarId, "removeMeeting", meetingId)));
+        return requests;
+    }
+
+    private HttpRequest meetingRequest(String calendarId, String operation, String meetingId) {
+        return gateway.newRequest("/calendars/" + calendarId + "/" + operation + "/" + meetingId)
+                .GET()
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package org.rockets.cli_app.service;
+
+import java.io.IOException;
+
+// Raised instead of sending a request while the backend's circuit is open
+public class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException(String route) {
+        super("Circuit open for " + route + ": too many recent failures, not sending requests for now");
+    }
+}
@@ -0,0 +1,380 @@
+package org.rockets.cli_app.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+// gzip content coding for gateway traffic. The JDK client neither asks for nor decodes compressed
+// responses, so requests advertise Accept-Encoding: gzip and compressed bodies are inflated here
+// before they reach the caller's body handler.
+final class Compression {
+    static final String GZIP = "gzip";
+    // Inflated bytes handed downstream per onNext
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final long BODY_TIMEOUT_SECONDS = 5;
+
+    private Compression() {
+    }
+
+    // Wraps a body handler so that gzip-encoded responses arrive decoded; other responses pass through
+    static <T> HttpResponse.BodyHandler<T> decoding(HttpResponse.BodyHandler<T> bodyHandler) {
+        return responseInfo -> isGzip(responseInfo.headers())
+                ? new InflatingSubscriber<>(bodyHandler.apply(responseInfo))
+                : bodyHandler.apply(responseInfo);
+    }
+
+    static boolean isGzip(HttpHeaders headers) {
+        return headers.firstValue("Content-Encoding").map(GZIP::equalsIgnoreCase).orElse(false);
+    }
+
+    // Whether a response says the server takes gzip request bodies (RFC 7694)
+    static boolean acceptsGzip(HttpHeaders headers) {
+        for (String value : headers.allValues("Accept-Encoding")) {
+            for (String coding : value.split(",")) {
+                String name = coding.trim();
+                int parameters = name.indexOf(';');
+                if ((parameters < 0 ? name : name.substring(0, parameters).trim()).equalsIgnoreCase(GZIP)) {
+                    return !name.replace(" ", "").endsWith("q=0");
+                }
+            }
+        }
+        return false;
+    }
+
+    static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    // The request body as bytes, null without one. The services only send in-memory bodies, which the JDK
+    // publishes synchronously.
+    static byte[] bodyOf(HttpRequest request) throws IOException {
+        HttpRequest.BodyPublisher publisher = request.bodyPublisher().orElse(null);
+        if (publisher == null || publisher.contentLength() == 0) {
+            return null;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, (int) Math.min(publisher.contentLength(), Integer.MAX_VALUE - 8)));
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+
+        try {
+            done.get(BODY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the request body", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("Could not read the request body: " + e.getMessage(), e);
+        }
+        return out.toByteArray();
+    }
+
+    // Inflates the body as it streams in: compressed bytes are only asked for when the downstream subscriber
+    // wants more and the inflater has used up what it was given, so no more than about one network chunk of
+    // input and one CHUNK_SIZE of output is held at a time. Handles the gzip member header and trailer
+    // itself; like GZIPInputStream it reads concatenated members and ignores trailing bytes after the first.
+    private static final class InflatingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private static final int FEXTRA = 4;
+        private static final int FNAME = 8;
+        private static final int FCOMMENT = 16;
+        private static final int FHCRC = 2;
+
+        private enum State { HEADER, BODY, TRAILER }
+
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final Inflater inflater = new Inflater(true);
+        private final CRC32 crc = new CRC32();
+        // Compressed bytes received but not consumed yet, between position and limit
+        private ByteBuffer pending = ByteBuffer.allocate(0);
+        private State state = State.HEADER;
+        private int members;
+        private boolean ignoringRest;
+        private Flow.Subscription upstream;
+        private boolean awaitingInput;
+        private boolean upstreamComplete;
+        private long demand;
+        private boolean draining;
+        private boolean done;
+
+        InflatingSubscriber(HttpResponse.BodySubscriber<T> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            synchronized (this) {
+                upstream = subscription;
+            }
+            downstream.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    synchronized (InflatingSubscriber.this) {
+                        demand = Long.MAX_VALUE - demand < n ? Long.MAX_VALUE : demand + n;
+                    }
+                    drain();
+                }
+
+                @Override
+                public void cancel() {
+                    synchronized (InflatingSubscriber.this) {
+                        finish();
+                    }
+                    subscription.cancel();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            synchronized (this) {
+                awaitingInput = false;
+                if (done) {
+                    return;
+                }
+                if (!ignoringRest) {
+                    for (ByteBuffer buffer : buffers) {
+                        append(buffer);
+                    }
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                finish();
+            }
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                upstreamComplete = true;
+            }
+            drain();
+        }
+
+        // Downstream may request more from inside onNext, and upstream may deliver from inside request; the
+        // draining flag turns either into another loop iteration instead of a nested call
+        private synchronized void drain() {
+            if (draining) {
+                return;
+            }
+            draining = true;
+            try {
+                while (!done && demand > 0) {
+                    ByteBuffer chunk = inflateChunk();
+                    if (chunk != null) {
+                        demand--;
+                        downstream.onNext(List.of(chunk));
+                    } else if (upstreamComplete) {
+                        // A body that ends between members is complete, as is an empty one (HEAD, 204)
+                        if (state != State.HEADER || (members == 0 && pending.hasRemaining())) {
+                            throw new EOFException("Unexpected end of gzip stream");
+                        }
+                        finish();
+                        downstream.onComplete();
+                    } else if (!awaitingInput) {
+                        awaitingInput = true;
+                        upstream.request(1);
+                    } else {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                finish();
+                upstream.cancel();
+                downstream.onError(e);
+            } finally {
+                draining = false;
+            }
+        }
+
+        // The next inflated bytes, or null when more input is needed (or there is none left)
+        private ByteBuffer inflateChunk() throws IOException {
+            while (true) {
+                switch (state) {
+                    case HEADER -> {
+                        if (ignoringRest || !pending.hasRemaining()) {
+                            return null;
+                        }
+                        int length;
+                        try {
+                            length = headerLength();
+                        } catch (ZipException e) {
+                            if (members == 0) {
+                                throw e;
+                            }
+                            ignoringRest = true;
+                            pending = ByteBuffer.allocate(0);
+                            return null;
+                        }
+                        if (length < 0) {
+                            return null;
+                        }
+                        pending.position(pending.position() + length);
+                        inflater.reset();
+                        crc.reset();
+                        state = State.BODY;
+                    }
+                    case BODY -> {
+                        inflater.setInput(pending.array(), pending.arrayOffset() + pending.position(), pending.remaining());
+                        byte[] out = new byte[CHUNK_SIZE];
+                        int n;
+                        try {
+                            n = inflater.inflate(out);
+                        } catch (DataFormatException e) {
+                            throw new ZipException(e.getMessage());
+                        }
+                        pending.position(pending.limit() - inflater.getRemaining());
+                        if (inflater.finished()) {
+                            state = State.TRAILER;
+                        } else if (n == 0 && inflater.needsDictionary()) {
+                            throw new ZipException("Deflate stream needs a preset dictionary");
+                        }
+                        if (n > 0) {
+                            crc.update(out, 0, n);
+                            return ByteBuffer.wrap(out, 0, n);
+                        }
+                        if (state == State.BODY) {
+                            return null;
+                        }
+                    }
+                    case TRAILER -> {
+                        if (pending.remaining() < 8) {
+                            return null;
+                        }
+                        ByteBuffer trailer = pending.slice().order(ByteOrder.LITTLE_ENDIAN);
+                        if (trailer.getInt(0) != (int) crc.getValue()) {
+                            throw new ZipException("Corrupt gzip trailer: CRC mismatch");
+                        }
+                        if (trailer.getInt(4) != (int) inflater.getBytesWritten()) {
+                            throw new ZipException("Corrupt gzip trailer: size mismatch");
+                        }
+                        pending.position(pending.position() + 8);
+                        members++;
+                        state = State.HEADER;
+                    }
+                }
+            }
+        }
+
+        // Length of the member header at the start of pending, -1 while it has not all arrived (RFC 1952)
+        private int headerLength() throws ZipException {
+            int start = pending.position();
+            int end = pending.limit();
+            if (end - start >= 2 && ((pending.get(start) & 0xff) != 0x1f || (pending.get(start + 1) & 0xff) != 0x8b)) {
+                throw new ZipException("Not in GZIP format");
+            }
+            if (end - start < 10) {
+                return -1;
+            }
+            if (pending.get(start + 2) != Deflater.DEFLATED) {
+                throw new ZipException("Unsupported gzip compression method");
+            }
+            int flags = pending.get(start + 3) & 0xff;
+            int i = start + 10;
+            if ((flags & FEXTRA) != 0) {
+                if (end - i < 2) {
+                    return -1;
+                }
+                i += 2 + ((pending.get(i) & 0xff) | (pending.get(i + 1) & 0xff) << 8);
+            }
+            if ((flags & FNAME) != 0) {
+                i = afterZero(i, end);
+            }
+            if ((flags & FCOMMENT) != 0) {
+                i = afterZero(i, end);
+            }
+            if ((flags & FHCRC) != 0) {
+                i += 2;
+            }
+            return i <= end ? i - start : -1;
+        }
+
+        // Index after the zero byte ending a name or comment, or past end if it has not arrived yet
+        private int afterZero(int from, int end) {
+            for (int i = from; i < end; i++) {
+                if (pending.get(i) == 0) {
+                    return i + 1;
+                }
+            }
+            return end + 1;
+        }
+
+        // Adds received bytes after the unconsumed ones, moving those to the front when space runs out
+        private void append(ByteBuffer buffer) {
+            if (pending.capacity() - pending.limit() < buffer.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity(), pending.remaining() + buffer.remaining()));
+                larger.put(pending).flip();
+                pending = larger;
+            }
+            int position = pending.position();
+            pending.position(pending.limit()).limit(pending.capacity());
+            pending.put(buffer);
+            pending.limit(pending.position()).position(position);
+        }
+
+        private void finish() {
+            done = true;
+            pending = ByteBuffer.allocate(0);
+            inflater.end();
+        }
+    }
+}
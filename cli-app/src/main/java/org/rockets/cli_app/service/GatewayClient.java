@@ -0,0 +1,1463 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.format.DataFormatDetector;
+import com.fasterxml.jackson.core.format.DataFormatMatcher;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.rockets.cli_app.components.Attachment;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.IdentityMap;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.components.Participant;
+import org.rockets.cli_app.dto.CalendarDTO;
+import org.rockets.cli_app.dto.MeetingBatchDTO;
+import org.rockets.cli_app.dto.MeetingDTO;
+import org.rockets.cli_app.trace.Span;
+import org.rockets.cli_app.trace.Tracer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+// Shared transport for all service clients: one connection pool, one executor and one ObjectMapper
+// per process instead of one per service instance.
+public class GatewayClient {
+    private static final String DEFAULT_BASE_URL = "http://localhost:8080";
+    private static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int DEFAULT_MAX_THREADS = 8;
+    private static final long DEFAULT_CACHE_TTL_SECONDS = 5;
+    private static final int DEFAULT_CACHE_MAX_ENTRIES = 256;
+    private static final long DEFAULT_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+    // About 3.7 kB of UUIDs in the query string
+    private static final int DEFAULT_LOADER_MAX_BATCH_SIZE = 100;
+    private static final Duration DEFAULT_LOADER_DELAY = Duration.ofMillis(2);
+    // Carries the ID of the record a POST creates. The gateway does not forward it and no backend reads it;
+    // it marks the request for the client, which may retry it because the ID is chosen here (a second try
+    // cannot create a second record) and replayCreate looks the record up when a retry is refused.
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    // Smile is Jackson's binary JSON; it is asked for first and JSON is taken from backends without it
+    public static final String SMILE = "application/x-jackson-smile";
+    private static final String ACCEPT_SMILE = SMILE + ", application/json;q=0.9";
+    // Smaller request bodies are not worth the gzip header and the CPU
+    private static final int MIN_COMPRESSED_BODY = 1024;
+    private static final Pattern ASSOCIATION_PATH = Pattern.compile("/[^/]+/[^/]+/(add|remove)[A-Z][A-Za-z]*/[^/]+");
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper smileMapper;
+    private final Map<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<ObjectReader, ObjectReader> smileReaders = new ConcurrentHashMap<>();
+    private final Map<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+    // Backend route -> whether it takes gzip request bodies, as advertised in its responses (RFC 7694)
+    private final Map<String, Boolean> gzipBodies = new ConcurrentHashMap<>();
+    private volatile boolean binaryWire = true;
+    private volatile boolean coalesceReads = true;
+    // Method, URL and Accept of each cached read waiting for its response -> the callers sharing it
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+    // Collection path -> the loader batching single-record lookups against it
+    private final Map<String, BatchLoader<?>> loaders = new ConcurrentHashMap<>();
+    private volatile int loaderMaxBatchSize = DEFAULT_LOADER_MAX_BATCH_SIZE;
+    private volatile Duration loaderDelay = DEFAULT_LOADER_DELAY;
+    private volatile ResponseCache cache;
+    private volatile ResiliencePolicy resilience = ResiliencePolicy.DEFAULT;
+    private volatile GatewayMetrics metrics;
+    private volatile Tracer tracer;
+    private volatile Outbox outbox;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+    private final LongAdder http1Responses = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheRevalidations = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder queuedWrites = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+    private final LongAdder coalescedReads = new LongAdder();
+
+    private static volatile boolean defaultCreated;
+
+    // Set on the thread a command runs on; see trackQueuedWrites
+    private static final ThreadLocal<LongAdder> COMMAND_QUEUED_WRITES = new ThreadLocal<>();
+
+    // Holder idiom so the client is only built when a service is first used
+    private static class Holder {
+        private static final GatewayClient INSTANCE = createDefault();
+
+        private static GatewayClient createDefault() {
+            // Keep idle connections around long enough to be reused across a scripted run of commands.
+            // The JDK reads this once, when the first HttpClient is built, and it applies to the whole JVM,
+            // so only the application's own client sets it, and only if the user did not.
+            if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+                System.setProperty("jdk.httpclient.keepalive.timeout", "300");
+            }
+            GatewayClient gateway = new GatewayClient(
+                    System.getProperty("cli.gateway.url", DEFAULT_BASE_URL),
+                    Duration.ofMillis(Long.getLong("cli.gateway.connectTimeoutMs", DEFAULT_CONNECT_TIMEOUT.toMillis())),
+                    Duration.ofMillis(Long.getLong("cli.gateway.requestTimeoutMs", DEFAULT_REQUEST_TIMEOUT.toMillis())),
+                    Integer.getInteger("cli.gateway.maxThreads", DEFAULT_MAX_THREADS));
+
+            long ttlSeconds = Long.getLong("cli.cache.ttlSeconds", DEFAULT_CACHE_TTL_SECONDS);
+            if (ttlSeconds > 0) {
+                // On disk by default, next to the outbox: the cache is the replica reads fall back to while
+                // offline, and queued updates take the version they overwrite from it. An empty value keeps
+                // it in memory only.
+                String directory = System.getProperty("cli.cache.dir",
+                        Path.of(System.getProperty("user.home"), ".cli_app", "cache").toString());
+                gateway.enableResponseCache(Duration.ofSeconds(ttlSeconds),
+                        Integer.getInteger("cli.cache.maxEntries", DEFAULT_CACHE_MAX_ENTRIES),
+                        Long.getLong("cli.cache.maxBytes", DEFAULT_CACHE_MAX_BYTES),
+                        directory.isEmpty() ? null : Path.of(directory));
+            }
+
+            ResiliencePolicy defaults = ResiliencePolicy.DEFAULT;
+            gateway.setResiliencePolicy(new ResiliencePolicy(
+                    Integer.getInteger("cli.retry.max", defaults.maxRetries()),
+                    Duration.ofMillis(Long.getLong("cli.retry.baseDelayMs", defaults.baseBackoff().toMillis())),
+                    Duration.ofMillis(Long.getLong("cli.retry.maxDelayMs", defaults.maxBackoff().toMillis())),
+                    Integer.getInteger("cli.circuit.failureThreshold", defaults.failureThreshold()),
+                    Duration.ofMillis(Long.getLong("cli.circuit.openMs", defaults.openDuration().toMillis())),
+                    Duration.ofMillis(Long.getLong("cli.hedge.delayMs", 0))));
+            gateway.setBinaryWire(Boolean.parseBoolean(System.getProperty("cli.wire.smile", "true")));
+            gateway.setCoalesceReads(Boolean.parseBoolean(System.getProperty("cli.gateway.coalesce", "true")));
+            gateway.setLoaderBatching(Integer.getInteger("cli.loader.maxBatchSize", DEFAULT_LOADER_MAX_BATCH_SIZE),
+                    Duration.ofMillis(Long.getLong("cli.loader.delayMs", DEFAULT_LOADER_DELAY.toMillis())));
+
+            if (Boolean.parseBoolean(System.getProperty("cli.outbox.enabled", "true"))) {
+                String file = System.getProperty("cli.outbox.file");
+                gateway.setOutbox(new Outbox(file != null ? Path.of(file)
+                        : Path.of(System.getProperty("user.home"), ".cli_app", "outbox.ndjson"), gateway.getObjectMapper()));
+            }
+            defaultCreated = true;
+            return gateway;
+        }
+    }
+
+    public static GatewayClient getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    // Until untrackQueuedWrites, services built on the current thread count their writes that end up queued in
+    // the outbox instead of applied in the given adder. A command builds its services on its own thread, so
+    // each service takes the adder once, when it is built, and passes it with every write it sends, including
+    // writes sent later from other threads. Callers running several commands at once (batch) can then tell
+    // which of them were only queued.
+    public static void trackQueuedWrites(LongAdder counter) {
+        COMMAND_QUEUED_WRITES.set(counter);
+    }
+
+    public static void untrackQueuedWrites() {
+        COMMAND_QUEUED_WRITES.remove();
+    }
+
+    // The adder set by trackQueuedWrites on this thread, null when nothing is tracking writes
+    public static LongAdder queuedWriteCounter() {
+        return COMMAND_QUEUED_WRITES.get();
+    }
+
+    // Writes the shared client has queued so far, without building it if no command has used it yet
+    public static long getDefaultQueuedWriteCount() {
+        return defaultCreated ? getInstance().getQueuedWriteCount() : 0;
+    }
+
+    public GatewayClient(String baseUrl) {
+        this(baseUrl, DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, DEFAULT_MAX_THREADS);
+    }
+
+    public GatewayClient(String baseUrl, Duration connectTimeout, Duration requestTimeout, int maxThreads) {
+        this.baseUrl = baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.executor = newBoundedExecutor(maxThreads);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+        this.objectMapper = newMapper(new ObjectMapper());
+        this.smileMapper = newMapper(new ObjectMapper(new SmileFactory()));
+
+        registerCodecs();
+    }
+
+    private static ObjectMapper newMapper(ObjectMapper mapper) {
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .registerModule(IdentityMap.module());
+        // Blackbird binds creators, getters and setters through generated lambdas instead of reflection.
+        // It is registered last so it optimizes the bean deserializers before IdentityMap wraps them.
+        // A native image has no runtime class definition to generate them with, so it keeps reflection.
+        if (System.getProperty("org.graalvm.nativeimage.imagecode") == null
+                && Boolean.parseBoolean(System.getProperty("cli.jackson.blackbird", "true"))) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    // Builds (and caches) readers and writers for every type the services exchange with the gateway,
+    // so the first request of a command does not pay for Jackson's introspection.
+    private void registerCodecs() {
+        for (Class<?> type : List.of(Meeting.class, Calendar.class, Participant.class, Attachment.class)) {
+            reader(type);
+            listReader(type);
+            writer(type);
+        }
+        writer(MeetingDTO.class);
+        writer(MeetingBatchDTO.class);
+        writer(CalendarDTO.class);
+        writer(objectMapper.getTypeFactory().constructCollectionType(List.class, String.class));
+    }
+
+    private static ExecutorService newBoundedExecutor(int maxThreads) {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxThreads * 64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "gateway-client-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    // Caches GET responses sent through sendCached; a null directory keeps the cache in memory only
+    public void enableResponseCache(Duration ttl, int maxEntries, long maxBytes, Path directory) {
+        this.cache = new ResponseCache(ttl, maxEntries, maxBytes, directory, objectMapper);
+    }
+
+    // Replaces the retry, circuit breaker and hedging settings; circuits start out closed again
+    public void setResiliencePolicy(ResiliencePolicy policy) {
+        this.resilience = policy;
+        breakers.clear();
+    }
+
+    public ResiliencePolicy getResiliencePolicy() {
+        return resilience;
+    }
+
+    // Records per-endpoint metrics for every request until set to null
+    public void setMetrics(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public GatewayMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Sends a W3C traceparent header with every request and records a client span for it until set to null
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public Tracer getTracer() {
+        return tracer;
+    }
+
+    // Queues writes that cannot reach the gateway instead of failing them; null sends every write directly
+    public void setOutbox(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    // Whether decoded reads ask for Smile before JSON; off sends Accept: application/json only
+    public void setBinaryWire(boolean binaryWire) {
+        this.binaryWire = binaryWire;
+    }
+
+    public boolean isBinaryWire() {
+        return binaryWire;
+    }
+
+    // Whether concurrent identical cached reads share one request; off sends each of them separately
+    public void setCoalesceReads(boolean coalesceReads) {
+        this.coalesceReads = coalesceReads;
+    }
+
+    public boolean isCoalesceReads() {
+        return coalesceReads;
+    }
+
+    // How many IDs a loader sends in one ?ids= request at most, and how long it waits for more after the first
+    public void setLoaderBatching(int maxBatchSize, Duration delay) {
+        this.loaderMaxBatchSize = maxBatchSize;
+        this.loaderDelay = delay;
+        loaders.values().forEach(loader -> loader.configure(maxBatchSize, delay));
+    }
+
+    // Shared loader for single records of a collection, e.g. loader("/meetings", Meeting.class, Meeting::getId).
+    // Lookups from every service using this client within one window go out as one ?ids= read. A lone ID
+    // is read through the response cache as before. A combination of IDs is unlikely to be asked for
+    // again, so it is read uncached and each record is stored as if it had been looked up on its own.
+    // It is read as a tree first so the version of each record is taken from what the gateway sent.
+    @SuppressWarnings("unchecked")
+    public <T> BatchLoader<T> loader(String path, Class<T> type, Function<T, String> idOf) {
+        return (BatchLoader<T>) loaders.computeIfAbsent(path, ignored -> new BatchLoader<>(type.getSimpleName(), new BatchLoader.Source<T>() {
+            @Override
+            public CompletableFuture<List<T>> loadAll(List<String> ids) {
+                HttpRequest request = newRequest(withIds(path, ids)).GET().build();
+                if (ids.size() == 1) {
+                    return sendCachedAsync(request, listReader(type));
+                }
+                return GatewayClient.this.<JsonNode>sendAsync(() -> request, reader(JsonNode.class)).thenApply(tree -> {
+                    recordVersions(path, tree);
+                    try {
+                        List<T> records = listReader(type).readValue(tree);
+                        cacheEach(path, type, idOf, records);
+                        return records;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+
+            @Override
+            public T cached(String id) {
+                return cachedRecord(path, type, id);
+            }
+
+            @Override
+            public String idOf(T record) {
+                return idOf.apply(record);
+            }
+
+            @Override
+            public T copy(T record) {
+                try {
+                    return reader(type).readValue(writer(type).writeValueAsBytes(record));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }, loaderMaxBatchSize, loaderDelay, executor));
+    }
+
+    private <T> void cacheEach(String path, Class<T> type, Function<T, String> idOf, List<T> records) {
+        ResponseCache responseCache = cache;
+        if (responseCache == null) {
+            return;
+        }
+        ObjectWriter listWriter = writer(objectMapper.getTypeFactory().constructCollectionType(List.class, type));
+        for (T record : records) {
+            try {
+                responseCache.put(withIds(path, List.of(idOf.apply(record))), listWriter.writeValueAsString(List.of(record)), null, null);
+            } catch (IOException e) {
+                // Not cached; the next lookup of this record goes to the gateway
+            }
+        }
+    }
+
+    private <T> T cachedRecord(String path, Class<T> type, String id) {
+        ResponseCache responseCache = cache;
+        ResponseCache.Entry entry = responseCache != null ? responseCache.get(withIds(path, List.of(id))) : null;
+        if (entry == null || !entry.isFresh(responseCache.getTtl())) {
+            return null;
+        }
+        try {
+            List<T> records = listReader(type).readValue(entry.getBody());
+            if (records.isEmpty()) {
+                return null;
+            }
+            cacheHits.increment();
+            return records.get(0);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Accept header for responses the client decodes itself rather than caching as text
+    public String acceptHeader() {
+        return binaryWire ? ACCEPT_SMILE : "application/json";
+    }
+
+    // Parser over a response body in whichever format the backend answered with, JSON unless it is Smile
+    public JsonParser createParser(InputStream body) throws IOException {
+        DataFormatMatcher match = new DataFormatDetector(objectMapper.getFactory(), smileMapper.getFactory()).findFormat(body);
+        return match.hasMatch() ? match.createParserWithMatch() : objectMapper.getFactory().createParser(match.getDataStream());
+    }
+
+    public ResponseCache getResponseCache() {
+        return cache;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public ObjectReader reader(Class<?> type) {
+        return reader(objectMapper.constructType(type));
+    }
+
+    public ObjectReader listReader(Class<?> elementType) {
+        return reader(objectMapper.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
+
+    public ObjectReader reader(JavaType type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    public ObjectWriter writer(Class<?> type) {
+        return writer(objectMapper.constructType(type));
+    }
+
+    public ObjectWriter writer(JavaType type) {
+        return writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    // Request builder against the gateway with the default per-request timeout applied
+    public HttpRequest.Builder newRequest(String path) {
+        return newRequest(path, requestTimeout);
+    }
+
+    public HttpRequest.Builder newRequest(String path, Duration timeout) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Accept-Encoding", Compression.GZIP);
+    }
+
+    // Request builder for a create whose record ID is chosen by the client, which is what makes it safe to retry
+    public HttpRequest.Builder newCreateRequest(String path, String id) {
+        HttpRequest.Builder builder = newRequest(path);
+        return id != null ? builder.header(IDEMPOTENCY_KEY, id) : builder;
+    }
+
+    // Collection path filtered to the given IDs with one ?ids= request, duplicates removed
+    public static String withIds(String path, Collection<String> ids) {
+        StringJoiner query = new StringJoiner(",", path + "?ids=", "");
+        for (String id : new LinkedHashSet<>(ids)) {
+            query.add(URLEncoder.encode(id, StandardCharsets.UTF_8));
+        }
+        return query.toString();
+    }
+
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        return send(request, bodyHandler, null);
+    }
+
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler, LongAdder queuedWrites)
+            throws IOException, InterruptedException {
+        return await(sendAsync(request, bodyHandler, queuedWrites));
+    }
+
+    // Blocking sendAsync(RequestSupplier, ObjectReader): the body is bound as it streams in, never held as a String
+    public <T> T send(HttpRequest request, ObjectReader reader) throws IOException, InterruptedException {
+        return send(request, reader, null);
+    }
+
+    public <T> T send(HttpRequest request, ObjectReader reader, LongAdder queuedWrites) throws IOException, InterruptedException {
+        return await(sendAsync(() -> request, reader, queuedWrites));
+    }
+
+    static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof UncheckedIOException unchecked) {
+                // A body that could not be decoded
+                throw unchecked.getCause();
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    // Read-through GET: served from the response cache while fresh, revalidated with the stored
+    // validators once stale, and fetched normally when caching is disabled. When the gateway or the
+    // backend is unreachable, the last copy read is served however old it is.
+    public String sendCached(HttpRequest request) throws IOException, InterruptedException {
+        ResponseCache responseCache = cache;
+        if (responseCache == null) {
+            return send(request, HttpResponse.BodyHandlers.ofString()).body();
+        }
+
+        String key = cacheKey(request);
+        ResponseCache.Entry cached = responseCache.get(key);
+        if (cached != null && cached.isFresh(responseCache.getTtl())) {
+            cacheHits.increment();
+            return cached.getBody();
+        }
+
+        HttpResponse<String> response;
+        try {
+            response = send(conditionalRequest(request, cached), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            if (cached == null) {
+                throw e;
+            }
+            staleReads.increment();
+            return cached.getBody();
+        }
+        if (cached != null && isUnavailable(null, response)) {
+            staleReads.increment();
+            return cached.getBody();
+        }
+        return storeOrReplay(responseCache, key, cached, response);
+    }
+
+    // Non-blocking sendCached, for callers that issue several lookups at once
+    public CompletableFuture<String> sendCachedAsync(HttpRequest request) {
+        ResponseCache responseCache = cache;
+        if (responseCache == null) {
+            return sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(HttpResponse::body);
+        }
+
+        String key = cacheKey(request);
+        ResponseCache.Entry cached = responseCache.get(key);
+        if (cached != null && cached.isFresh(responseCache.getTtl())) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(cached.getBody());
+        }
+
+        return sendAsync(conditionalRequest(request, cached), HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (cached != null && isUnavailable(error, response)) {
+                        staleReads.increment();
+                        return cached.getBody();
+                    }
+                    if (error != null) {
+                        throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                    }
+                    return storeOrReplay(responseCache, key, cached, response);
+                });
+    }
+
+    // Cached read bound straight from the response stream (or the cached copy) without a String of the body
+    public <T> T sendCached(HttpRequest request, ObjectReader reader) throws IOException, InterruptedException {
+        try (InputStream body = openCached(request)) {
+            return reader.readValue(body);
+        }
+    }
+
+    public <T> CompletableFuture<T> sendCachedAsync(HttpRequest request, ObjectReader reader) {
+        return openCachedAsync(request).thenApplyAsync(body -> decode(body, reader), executor);
+    }
+
+    private String storeOrReplay(ResponseCache responseCache, String key, ResponseCache.Entry cached, HttpResponse<String> response) {
+        if (response.statusCode() == 304 && cached != null) {
+            cacheRevalidations.increment();
+            responseCache.touch(cached);
+            return cached.getBody();
+        }
+
+        cacheMisses.increment();
+        if (response.statusCode() / 100 == 2) {
+            responseCache.put(key, response.body(),
+                    response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null));
+            recordVersions(response.request().uri().getRawPath(), response.body().getBytes(StandardCharsets.UTF_8));
+        }
+        return response.body();
+    }
+
+    // Streaming counterpart of sendCached for responses that are parsed incrementally. Fresh or revalidated
+    // entries are replayed from memory; otherwise the live body is returned and copied into the cache
+    // once it has been read to the end. Identical reads made at the same time share one request.
+    // Non-2xx responses fail with an IOException.
+    public InputStream openCached(HttpRequest request) throws IOException, InterruptedException {
+        return await(openCachedAsync(request));
+    }
+
+    public CompletableFuture<InputStream> openCachedAsync(HttpRequest request) {
+        ResponseCache responseCache = cache;
+        String key = cacheKey(request);
+        ResponseCache.Entry cached = responseCache != null ? responseCache.get(key) : null;
+        if (cached != null && cached.isFresh(responseCache.getTtl())) {
+            cacheHits.increment();
+            return CompletableFuture.completedFuture(replay(cached));
+        }
+        if (!coalesceReads || isWrite(request)) {
+            return fetch(request, responseCache, key, cached);
+        }
+
+        // Identical reads already on the wire are joined rather than sent again. The leader streams its body
+        // as usual unless someone joined before the response arrived; then it reads the body into an
+        // immutable byte array that every caller decodes on its own, since the records it binds are mutable.
+        String flightKey = request.method() + " " + request.uri() + " " + request.headers().firstValue("Accept").orElse("");
+        Flight created = new Flight();
+        Flight flight = inFlight.compute(flightKey, (ignored, running) -> {
+            if (running == null) {
+                return created;
+            }
+            running.joined++;
+            return running;
+        });
+        if (flight != created) {
+            coalescedReads.increment();
+            return flight.body.thenApply(ByteArrayInputStream::new);
+        }
+
+        return fetch(request, responseCache, key, cached).handle((body, error) -> {
+            // Callers arriving from here on send their own request, so the number that joined is final
+            inFlight.remove(flightKey, flight);
+            if (error != null) {
+                flight.body.completeExceptionally(error);
+                return CompletableFuture.<InputStream>failedFuture(error);
+            }
+            if (flight.joined == 0) {
+                return CompletableFuture.completedFuture(body);
+            }
+            CompletableFuture<byte[]> shared = CompletableFuture.supplyAsync(() -> readAllBytes(body), executor);
+            shared.whenComplete((bytes, readError) -> {
+                if (readError != null) {
+                    flight.body.completeExceptionally(readError);
+                } else {
+                    flight.body.complete(bytes);
+                }
+            });
+            return shared.<InputStream>thenApply(ByteArrayInputStream::new);
+        }).thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<InputStream> fetch(HttpRequest request, ResponseCache responseCache, String key, ResponseCache.Entry cached) {
+        if (responseCache == null) {
+            return sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                    .thenApply(response -> checkStatus(request, response).body());
+        }
+
+        return sendAsync(conditionalRequest(request, cached), HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, error) -> {
+                    if (cached != null && isUnavailable(error, response)) {
+                        discard(response);
+                        staleReads.increment();
+                        return replay(cached);
+                    }
+                    if (error != null) {
+                        throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                    }
+                    if (response.statusCode() == 304 && cached != null) {
+                        discard(response);
+                        cacheRevalidations.increment();
+                        responseCache.touch(cached);
+                        return replay(cached);
+                    }
+
+                    cacheMisses.increment();
+                    checkStatus(request, response);
+                    if (!isJson(response)) {
+                        // The cache keeps text; a binary body is streamed once and not stored, only the
+                        // versions of the records in it are
+                        return new CachingInputStream(response.body(), responseCache.getMaxBytes(),
+                                body -> recordVersions(request.uri().getRawPath(), body));
+                    }
+                    String etag = response.headers().firstValue("ETag").orElse(null);
+                    String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+                    return new CachingInputStream(response.body(), responseCache.getMaxBytes(), body -> {
+                        responseCache.put(key, new String(body, StandardCharsets.UTF_8), etag, lastModified);
+                        recordVersions(request.uri().getRawPath(), body);
+                    });
+                });
+    }
+
+    private static byte[] readAllBytes(InputStream body) {
+        try (InputStream in = body) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static InputStream replay(ResponseCache.Entry cached) {
+        return new ByteArrayInputStream(cached.getBody().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isJson(HttpResponse<?> response) {
+        return !response.headers().firstValue("Content-Type").map(type -> type.startsWith(SMILE)).orElse(false);
+    }
+
+    private static HttpRequest conditionalRequest(HttpRequest request, ResponseCache.Entry cached) {
+        if (cached == null) {
+            return request;
+        }
+        HttpRequest.Builder conditional = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (cached.getEtag() != null) {
+            conditional.header("If-None-Match", cached.getEtag());
+        }
+        if (cached.getLastModified() != null) {
+            conditional.header("If-Modified-Since", cached.getLastModified());
+        }
+        return conditional.build();
+    }
+
+    private static HttpResponse<InputStream> checkStatus(HttpRequest request, HttpResponse<InputStream> response) {
+        if (response.statusCode() / 100 != 2) {
+            discard(response);
+            throw new CompletionException(new IOException(request.method() + " " + request.uri().getPath()
+                    + " returned HTTP " + response.statusCode()));
+        }
+        return response;
+    }
+
+    private static String cacheKey(HttpRequest request) {
+        String query = request.uri().getRawQuery();
+        return query == null ? request.uri().getRawPath() : request.uri().getRawPath() + "?" + query;
+    }
+
+    private void invalidateCacheOnWrite(HttpRequest request) {
+        ResponseCache responseCache = cache;
+        if (responseCache != null && isWrite(request)) {
+            responseCache.invalidateWritesTo(request.uri().getRawPath());
+            String record = recordOf(request.uri().getRawPath());
+            if (record != null) {
+                responseCache.removeVersion(record);
+            }
+        }
+    }
+
+    // The association endpoints (e.g. GET /meetings/{id}/addParticipant/{pid}) modify data despite being GETs
+    private static boolean isWrite(HttpRequest request) {
+        return !request.method().equals("GET") || ASSOCIATION_PATH.matcher(request.uri().getRawPath()).matches();
+    }
+
+    private static boolean isRead(HttpRequest request) {
+        return !isWrite(request);
+    }
+
+    // Every request goes through here. Idempotent requests (plain GETs and creates carrying an
+    // Idempotency-Key) are retried with backoff on connection failures, timeouts and 429/502/503/504;
+    // each backend route has a circuit breaker; slow GETs are hedged when the policy enables it.
+    // Writes that still cannot reach the backend after that are queued in the outbox, if there is one, and
+    // counted in queuedWrites when it is not null.
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return sendAsync(request, bodyHandler, null);
+    }
+
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                            LongAdder queuedWrites) {
+        Outbox changes = outbox;
+        if (changes == null || isRead(request)) {
+            return deliver(request, bodyHandler);
+        }
+
+        return attempt(request, bodyHandler).handle((response, error) -> {
+            if (isUnavailable(error, response)) {
+                CompletableFuture<HttpResponse<T>> queued = queue(changes, request, bodyHandler, queuedWrites);
+                if (queued != null) {
+                    discard(response);
+                    return queued;
+                }
+            }
+            invalidateCacheOnWrite(request);
+            return error != null ? CompletableFuture.<HttpResponse<T>>failedFuture(unwrap(error)) : CompletableFuture.completedFuture(response);
+        }).thenCompose(Function.identity());
+    }
+
+    // Sends the request under the resilience policy without ever queueing it, as the outbox sync does
+    public <T> CompletableFuture<HttpResponse<T>> deliver(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return attempt(request, bodyHandler).whenComplete((response, error) -> invalidateCacheOnWrite(request));
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> attempt(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        ResiliencePolicy policy = resilience;
+        int maxRetries = isRead(request) || request.headers().firstValue(IDEMPOTENCY_KEY).isPresent() ? policy.maxRetries() : 0;
+        return attempt(request, bodyHandler, policy, breakerFor(request, policy), maxRetries, 0);
+    }
+
+    // Null when the change could not be written either, in which case the original failure stands.
+    // The cached copy of the record is left alone: it is the replica reads fall back to while offline.
+    private <T> CompletableFuture<HttpResponse<T>> queue(Outbox changes, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                         LongAdder counter) {
+        try {
+            Outbox.Change change = changes.append(request, baseVersion(request));
+            queuedWrites.increment();
+            if (counter != null) {
+                counter.increment();
+            }
+            return QueuedResponse.of(request, change, bodyHandler);
+        } catch (IOException e) {
+            System.err.println("Could not queue " + request.method() + " " + request.uri().getPath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Version of the record a write modifies as it was last read, by itself, in a batch or in a listing,
+    // e.g. of meetings/{id} for PUT /meetings/{id}. Creates and records that were never read have none.
+    private String baseVersion(HttpRequest request) {
+        ResponseCache responseCache = cache;
+        String record = recordOf(request.uri().getRawPath());
+        if (responseCache == null || record == null || request.headers().firstValue(IDEMPOTENCY_KEY).isPresent()) {
+            return null;
+        }
+        return responseCache.getVersion(record);
+    }
+
+    // Remembers the version of every record in a read of a whole collection, filtered or not
+    private void recordVersions(String path, byte[] body) {
+        try (JsonParser parser = createParser(new ByteArrayInputStream(body))) {
+            recordVersions(path, objectMapper.readTree(parser));
+        } catch (IOException e) {
+            // Not a listing of records; writes to them are replayed without a version check
+        }
+    }
+
+    private void recordVersions(String path, JsonNode records) {
+        ResponseCache responseCache = cache;
+        String[] segments = path.split("/");
+        if (responseCache == null || segments.length != 2 || records == null || !records.isArray()) {
+            return;
+        }
+        for (JsonNode record : records) {
+            String id = record.path("id").asText(null);
+            if (id != null) {
+                responseCache.putVersion(segments[1] + "/" + id, recordVersion(record));
+            }
+        }
+    }
+
+    // Version of a record as the gateway returned it: the hash of its JSON, however the response was encoded
+    public String recordVersion(JsonNode record) {
+        try {
+            return Outbox.version(objectMapper.writeValueAsString(record));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Version of the record with the given ID in a ?ids= lookup's array, or null if the array does not have it
+    public String recordVersion(String body, String id) {
+        try {
+            JsonNode records = objectMapper.readTree(body);
+            if (records != null && records.isArray()) {
+                for (JsonNode record : records) {
+                    if (id.equals(record.path("id").asText(null))) {
+                        return recordVersion(record);
+                    }
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // The record a path points at, e.g. "meetings/{id}" for /meetings/{id}/addParticipant/{pid}, null for
+    // collection paths
+    public static String recordOf(String path) {
+        String[] segments = path.split("/");
+        if (segments.length < 3 || segments[2].isEmpty()) {
+            return null;
+        }
+        return segments[1] + "/" + segments[2];
+    }
+
+    // Cache key of the by-ID lookup for the record a path points at, null for collection paths
+    public static String recordKey(String path) {
+        String[] segments = path.split("/");
+        if (segments.length < 3 || segments[2].isEmpty()) {
+            return null;
+        }
+        return "/" + segments[1] + "?ids=" + segments[2];
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> attempt(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                           ResiliencePolicy policy, CircuitBreaker breaker,
+                                                           int maxRetries, int attempt) {
+        if (!breaker.tryAcquire()) {
+            rejections.increment();
+            return CompletableFuture.failedFuture(new CircuitOpenException(breaker.getRoute()));
+        }
+
+        CompletableFuture<HttpResponse<T>> call = attempt == 0 && policy.isHedging() && isRead(request)
+                ? hedged(request, bodyHandler, policy.hedgeDelay(), breaker)
+                : reported(exchange(request, bodyHandler), breaker);
+
+        return call.handle((response, error) -> {
+            if (attempt < maxRetries && isRetriable(error, response)) {
+                discard(response);
+                retries.increment();
+                GatewayMetrics recorder = metrics;
+                if (recorder != null) {
+                    recorder.recordRetry(request);
+                }
+                Executor delayed = CompletableFuture.delayedExecutor(policy.backoff(attempt).toMillis(), TimeUnit.MILLISECONDS, executor);
+                return CompletableFuture.runAsync(() -> {
+                }, delayed).thenCompose(ignored -> attempt(request, bodyHandler, policy, breaker, maxRetries, attempt + 1));
+            }
+            if (attempt > 0 && (error != null || response.statusCode() / 100 != 2)
+                    && request.headers().firstValue(IDEMPOTENCY_KEY).isPresent()) {
+                return replayCreate(request, bodyHandler, response, error);
+            }
+            return error != null ? CompletableFuture.<HttpResponse<T>>failedFuture(unwrap(error)) : CompletableFuture.completedFuture(response);
+        }).thenCompose(Function.identity());
+    }
+
+    // A retried create can fail only because an earlier try that timed out did create the record.
+    // The key is the record's ID, so if a by-ID lookup (the only one every backend has) finds the record,
+    // the create is reported as done with the record as its body.
+    private <T> CompletableFuture<HttpResponse<T>> replayCreate(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                                HttpResponse<T> response, Throwable error) {
+        String key = request.headers().firstValue(IDEMPOTENCY_KEY).orElseThrow();
+        HttpRequest lookup = newRequest(withIds(route(request), List.of(key)))
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        return exchange(lookup, HttpResponse.BodyHandlers.ofByteArray()).handle((found, lookupError) -> {
+            byte[] record = lookupError == null && found.statusCode() / 100 == 2 ? createdRecord(found.body(), key) : null;
+            if (record == null) {
+                return error != null ? CompletableFuture.<HttpResponse<T>>failedFuture(unwrap(error)) : CompletableFuture.completedFuture(response);
+            }
+            discard(response);
+            HttpHeaders headers = HttpHeaders.of(Map.of("Content-Type", List.of("application/json")), (name, value) -> true);
+            return StoredResponse.of(request, 200, headers, record, bodyHandler);
+        }).thenCompose(Function.identity());
+    }
+
+    // The record with the given ID from a ?ids= lookup's array, or null if the array does not have it
+    private byte[] createdRecord(byte[] body, String id) {
+        try {
+            JsonNode records = objectMapper.readTree(body);
+            if (records == null || !records.isArray()) {
+                return null;
+            }
+            for (JsonNode record : records) {
+                if (id.equals(record.path("id").asText(null))) {
+                    return objectMapper.writeValueAsBytes(record);
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // Tells the breaker how the request that took its permit went
+    private <T> CompletableFuture<HttpResponse<T>> reported(CompletableFuture<HttpResponse<T>> call, CircuitBreaker breaker) {
+        return call.whenComplete((response, error) -> {
+            if (error != null || isBackendFailure(response.statusCode())) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        });
+    }
+
+    // Sends a second copy if the first has not answered within the delay and uses whichever answers with a
+    // 2xx first. A copy that fails waits for the other, so the call fails only when both did, or when the
+    // first failed before the second was sent. The second copy takes its own permit from the breaker, so a
+    // half-open circuit still lets a single probe through, and each copy reports its own outcome.
+    private <T> CompletableFuture<HttpResponse<T>> hedged(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                                                          Duration delay, CircuitBreaker breaker) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        CompletableFuture<HttpResponse<T>> primary = reported(exchange(request, bodyHandler), breaker);
+        CompletableFuture<HttpResponse<T>> hedge = CompletableFuture
+                .runAsync(() -> {
+                }, CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS, executor))
+                .thenCompose(ignored -> {
+                    if (primary.isDone() || !breaker.tryAcquire()) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    hedges.increment();
+                    GatewayMetrics recorder = metrics;
+                    if (recorder != null) {
+                        recorder.recordHedge(request);
+                    }
+                    return reported(exchange(request, bodyHandler), breaker);
+                });
+
+        for (CompletableFuture<HttpResponse<T>> copy : List.of(primary, hedge)) {
+            copy.thenAccept(response -> {
+                if (response != null && response.statusCode() / 100 == 2 && !result.complete(response)) {
+                    discard(response);
+                }
+            });
+        }
+        CompletableFuture.allOf(primary, hedge).whenComplete((ignored, error) -> {
+            // Neither copy answered with a 2xx: the first copy's answer stands, else the second's
+            HttpResponse<T> first = primary.isCompletedExceptionally() ? null : primary.join();
+            HttpResponse<T> second = hedge.isCompletedExceptionally() ? null : hedge.join();
+            if (first != null || second != null) {
+                result.complete(first != null ? first : second);
+            } else {
+                result.completeExceptionally(unwrap(error));
+            }
+            for (HttpResponse<T> response : Arrays.asList(first, second)) {
+                if (response != null && response.statusCode() / 100 != 2 && response != result.getNow(null)) {
+                    discard(response);
+                }
+            }
+        });
+        return result;
+    }
+
+    // One attempt, with the body gzipped when the backend takes that. A backend that answers a compressed
+    // body with 415 Unsupported Media Type gets it again uncompressed and is not sent gzip again.
+    private <T> CompletableFuture<HttpResponse<T>> exchange(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpRequest compressed = compressed(request);
+        if (compressed == null) {
+            return transmit(request, bodyHandler);
+        }
+        return transmit(compressed, bodyHandler).thenCompose(response -> {
+            if (response.statusCode() != 415) {
+                return CompletableFuture.completedFuture(response);
+            }
+            gzipBodies.put(route(request), false);
+            discard(response);
+            return transmit(request, bodyHandler);
+        });
+    }
+
+    // Null when the body goes out as it is
+    private HttpRequest compressed(HttpRequest request) {
+        HttpRequest.BodyPublisher publisher = request.bodyPublisher().orElse(null);
+        if (publisher == null || publisher.contentLength() < MIN_COMPRESSED_BODY
+                || !gzipBodies.getOrDefault(route(request), false)
+                || request.headers().firstValue("Content-Encoding").isPresent()) {
+            return null;
+        }
+        try {
+            byte[] body = Compression.bodyOf(request);
+            return HttpRequest.newBuilder(request, (name, value) -> true)
+                    .header("Content-Encoding", Compression.GZIP)
+                    .method(request.method(), HttpRequest.BodyPublishers.ofByteArray(Compression.gzip(body)))
+                    .build();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // One request on the wire. Compressed responses are inflated before the caller's handler sees them,
+    // after the bytes received have been counted.
+    private <T> CompletableFuture<HttpResponse<T>> transmit(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        requests.increment();
+        GatewayMetrics recorder = metrics;
+        GatewayMetrics.Endpoint endpoint = recorder != null ? recorder.endpoint(request) : null;
+        Span span = startSpan(request);
+        HttpRequest sent = span != null
+                ? HttpRequest.newBuilder(request, (name, value) -> !name.equalsIgnoreCase("traceparent"))
+                        .header("traceparent", span.traceparent())
+                        .build()
+                : request;
+        long start = System.nanoTime();
+
+        HttpResponse.BodyHandler<T> decoding = Compression.decoding(bodyHandler);
+        return httpClient.sendAsync(sent, endpoint != null ? countingBytes(decoding, recorder, endpoint) : decoding)
+                .whenComplete((response, error) -> {
+                    if (error != null) {
+                        failures.increment();
+                    } else {
+                        recordVersion(response);
+                        if (Compression.acceptsGzip(response.headers())) {
+                            // A backend that turned gzip down before keeps getting plain bodies
+                            gzipBodies.putIfAbsent(route(request), true);
+                        }
+                    }
+                    if (endpoint != null) {
+                        recorder.record(endpoint, request, response, error, System.nanoTime() - start);
+                    }
+                    if (span != null) {
+                        endSpan(span, response, error);
+                    }
+                });
+    }
+
+    private Span startSpan(HttpRequest request) {
+        Tracer activeTracer = tracer;
+        if (activeTracer == null) {
+            return null;
+        }
+        return activeTracer.startSpan(request.method() + " " + GatewayMetrics.route(request), Span.Kind.CLIENT)
+                .setAttribute("http.request.method", request.method())
+                .setAttribute("http.route", GatewayMetrics.route(request))
+                .setAttribute("url.full", request.uri().toString());
+    }
+
+    private static void endSpan(Span span, HttpResponse<?> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = unwrap(error);
+            span.setAttribute("error.type", cause.getClass().getName())
+                    .setError(cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+        } else {
+            span.setAttribute("http.response.status_code", response.statusCode());
+            if (response.statusCode() >= 500) {
+                span.setError("HTTP " + response.statusCode());
+            }
+        }
+        span.end();
+    }
+
+    // Counts response bytes as the body arrives, so streamed bodies are measured exactly as well
+    private static <T> HttpResponse.BodyHandler<T> countingBytes(HttpResponse.BodyHandler<T> bodyHandler,
+                                                                 GatewayMetrics recorder, GatewayMetrics.Endpoint endpoint) {
+        return responseInfo -> {
+            HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(responseInfo);
+            return new HttpResponse.BodySubscriber<>() {
+                @Override
+                public CompletionStage<T> getBody() {
+                    return subscriber.getBody();
+                }
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                }
+
+                @Override
+                public void onNext(List<ByteBuffer> buffers) {
+                    long bytes = 0;
+                    for (ByteBuffer buffer : buffers) {
+                        bytes += buffer.remaining();
+                    }
+                    recorder.recordBytesReceived(endpoint, bytes);
+                    subscriber.onNext(buffers);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    subscriber.onError(throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            };
+        };
+    }
+
+    private CircuitBreaker breakerFor(HttpRequest request, ResiliencePolicy policy) {
+        String route = route(request);
+        return breakers.computeIfAbsent(route,
+                ignored -> new CircuitBreaker(route, policy.failureThreshold(), policy.openDuration()));
+    }
+
+    // The first path segment names the backend service behind the gateway
+    private static String route(HttpRequest request) {
+        String path = request.uri().getRawPath();
+        int end = path.indexOf('/', 1);
+        return end < 0 ? path : path.substring(0, end);
+    }
+
+    private static boolean isBackendFailure(int status) {
+        return status == 429 || status / 100 == 5;
+    }
+
+    // The gateway could not be reached or could not reach the backend, as opposed to rejecting the request
+    private static boolean isUnavailable(Throwable error, HttpResponse<?> response) {
+        if (error != null) {
+            return unwrap(error) instanceof IOException;
+        }
+        if (response == null) {
+            return true;
+        }
+        int status = response.statusCode();
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private static boolean isRetriable(Throwable error, HttpResponse<?> response) {
+        if (error != null) {
+            Throwable cause = unwrap(error);
+            return cause instanceof IOException && !(cause instanceof CircuitOpenException);
+        }
+        int status = response.statusCode();
+        return status == 429 || status == 502 || status == 503 || status == 504;
+    }
+
+    private static void discard(HttpResponse<?> response) {
+        if (response != null && response.body() instanceof InputStream body) {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // Nothing left to read from an abandoned response
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    // Sends the request without blocking and decodes the body straight from the response stream
+    // on the shared executor, so no intermediate String copy of the payload is made. The response is
+    // asked for as Smile and decoded as whatever the Content-Type says it is.
+    public <T> CompletableFuture<T> sendAsync(RequestSupplier requestSupplier, ObjectReader reader) {
+        return sendAsync(requestSupplier, reader, null);
+    }
+
+    public <T> CompletableFuture<T> sendAsync(RequestSupplier requestSupplier, ObjectReader reader, LongAdder queuedWrites) {
+        HttpRequest request;
+        try {
+            request = requestSupplier.get();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (request.headers().firstValue("Accept").isEmpty()) {
+            request = HttpRequest.newBuilder(request, (name, value) -> true).header("Accept", acceptHeader()).build();
+        }
+
+        return sendAsync(request, HttpResponse.BodyHandlers.ofInputStream(), queuedWrites)
+                .thenApplyAsync(response -> decode(response.body(), isJson(response) ? reader : smileReader(reader)), executor);
+    }
+
+    // The same reader (type, views, features) over the Smile factory
+    private ObjectReader smileReader(ObjectReader reader) {
+        // Readers carrying an IdentityMap are made per read, so caching them would only grow the map
+        if (reader.getConfig().getAttributes().getAttribute(IdentityMap.class) != null) {
+            return reader.with(smileMapper.getFactory());
+        }
+        return smileReaders.computeIfAbsent(reader, json -> json.with(smileMapper.getFactory()));
+    }
+
+    // Sends all requests concurrently with at most maxInFlight outstanding, so a long run of small calls
+    // overlaps on the shared connections instead of costing one round trip each. Completes once every
+    // request has finished; non-2xx responses count as failures and are reported together.
+    public CompletableFuture<Void> sendAllAsync(List<HttpRequest> requests, int maxInFlight) {
+        return sendAllAsync(requests, maxInFlight, null);
+    }
+
+    public CompletableFuture<Void> sendAllAsync(List<HttpRequest> requests, int maxInFlight, LongAdder queuedWrites) {
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Queue<HttpRequest> pending = new ConcurrentLinkedQueue<>(requests);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(requests.size());
+        Queue<String> errors = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+
+        // Tops up to maxInFlight in a loop. Requests can complete inside sendAsync (an open circuit, a queued
+        // write), so a completion only asks the loop for another pass; starting the next request from the
+        // callback itself would recurse once per request and overflow the stack on long lists.
+        AtomicInteger passes = new AtomicInteger();
+        Runnable sendMore = new Runnable() {
+            @Override
+            public void run() {
+                if (passes.getAndIncrement() != 0) {
+                    return;
+                }
+                do {
+                    while (inFlight.get() < maxInFlight && !pending.isEmpty()) {
+                        HttpRequest request = pending.poll();
+                        if (request == null) {
+                            break;
+                        }
+                        inFlight.incrementAndGet();
+                        sendAsync(request, HttpResponse.BodyHandlers.discarding(), queuedWrites).whenComplete((response, error) -> {
+                            if (error != null) {
+                                errors.add(request.method() + " " + request.uri().getPath() + ": " + error.getMessage());
+                            } else if (response.statusCode() / 100 != 2) {
+                                errors.add(request.method() + " " + request.uri().getPath() + " returned HTTP " + response.statusCode());
+                            }
+                            inFlight.decrementAndGet();
+                            if (remaining.decrementAndGet() == 0) {
+                                if (errors.isEmpty()) {
+                                    done.complete(null);
+                                } else {
+                                    done.completeExceptionally(new IOException(errors.size() + " of " + requests.size()
+                                            + " requests failed, first: " + errors.peek()));
+                                }
+                            } else {
+                                run();
+                            }
+                        });
+                    }
+                } while (passes.decrementAndGet() != 0);
+            }
+        };
+        sendMore.run();
+        return done;
+    }
+
+    public void sendAll(List<HttpRequest> requests, int maxInFlight) throws IOException, InterruptedException {
+        sendAll(requests, maxInFlight, null);
+    }
+
+    public void sendAll(List<HttpRequest> requests, int maxInFlight, LongAdder queuedWrites) throws IOException, InterruptedException {
+        try {
+            sendAllAsync(requests, maxInFlight, queuedWrites).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    // Sends the request without blocking when the caller does not need the response body
+    public CompletableFuture<Void> sendAsyncDiscarding(RequestSupplier requestSupplier) {
+        return sendAsyncDiscarding(requestSupplier, null);
+    }
+
+    public CompletableFuture<Void> sendAsyncDiscarding(RequestSupplier requestSupplier, LongAdder queuedWrites) {
+        HttpRequest request;
+        try {
+            request = requestSupplier.get();
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return sendAsync(request, HttpResponse.BodyHandlers.discarding(), queuedWrites)
+                .thenApply(response -> null);
+    }
+
+    private static <T> T decode(InputStream body, ObjectReader reader) {
+        try (InputStream in = body) {
+            return reader.readValue(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recordVersion(HttpResponse<?> response) {
+        if (response.version() == HttpClient.Version.HTTP_2) {
+            http2Responses.increment();
+        } else {
+            http1Responses.increment();
+        }
+    }
+
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    // The JDK client does not expose per-connection identity, so HTTP/2 responses (multiplexed on one
+    // connection) are the only connection reuse that can be counted exactly
+    public long getHttp2ResponseCount() {
+        return http2Responses.sum();
+    }
+
+    public long getHttp1ResponseCount() {
+        return http1Responses.sum();
+    }
+
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheRevalidationCount() {
+        return cacheRevalidations.sum();
+    }
+
+    public long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejections.sum();
+    }
+
+    public long getQueuedWriteCount() {
+        return queuedWrites.sum();
+    }
+
+    public long getStaleReadCount() {
+        return staleReads.sum();
+    }
+
+    // Reads that joined an identical request already in flight instead of sending their own
+    public long getCoalescedReadCount() {
+        return coalescedReads.sum();
+    }
+
+    // A read on the wire and the identical reads that joined it
+    private static final class Flight {
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        // Only changed inside inFlight.compute and read after the flight is removed, both under the map's lock
+        private int joined;
+    }
+
+    // Builds a request lazily so serialization failures surface through the returned future
+    @FunctionalInterface
+    public interface RequestSupplier {
+        HttpRequest get() throws IOException;
+    }
+
+    @Override
+    public String toString() {
+        return "(Gateway) url: " + baseUrl + " | requests: " + getRequestCount() + " | failures: " + getFailureCount()
+                + " | http/2: " + getHttp2ResponseCount()
+                + " | http/1.1: " + getHttp1ResponseCount() + " | cache hits: " + getCacheHitCount()
+                + " | revalidated: " + getCacheRevalidationCount() + " | cache misses: " + getCacheMissCount()
+                + " | retries: " + getRetryCount() + " | hedged: " + getHedgeCount() + " | rejected: " + getRejectedCount()
+                + " | queued: " + getQueuedWriteCount() + " | stale reads: " + getStaleReadCount()
+                + " | coalesced: " + getCoalescedReadCount();
+    }
+}
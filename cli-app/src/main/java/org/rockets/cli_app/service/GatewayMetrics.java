@@ -0,0 +1,264 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+// Per-endpoint latency histograms, byte counts, status codes, retries and hedges for the requests sent
+// through the gateway client. Endpoints are requests grouped by method and route, with IDs replaced by
+// {id} and only the names of query parameters kept, e.g. "GET /meetings/{id}" or "GET /participants?ids".
+public class GatewayMetrics {
+    // Latencies are recorded in microseconds with 3 significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public static class Endpoint {
+        private final String method;
+        private final String route;
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder hedges = new LongAdder();
+        private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Endpoint(String method, String route) {
+            this.method = method;
+            this.route = route;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public long getCount() {
+            return latency.getTotalCount();
+        }
+
+        // Latency at the given quantile (0.5 for the median) in milliseconds
+        public double getLatencyMillis(double quantile) {
+            return latency.getValueAtPercentile(quantile * 100) / 1000.0;
+        }
+
+        public double getMaxLatencyMillis() {
+            return latency.getMaxValue() / 1000.0;
+        }
+
+        public double getTotalLatencySeconds() {
+            return latency.getMean() * latency.getTotalCount() / 1_000_000.0;
+        }
+
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getRetries() {
+            return retries.sum();
+        }
+
+        public long getHedges() {
+            return hedges.sum();
+        }
+
+        public Map<Integer, Long> getStatuses() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statuses.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+
+        @Override
+        public String toString() {
+            return method + " " + route;
+        }
+    }
+
+    public Endpoint endpoint(HttpRequest request) {
+        String method = request.method();
+        String route = route(request);
+        return endpoints.computeIfAbsent(method + " " + route, ignored -> new Endpoint(method, route));
+    }
+
+    // Called once per request on the wire, whether it got a response or failed
+    public void record(Endpoint endpoint, HttpRequest request, HttpResponse<?> response, Throwable error, long elapsedNanos) {
+        endpoint.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), HIGHEST_TRACKABLE_MICROS));
+        request.bodyPublisher().ifPresent(body -> endpoint.bytesSent.add(Math.max(body.contentLength(), 0)));
+        if (error != null) {
+            endpoint.errors.increment();
+        } else {
+            endpoint.statuses.computeIfAbsent(response.statusCode(), ignored -> new LongAdder()).increment();
+        }
+    }
+
+    public void recordRetry(HttpRequest request) {
+        endpoint(request).retries.increment();
+    }
+
+    public void recordHedge(HttpRequest request) {
+        endpoint(request).hedges.increment();
+    }
+
+    public void recordBytesReceived(Endpoint endpoint, long bytes) {
+        endpoint.bytesReceived.add(bytes);
+    }
+
+    // Endpoints by total time spent, slowest first
+    public List<Endpoint> getEndpoints() {
+        return endpoints.values().stream()
+                .sorted(Comparator.comparingDouble(Endpoint::getTotalLatencySeconds).reversed())
+                .toList();
+    }
+
+    // Method-independent route of a request, e.g. "/meetings/{id}/addParticipant/{id}"
+    public static String route(HttpRequest request) {
+        String path = request.uri().getRawPath();
+        StringBuilder route = new StringBuilder(path.length());
+        String[] segments = path.split("/");
+        // Segments alternate between names and IDs: /meetings/{id}/addParticipant/{id}
+        for (int i = 1; i < segments.length; i++) {
+            route.append('/').append(i % 2 == 0 ? "{id}" : segments[i]);
+        }
+
+        String query = request.uri().getRawQuery();
+        if (query != null) {
+            TreeSet<String> names = new TreeSet<>();
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                names.add(equals < 0 ? parameter : parameter.substring(0, equals));
+            }
+            route.append('?').append(String.join("&", names));
+        }
+        return route.isEmpty() ? "/" : route.toString();
+    }
+
+    // Human-readable table, slowest endpoints first
+    public void printSummary(PrintStream out) {
+        List<Endpoint> sorted = getEndpoints();
+        if (sorted.isEmpty()) {
+            out.println("Gateway metrics: no requests sent");
+            return;
+        }
+
+        out.printf("%-44s %6s %9s %9s %9s %9s %10s %10s %7s %7s  %s%n",
+                "endpoint", "count", "p50 ms", "p95 ms", "p99 ms", "max ms", "sent", "received", "errors", "retries", "statuses");
+        for (Endpoint endpoint : sorted) {
+            StringBuilder statuses = new StringBuilder();
+            endpoint.getStatuses().forEach((status, count) -> statuses.append(status).append('x').append(count).append(' '));
+            out.printf("%-44s %6d %9.1f %9.1f %9.1f %9.1f %10s %10s %7d %7d  %s%n",
+                    endpoint, endpoint.getCount(),
+                    endpoint.getLatencyMillis(0.5), endpoint.getLatencyMillis(0.95), endpoint.getLatencyMillis(0.99),
+                    endpoint.getMaxLatencyMillis(), formatBytes(endpoint.getBytesSent()), formatBytes(endpoint.getBytesReceived()),
+                    endpoint.getErrors(), endpoint.getRetries(), statuses.toString().trim());
+        }
+    }
+
+    // Prometheus text exposition format
+    public void writePrometheus(Writer out) throws IOException {
+        List<Endpoint> sorted = getEndpoints();
+
+        out.write("# HELP cli_gateway_request_duration_seconds Gateway request latency\n");
+        out.write("# TYPE cli_gateway_request_duration_seconds summary\n");
+        for (Endpoint endpoint : sorted) {
+            for (double quantile : QUANTILES) {
+                out.write("cli_gateway_request_duration_seconds{" + labels(endpoint) + ",quantile=\"" + quantile + "\"} "
+                        + endpoint.latency.getValueAtPercentile(quantile * 100) / 1_000_000.0 + "\n");
+            }
+            out.write("cli_gateway_request_duration_seconds_sum{" + labels(endpoint) + "} " + endpoint.getTotalLatencySeconds() + "\n");
+            out.write("cli_gateway_request_duration_seconds_count{" + labels(endpoint) + "} " + endpoint.getCount() + "\n");
+        }
+
+        out.write("# HELP cli_gateway_responses_total Gateway responses by status code\n");
+        out.write("# TYPE cli_gateway_responses_total counter\n");
+        for (Endpoint endpoint : sorted) {
+            for (Map.Entry<Integer, Long> status : endpoint.getStatuses().entrySet()) {
+                out.write("cli_gateway_responses_total{" + labels(endpoint) + ",status=\"" + status.getKey() + "\"} "
+                        + status.getValue() + "\n");
+            }
+        }
+
+        writeCounter(out, sorted, "cli_gateway_request_bytes_total", "Request body bytes sent", Endpoint::getBytesSent);
+        writeCounter(out, sorted, "cli_gateway_response_bytes_total", "Response body bytes received", Endpoint::getBytesReceived);
+        writeCounter(out, sorted, "cli_gateway_errors_total", "Requests that failed without a response", Endpoint::getErrors);
+        writeCounter(out, sorted, "cli_gateway_retries_total", "Requests retried after a failure", Endpoint::getRetries);
+        writeCounter(out, sorted, "cli_gateway_hedges_total", "Hedged copies of slow requests", Endpoint::getHedges);
+        out.flush();
+    }
+
+    public void writeJson(OutputStream out, ObjectMapper objectMapper) throws IOException {
+        ArrayNode array = objectMapper.createArrayNode();
+        for (Endpoint endpoint : getEndpoints()) {
+            ObjectNode node = array.addObject();
+            node.put("method", endpoint.getMethod());
+            node.put("route", endpoint.getRoute());
+            node.put("count", endpoint.getCount());
+            ObjectNode latency = node.putObject("latencyMs");
+            latency.put("p50", endpoint.getLatencyMillis(0.5));
+            latency.put("p95", endpoint.getLatencyMillis(0.95));
+            latency.put("p99", endpoint.getLatencyMillis(0.99));
+            latency.put("max", endpoint.getMaxLatencyMillis());
+            node.put("bytesSent", endpoint.getBytesSent());
+            node.put("bytesReceived", endpoint.getBytesReceived());
+            node.put("errors", endpoint.getErrors());
+            node.put("retries", endpoint.getRetries());
+            node.put("hedges", endpoint.getHedges());
+            ObjectNode statuses = node.putObject("statuses");
+            endpoint.getStatuses().forEach((status, count) -> statuses.put(String.valueOf(status), count));
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(out, array);
+    }
+
+    private static void writeCounter(Writer out, List<Endpoint> endpoints, String name, String help,
+                                     ToLongFunction<Endpoint> value) throws IOException {
+        out.write("# HELP " + name + " " + help + "\n");
+        out.write("# TYPE " + name + " counter\n");
+        for (Endpoint endpoint : endpoints) {
+            out.write(name + "{" + labels(endpoint) + "} " + value.applyAsLong(endpoint) + "\n");
+        }
+    }
+
+    private static String labels(Endpoint endpoint) {
+        return "method=\"" + endpoint.getMethod() + "\",route=\"" + endpoint.getRoute().replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f kB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
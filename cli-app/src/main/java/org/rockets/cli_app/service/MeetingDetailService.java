@@ -0,0 +1,83 @@
+package org.rockets.cli_app.service;
+
+import org.rockets.cli_app.components.Attachment;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.components.Participant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+// Assembles a meeting together with its participants, attachments and calendars. The meetings service
+// returns related records as bare IDs, so after the meeting itself is fetched one ?ids= lookup per
+// related collection is sent, all of them concurrently: two round trips instead of one per record.
+public class MeetingDetailService {
+
+    public enum Expand {
+        PARTICIPANTS, ATTACHMENTS, CALENDARS, ALL
+    }
+
+    private final MeetingService meetingService;
+    private final ParticipantService participantService;
+    private final AttachmentService attachmentService;
+    private final CalendarService calendarService;
+
+    public MeetingDetailService() {
+        this(GatewayClient.getInstance());
+    }
+
+    public MeetingDetailService(GatewayClient gateway) {
+        this.meetingService = new MeetingService(gateway);
+        this.participantService = new ParticipantService(gateway);
+        this.attachmentService = new AttachmentService(gateway);
+        this.calendarService = new CalendarService(gateway);
+    }
+
+    public Meeting getMeetingDetail(String id, Set<Expand> expand) throws IOException, InterruptedException {
+        try {
+            return getMeetingDetailAsync(id, expand).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    public CompletableFuture<Meeting> getMeetingDetailAsync(String id, Set<Expand> expand) {
+        Set<Expand> expanded = expand.contains(Expand.ALL) ? EnumSet.allOf(Expand.class) : expand;
+
+        return meetingService.getMeetingByIdAsync(id).thenCompose(meeting -> {
+            CompletableFuture<List<Participant>> participants = expanded.contains(Expand.PARTICIPANTS)
+                    ? lookup(meeting.getParticipants(), Participant::getId, participantService::getParticipantsByIdsAsync)
+                    : CompletableFuture.completedFuture(meeting.getParticipants());
+            CompletableFuture<List<Attachment>> attachments = expanded.contains(Expand.ATTACHMENTS)
+                    ? lookup(meeting.getAttachments(), Attachment::getId, attachmentService::getAttachmentsByIdsAsync)
+                    : CompletableFuture.completedFuture(meeting.getAttachments());
+            CompletableFuture<List<Calendar>> calendars = expanded.contains(Expand.CALENDARS)
+                    ? lookup(meeting.getCalendars(), Calendar::getId, calendarService::getCalendarsByIdsAsync)
+                    : CompletableFuture.completedFuture(meeting.getCalendars());
+
+            return CompletableFuture.allOf(participants, attachments, calendars).thenApply(ignored -> {
+                meeting.setParticipants(participants.join());
+                meeting.setAttachments(attachments.join());
+                meeting.setCalendars(calendars.join());
+                return meeting;
+            });
+        });
+    }
+
+    // One batched lookup for all related records; meetings without any skip the request
+    private static <T> CompletableFuture<List<T>> lookup(List<T> references, Function<T, String> idOf,
+                                                         Function<List<String>, CompletableFuture<List<T>>> byIds) {
+        List<String> ids = references.stream().map(idOf).distinct().toList();
+        return ids.isEmpty() ? CompletableFuture.completedFuture(references) : byIds.apply(ids);
+    }
+}
@@ -1,116 +1,280 @@
 package org.rockets.cli_app.service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.dto.MeetingBatchDTO;
 import org.rockets.cli_app.dto.MeetingDTO;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
+import java.io.InputStream;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 public class MeetingService {
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final String baseUrl = "http://localhost:8080";
+    // Per-ID association calls kept in flight at once when the batch endpoint is unavailable
+    private static final int MAX_IN_FLIGHT = 16;
+
+    private final GatewayClient gateway;
+    // Counts the writes of the command that built this service that were queued in the outbox instead of
+    // applied; see GatewayClient.trackQueuedWrites
+    private final LongAdder queuedWrites;
+
+    public MeetingService() {
+        this(GatewayClient.getInstance());
+    }
+
+    public MeetingService(GatewayClient gateway) {
+        this.gateway = gateway;
+        this.queuedWrites = GatewayClient.queuedWriteCounter();
+    }
 
     public List<Meeting> getMeetings() throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings"))
-                .GET()
-                .build();
+        List<Meeting> apiResponse = gateway.sendCached(getMeetingsRequest(), gateway.listReader(Meeting.class));
+        return Objects.requireNonNull(apiResponse);
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<List<Meeting>> getMeetingsAsync() {
+        return gateway.sendCachedAsync(getMeetingsRequest(), gateway.listReader(Meeting.class));
+    }
 
-        List<Meeting> apiResponse = objectMapper.readValue(response.body(), objectMapper.getTypeFactory().constructParametricType(List.class, Meeting.class));
+    public List<Meeting> getMeetingsByIds(List<String> ids) throws IOException, InterruptedException {
+        List<Meeting> apiResponse = gateway.sendCached(getMeetingsByIdsRequest(ids), gateway.listReader(Meeting.class));
         return Objects.requireNonNull(apiResponse);
     }
 
-    public Meeting createMeeting(MeetingDTO meetingDTO) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(meetingDTO)))
-                .build();
+    public CompletableFuture<List<Meeting>> getMeetingsByIdsAsync(List<String> ids) {
+        return gateway.sendCachedAsync(getMeetingsByIdsRequest(ids), gateway.listReader(Meeting.class));
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    // Lazily pages through /meetings and parses each page as it streams in; limit <= 0 means no limit
+    public PageIterator<Meeting> iterateMeetings(int pageSize, String cursor, long limit) {
+        return new PageIterator<>(gateway, "/meetings", gateway.reader(Meeting.class), Meeting::getId, pageSize, cursor, limit);
+    }
 
-        Meeting apiResponse = objectMapper.readValue(response.body(), objectMapper.getTypeFactory().constructParametricType(List.class, Meeting.class));
+    public Meeting createMeeting(MeetingDTO meetingDTO) throws IOException, InterruptedException {
+        Meeting apiResponse = gateway.send(createMeetingRequest(meetingDTO), gateway.reader(Meeting.class), queuedWrites);
         return Objects.requireNonNull(apiResponse);
     }
 
+    public CompletableFuture<Meeting> createMeetingAsync(MeetingDTO meetingDTO) {
+        return gateway.sendAsync(() -> createMeetingRequest(meetingDTO), gateway.reader(Meeting.class), queuedWrites);
+    }
+
     public void updateMeetingById(String id, MeetingDTO meeting) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings/" + id))
-                .header("Content-Type", "application/json")
-                .method("PUT", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(meeting)))
-                .build();
+        gateway.send(updateMeetingRequest(id, meeting), HttpResponse.BodyHandlers.discarding(), queuedWrites);
+    }
 
-        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<Void> updateMeetingByIdAsync(String id, MeetingDTO meeting) {
+        return gateway.sendAsyncDiscarding(() -> updateMeetingRequest(id, meeting), queuedWrites);
     }
 
     public void deleteMeetingById(String id) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings/" + id))
-                .DELETE()
-                .build();
+        gateway.send(deleteMeetingRequest(id), HttpResponse.BodyHandlers.discarding(), queuedWrites);
+    }
 
-        httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<Void> deleteMeetingByIdAsync(String id) {
+        return gateway.sendAsyncDiscarding(() -> deleteMeetingRequest(id), queuedWrites);
     }
 
-    public Meeting addParticipantsToMeeting(String meetingId, List<String> participantIds) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings/" + meetingId + "/addMeetings"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(participantIds)))
-                .build();
+    // Applies field changes and all participant/attachment changes in one POST /meetings/{id}/batch.
+    // Backends without that endpoint get the equivalent per-ID calls, sent concurrently.
+    public Meeting batchUpdateMeeting(String id, MeetingBatchDTO batch) throws IOException, InterruptedException {
+        HttpRequest request = batchUpdateRequest(id, batch);
+        Meeting updated = batchResult(request, gateway.send(request, HttpResponse.BodyHandlers.ofInputStream(), queuedWrites));
+        if (updated != null) {
+            return updated;
+        }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        List<HttpRequest> requests = new ArrayList<>(associationRequests(id, batch));
+        if (batch.hasFieldUpdates()) {
+            // PUT replaces every field, so unchanged ones are filled in from the current record
+            Meeting current = getMeetingById(id);
+            requests.add(updateMeetingRequest(id, mergeFields(current, batch)));
+        }
+        gateway.sendAll(requests, MAX_IN_FLIGHT, queuedWrites);
+        return getMeetingById(id);
+    }
 
-        Meeting apiResponse = objectMapper.readValue(response.body(), objectMapper.getTypeFactory().constructParametricType(List.class, Meeting.class));
-        return Objects.requireNonNull(apiResponse);
+    public CompletableFuture<Meeting> batchUpdateMeetingAsync(String id, MeetingBatchDTO batch) {
+        HttpRequest request;
+        try {
+            request = batchUpdateRequest(id, batch);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return gateway.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream(), queuedWrites).thenComposeAsync(response -> {
+            Meeting updated;
+            try {
+                updated = batchResult(request, response);
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (updated != null) {
+                return CompletableFuture.completedFuture(updated);
+            }
+
+            CompletableFuture<Void> fieldUpdate = !batch.hasFieldUpdates()
+                    ? CompletableFuture.completedFuture(null)
+                    : getMeetingByIdAsync(id).thenCompose(current -> gateway.sendAsyncDiscarding(
+                            () -> updateMeetingRequest(id, mergeFields(current, batch)), queuedWrites));
+            return CompletableFuture.allOf(fieldUpdate, gateway.sendAllAsync(associationRequests(id, batch), MAX_IN_FLIGHT, queuedWrites))
+                    .thenCompose(ignored -> getMeetingByIdAsync(id));
+        }, gateway.getExecutor());
     }
 
-    public Meeting removeParticipantsFromMeeting(String meetingId, List<String> participantIds) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings/" + meetingId + "/removeMeetings"))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(participantIds)))
-                .build();
+    public Meeting addParticipantsToMeeting(String meetingId, List<String> participantIds) throws IOException, InterruptedException {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setAddParticipants(participantIds);
+        return batchUpdateMeeting(meetingId, batch);
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    public CompletableFuture<Meeting> addParticipantsToMeetingAsync(String meetingId, List<String> participantIds) {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setAddParticipants(participantIds);
+        return batchUpdateMeetingAsync(meetingId, batch);
+    }
 
-        Meeting apiResponse = objectMapper.readValue(response.body(), objectMapper.getTypeFactory().constructParametricType(List.class, Meeting.class));
-        return Objects.requireNonNull(apiResponse);
+    public Meeting removeParticipantsFromMeeting(String meetingId, List<String> participantIds) throws IOException, InterruptedException {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setRemoveParticipants(participantIds);
+        return batchUpdateMeeting(meetingId, batch);
+    }
+
+    public CompletableFuture<Meeting> removeParticipantsFromMeetingAsync(String meetingId, List<String> participantIds) {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setRemoveParticipants(participantIds);
+        return batchUpdateMeetingAsync(meetingId, batch);
     }
 
     public Meeting addAttachmentsToMeeting(String meetingId, List<String> attachmentIds) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings/" + meetingId + "/addAttachments"))
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setAddAttachments(attachmentIds);
+        return batchUpdateMeeting(meetingId, batch);
+    }
+
+    public CompletableFuture<Meeting> addAttachmentsToMeetingAsync(String meetingId, List<String> attachmentIds) {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setAddAttachments(attachmentIds);
+        return batchUpdateMeetingAsync(meetingId, batch);
+    }
+
+    public Meeting removeAttachmentsFromMeeting(String meetingId, List<String> attachmentIds) throws IOException, InterruptedException {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setRemoveAttachments(attachmentIds);
+        return batchUpdateMeeting(meetingId, batch);
+    }
+
+    public CompletableFuture<Meeting> removeAttachmentsFromMeetingAsync(String meetingId, List<String> attachmentIds) {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setRemoveAttachments(attachmentIds);
+        return batchUpdateMeetingAsync(meetingId, batch);
+    }
+
+    // Single lookups made at about the same time are batched into one ?ids= request
+    public Meeting getMeetingById(String id) throws IOException, InterruptedException {
+        return GatewayClient.await(getMeetingByIdAsync(id));
+    }
+
+    public CompletableFuture<Meeting> getMeetingByIdAsync(String id) {
+        return gateway.loader("/meetings", Meeting.class, Meeting::getId).load(id);
+    }
+
+    // The meeting the batch endpoint returned, or null when the gateway has no batch route. The meetings
+    // service answers an unknown meeting with 404 and a JSON {"error": ...} body; a missing route gets the
+    // router's plain 404 (or 405), and only that falls back to the per-ID calls.
+    private Meeting batchResult(HttpRequest request, HttpResponse<InputStream> response) throws IOException {
+        try (InputStream body = response.body()) {
+            int status = response.statusCode();
+            if (status / 100 == 2) {
+                return Objects.requireNonNull(gateway.reader(Meeting.class).<Meeting>readValue(body));
+            }
+
+            String error = errorMessage(body.readAllBytes());
+            if (status == 405 || (status == 404 && error == null)) {
+                return null;
+            }
+            throw new IOException(request.method() + " " + request.uri().getPath() + " returned HTTP " + status
+                    + (error != null ? ": " + error : ""));
+        }
+    }
+
+    // The "error" field of a JSON error body written by a service handler, otherwise null
+    private String errorMessage(byte[] body) {
+        try {
+            JsonNode error = gateway.getObjectMapper().readTree(body).get("error");
+            return error != null && error.isTextual() ? error.asText() : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static MeetingDTO mergeFields(Meeting current, MeetingBatchDTO batch) {
+        return new MeetingDTO(current.getId(),
+                batch.getTitle() != null ? batch.getTitle() : current.getTitle(),
+                batch.getDatetime() != null ? batch.getDatetime() : current.getDateTime(),
+                batch.getLocation() != null ? batch.getLocation() : current.getLocation(),
+                batch.getDetails() != null ? batch.getDetails() : current.getDetails());
+    }
+
+    private HttpRequest getMeetingsRequest() {
+        return gateway.newRequest("/meetings")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest getMeetingsByIdsRequest(List<String> ids) {
+        return gateway.newRequest(GatewayClient.withIds("/meetings", ids))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest createMeetingRequest(MeetingDTO meetingDTO) throws JsonProcessingException {
+        return gateway.newCreateRequest("/meetings", meetingDTO.getMeetingId())
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(attachmentIds)))
+                .POST(HttpRequest.BodyPublishers.ofString(gateway.writer(MeetingDTO.class).writeValueAsString(meetingDTO)))
                 .build();
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    private HttpRequest updateMeetingRequest(String id, MeetingDTO meeting) throws JsonProcessingException {
+        return gateway.newRequest("/meetings/" + id)
+                .header("Content-Type", "application/json")
+                .method("PUT", HttpRequest.BodyPublishers.ofString(gateway.writer(MeetingDTO.class).writeValueAsString(meeting)))
+                .build();
+    }
 
-        Meeting apiResponse = objectMapper.readValue(response.body(), objectMapper.getTypeFactory().constructParametricType(List.class, Meeting.class));
-        return Objects.requireNonNull(apiResponse);
+    private HttpRequest deleteMeetingRequest(String id) {
+        return gateway.newRequest("/meetings/" + id)
+                .DELETE()
+                .build();
     }
 
-    public Meeting removeAttachmentsFromMeeting(String meetingId, List<String> attachmentIds) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "/meetings/" + meetingId + "/removeAttachments"))
+    private HttpRequest batchUpdateRequest(String id, MeetingBatchDTO batch) throws JsonProcessingException {
+        return gateway.newRequest("/meetings/" + id + "/batch")
                 .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(attachmentIds)))
+                .POST(HttpRequest.BodyPublishers.ofString(gateway.writer(MeetingBatchDTO.class).writeValueAsString(batch)))
                 .build();
+    }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    private List<HttpRequest> associationRequests(String id, MeetingBatchDTO batch) {
+        List<HttpRequest> requests = new ArrayList<>();
+        batch.getAddParticipants().forEach(participantId -> requests.add(associationRequest(id, "addParticipant", participantId)));
+        batch.getRemoveParticipants().forEach(participantId -> requests.add(associationRequest(id, "removeParticipant", participantId)));
+        batch.getAddAttachments().forEach(attachmentId -> requests.add(associationRequest(id, "addAttachment", attachmentId)));
+        batch.getRemoveAttachments().forEach(attachmentId -> requests.add(associationRequest(id, "removeAttachment", attachmentId)));
+        return requests;
+    }
 
-        Meeting apiResponse = objectMapper.readValue(response.body(), objectMapper.getTypeFactory().constructParametricType(List.class, Meeting.class));
-        return Objects.requireNonNull(apiResponse);
+    private HttpRequest associationRequest(String id, String operation, String targetId) {
+        return gateway.newRequest("/meetings/" + id + "/" + operation + "/" + targetId)
+                .GET()
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,277 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Append-only log of writes that could not reach the gateway. Every change is one JSON line, forced to
+// disk before the command reports success, and every outcome of a later sync is appended as another line,
+// so a crash at any point loses nothing. The log is compacted once a sync has settled its changes.
+// A file lock keeps the daemon, the shell and one-off commands from interleaving their lines. The lock file
+// also holds the last sequence number handed out, so numbers are never reused, not even after compaction
+// removes the log, and appending does not have to read the log.
+public class Outbox {
+
+    public enum Status {
+        SENT, CONFLICT, REJECTED, DROPPED
+    }
+
+    // A queued write. baseVersion is the hash of the record as last read from the gateway, if it was read.
+    public record Change(long seq, String method, String path, String contentType, String idempotencyKey,
+                         String body, String baseVersion, long queuedAt) {
+
+        // Creates carry the ID of the record they create, so one that already went through is found by ID
+        // instead of being applied twice
+        @JsonIgnore
+        public boolean isCreate() {
+            return idempotencyKey != null;
+        }
+    }
+
+    public record Ack(long ack, Status status, String detail, long at) {
+    }
+
+    // A change together with the latest acknowledgement for it, if any
+    public record Entry(Change change, Ack ack) {
+
+        @JsonIgnore
+        public boolean isPending() {
+            return ack == null;
+        }
+
+        @JsonIgnore
+        public boolean isHeld() {
+            return ack != null && (ack.status() == Status.CONFLICT || ack.status() == Status.REJECTED);
+        }
+    }
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    // Last sequence number this instance knows of; 0 until the log was read once. Guarded by this.
+    private long lastSeq;
+
+    public Outbox(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    // Records a write that could not be delivered and returns it with its sequence number
+    public synchronized Change append(HttpRequest request, String baseVersion) throws IOException {
+        String query = request.uri().getRawQuery();
+        String path = query == null ? request.uri().getRawPath() : request.uri().getRawPath() + "?" + query;
+        byte[] bytes = Compression.bodyOf(request);
+        String body = bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+        return locked(lock -> {
+            long seq = nextSeq(lock);
+            Change change = new Change(seq, request.method(), path,
+                    request.headers().firstValue("Content-Type").orElse(null),
+                    request.headers().firstValue(GatewayClient.IDEMPOTENCY_KEY).orElse(null),
+                    body, baseVersion, System.currentTimeMillis());
+            write(change);
+            return change;
+        });
+    }
+
+    public synchronized void acknowledge(Change change, Status status, String detail) throws IOException {
+        locked(lock -> {
+            write(new Ack(change.seq(), status, detail, System.currentTimeMillis()));
+            return null;
+        });
+    }
+
+    // Discards a queued or held change; false if there is no unsettled change with that number
+    public synchronized boolean drop(long seq) throws IOException {
+        return locked(lock -> {
+            Entry entry = readEntries().get(seq);
+            if (entry == null || !(entry.isPending() || entry.isHeld())) {
+                return false;
+            }
+            write(new Ack(seq, Status.DROPPED, null, System.currentTimeMillis()));
+            return true;
+        });
+    }
+
+    // Every change that is not settled yet, in the order it was queued
+    public synchronized List<Entry> entries() throws IOException {
+        if (!Files.exists(file)) {
+            return List.of();
+        }
+        return locked(lock -> unsettled(readEntries()));
+    }
+
+    // Rewrites the log with only the unsettled changes, or removes it when everything was settled
+    public synchronized void compact() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        locked(lock -> {
+            List<Entry> remaining = unsettled(readEntries());
+            if (remaining.isEmpty()) {
+                // The log is about to take the last sequence number with it
+                storeSeq(lock, Math.max(storedSeq(lock), lastSeq), true);
+                Files.delete(file);
+                return null;
+            }
+
+            StringBuilder lines = new StringBuilder();
+            for (Entry entry : remaining) {
+                lines.append(objectMapper.writeValueAsString(entry.change())).append('\n');
+                if (entry.ack() != null) {
+                    lines.append(objectMapper.writeValueAsString(entry.ack())).append('\n');
+                }
+            }
+            Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "outbox", ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8)));
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return null;
+        });
+    }
+
+    // Version of a record as returned by the gateway, compared at sync time to detect concurrent edits
+    public static String version(String body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(body.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The log itself is replaced on compaction, so processes coordinate on a separate lock file
+    private <T> T locked(LockedAction<T> action) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path lockFile = parent.resolve(file.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                return action.run(channel);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    // The highest of the number in the lock file, the one this instance last used and, the first time
+    // only, the highest in the log, which covers logs written before the lock file kept the number and
+    // a number that was not flushed before a crash. The log line itself is forced to disk, the number is not.
+    private long nextSeq(FileChannel lock) throws IOException {
+        if (lastSeq == 0) {
+            lastSeq = readEntries().keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+        }
+        lastSeq = Math.max(lastSeq, storedSeq(lock)) + 1;
+        storeSeq(lock, lastSeq, false);
+        return lastSeq;
+    }
+
+    private static long storedSeq(FileChannel lock) throws IOException {
+        // At most 19 digits, which a local file hands over in one read
+        ByteBuffer buffer = ByteBuffer.allocate(20);
+        lock.read(buffer, 0);
+        String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+        try {
+            return text.isEmpty() ? 0 : Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void storeSeq(FileChannel lock, long seq, boolean force) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Long.toString(seq).getBytes(StandardCharsets.US_ASCII));
+        lock.truncate(0);
+        while (buffer.hasRemaining()) {
+            lock.write(buffer, buffer.position());
+        }
+        if (force) {
+            lock.force(false);
+        }
+    }
+
+    // Writers hold the lock, so appending at the current end is safe without O_APPEND
+    private void write(Object line) throws IOException {
+        String text = objectMapper.writeValueAsString(line) + "\n";
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = channel.size();
+            // Terminate a line left torn by a crash so it does not swallow this one
+            if (end > 0) {
+                ByteBuffer last = ByteBuffer.allocate(1);
+                channel.read(last, end - 1);
+                if (last.get(0) != '\n') {
+                    text = "\n" + text;
+                }
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                end += channel.write(buffer, end);
+            }
+            channel.force(false);
+        }
+    }
+
+    // Changes by sequence number with their latest acknowledgement. A torn last line from a crash is skipped.
+    private Map<Long, Entry> readEntries() throws IOException {
+        Map<Long, Entry> entries = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return entries;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException e) {
+                continue;
+            }
+            if (node.has("ack")) {
+                Ack ack = objectMapper.treeToValue(node, Ack.class);
+                entries.computeIfPresent(ack.ack(), (seq, entry) -> new Entry(entry.change(), ack));
+            } else {
+                Change change = objectMapper.treeToValue(node, Change.class);
+                entries.put(change.seq(), new Entry(change, null));
+            }
+        }
+        return entries;
+    }
+
+    private static List<Entry> unsettled(Map<Long, Entry> entries) {
+        List<Entry> remaining = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.isPending() || entry.isHeld()) {
+                remaining.add(entry);
+            }
+        }
+        return remaining;
+    }
+
+    @FunctionalInterface
+    private interface LockedAction<T> {
+        T run(FileChannel lock) throws IOException;
+    }
+}
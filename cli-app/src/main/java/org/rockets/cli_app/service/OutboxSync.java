@@ -0,0 +1,250 @@
+package org.rockets.cli_app.service;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Replays the outbox against the gateway in the order the changes were queued. Consecutive changes to
+// different records go out together, up to batchSize at a time; a change to a record waits for the earlier
+// changes to it. Before an update or delete is replayed, the record is read back: if it changed on the
+// server since it was last read locally, the change is held as a conflict instead of overwriting that edit.
+// The sync stops at the first change that still cannot reach the gateway and leaves the rest queued.
+public class OutboxSync {
+
+    public record Result(int sent, int conflicts, int rejected, int remaining, boolean offline) {
+    }
+
+    private final GatewayClient gateway;
+    private final Outbox outbox;
+
+    public OutboxSync(GatewayClient gateway, Outbox outbox) {
+        this.gateway = gateway;
+        this.outbox = outbox;
+    }
+
+    // force replays held changes too and skips the conflict check; progress is reported to log
+    public Result sync(int batchSize, boolean force, PrintStream log) throws IOException, InterruptedException {
+        Path lockFile = outbox.getFile().toAbsolutePath().resolveSibling(outbox.getFile().getFileName() + ".sync");
+        Files.createDirectories(lockFile.getParent());
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(channel)) {
+            if (lock == null) {
+                throw new IOException("Another sync of " + outbox.getFile() + " is in progress");
+            }
+            return replay(batchSize, force, log);
+        }
+    }
+
+    private Result replay(int batchSize, boolean force, PrintStream log) throws IOException, InterruptedException {
+        List<Outbox.Change> changes = new ArrayList<>();
+        // Records with a held change that is not retried; later changes to them stay queued behind it
+        Set<String> blocked = ConcurrentHashMap.newKeySet();
+        for (Outbox.Entry entry : outbox.entries()) {
+            if (entry.isPending() || force) {
+                changes.add(entry.change());
+            } else {
+                blocked.addAll(records(entry.change()));
+            }
+        }
+
+        // Records this sync has written, whose server version is now our own
+        Set<String> replayed = ConcurrentHashMap.newKeySet();
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicBoolean offline = new AtomicBoolean();
+
+        int next = 0;
+        while (next < changes.size() && !offline.get()) {
+            List<CompletableFuture<Void>> batch = new ArrayList<>();
+            Set<String> batchRecords = new HashSet<>();
+            while (next < changes.size() && batch.size() < batchSize) {
+                Outbox.Change change = changes.get(next);
+                List<String> records = records(change);
+                if (!Collections.disjoint(records, batchRecords)) {
+                    break;
+                }
+                next++;
+                batchRecords.addAll(records);
+                if (!Collections.disjoint(records, blocked)) {
+                    blocked.addAll(records);
+                    continue;
+                }
+
+                boolean check = !force && change.baseVersion() != null && Collections.disjoint(records, replayed);
+                batch.add(replay(change, check).thenAccept(outcome -> {
+                    if (outcome.status() == null) {
+                        offline.set(true);
+                        return;
+                    }
+                    try {
+                        switch (outcome.status()) {
+                            case SENT -> {
+                                outbox.acknowledge(change, Outbox.Status.SENT, outcome.detail());
+                                replayed.addAll(records);
+                                sent.incrementAndGet();
+                            }
+                            case CONFLICT -> {
+                                outbox.acknowledge(change, Outbox.Status.CONFLICT, outcome.detail());
+                                blocked.addAll(records);
+                                conflicts.incrementAndGet();
+                            }
+                            case REJECTED -> {
+                                outbox.acknowledge(change, Outbox.Status.REJECTED, outcome.detail());
+                                blocked.addAll(records);
+                                rejected.incrementAndGet();
+                            }
+                            default -> throw new IllegalStateException("Unexpected outcome " + outcome.status());
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    if (log != null) {
+                        log.println("#" + change.seq() + " " + change.method() + " " + change.path() + ": "
+                                + outcome.status().name().toLowerCase(Locale.ROOT)
+                                + (outcome.detail() != null ? " (" + outcome.detail() + ")" : ""));
+                    }
+                }));
+            }
+
+            try {
+                CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0])).get();
+            } catch (ExecutionException e) {
+                throw new IOException("Could not record the sync outcome: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+
+        outbox.compact();
+        int remaining = outbox.entries().size();
+        return new Result(sent.get(), conflicts.get(), rejected.get(), remaining, offline.get());
+    }
+
+    // A null status means the gateway is still unreachable and the change stays queued
+    private record Outcome(Outbox.Status status, String detail) {
+    }
+
+    private CompletableFuture<Outcome> replay(Outbox.Change change, boolean checkVersion) {
+        CompletableFuture<Outcome> check = checkVersion
+                ? gateway.deliver(lookup(GatewayClient.recordKey(change.path())), HttpResponse.BodyHandlers.ofString())
+                        .handle((response, error) -> {
+                            if (error != null || isUnavailable(response)) {
+                                return new Outcome(null, null);
+                            }
+                            String record = GatewayClient.recordOf(change.path());
+                            if (response.statusCode() / 100 == 2 && !change.baseVersion().equals(
+                                    gateway.recordVersion(response.body(), record.substring(record.indexOf('/') + 1)))) {
+                                return new Outcome(Outbox.Status.CONFLICT, "record changed on the server since it was last read");
+                            }
+                            return new Outcome(Outbox.Status.SENT, null);
+                        })
+                : CompletableFuture.completedFuture(new Outcome(Outbox.Status.SENT, null));
+
+        return check.thenCompose(checked -> {
+            if (checked.status() != Outbox.Status.SENT) {
+                return CompletableFuture.completedFuture(checked);
+            }
+            return gateway.deliver(request(change), HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        if (error != null || isUnavailable(response)) {
+                            return CompletableFuture.completedFuture(new Outcome(null, null));
+                        }
+                        if (response.statusCode() / 100 == 2) {
+                            return CompletableFuture.completedFuture(new Outcome(Outbox.Status.SENT, null));
+                        }
+                        String status = "HTTP " + response.statusCode();
+                        return change.isCreate() ? alreadyCreated(change, status)
+                                : CompletableFuture.completedFuture(new Outcome(Outbox.Status.REJECTED, status));
+                    })
+                    .thenCompose(outcome -> outcome);
+        });
+    }
+
+    // A create may have gone through before its response was lost; if the record exists it was applied
+    private CompletableFuture<Outcome> alreadyCreated(Outbox.Change change, String status) {
+        String path = change.path().endsWith("/" + change.idempotencyKey()) ? change.path() : change.path() + "/" + change.idempotencyKey();
+        return gateway.deliver(lookup(GatewayClient.recordKey(path)), HttpResponse.BodyHandlers.ofString())
+                .handle((response, error) -> {
+                    if (error == null && response.statusCode() / 100 == 2 && response.body().contains(change.idempotencyKey())) {
+                        return new Outcome(Outbox.Status.SENT, "already created");
+                    }
+                    return new Outcome(Outbox.Status.REJECTED, status);
+                });
+    }
+
+    private HttpRequest lookup(String path) {
+        return gateway.newRequest(path).header("Accept", "application/json").GET().build();
+    }
+
+    private HttpRequest request(Outbox.Change change) {
+        HttpRequest.Builder builder = gateway.newRequest(change.path());
+        if (change.contentType() != null) {
+            builder.header("Content-Type", change.contentType());
+        }
+        if (change.idempotencyKey() != null) {
+            builder.header(GatewayClient.IDEMPOTENCY_KEY, change.idempotencyKey());
+        }
+        return builder.method(change.method(), change.body() != null
+                ? HttpRequest.BodyPublishers.ofString(change.body())
+                : HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    // Records a change touches, e.g. "meetings/{id}" and "participants/{pid}" for /meetings/{id}/addParticipant/{pid}
+    static List<String> records(Outbox.Change change) {
+        String path = change.path();
+        int query = path.indexOf('?');
+        String[] segments = (query < 0 ? path : path.substring(0, query)).split("/");
+        List<String> records = new ArrayList<>();
+        if (segments.length < 2) {
+            return records;
+        }
+        String collection = segments[1];
+        if (segments.length > 2) {
+            records.add(collection + "/" + segments[2]);
+        } else if (change.idempotencyKey() != null) {
+            records.add(collection + "/" + change.idempotencyKey());
+        } else {
+            // A write to a whole collection is ordered against everything in it
+            records.add(collection);
+        }
+        if (segments.length > 4) {
+            String operation = segments[3].replaceFirst("^(add|remove)", "");
+            if (!operation.isEmpty()) {
+                records.add(Character.toLowerCase(operation.charAt(0)) + operation.substring(1) + "s/" + segments[4]);
+            }
+        }
+        return records;
+    }
+
+    private static boolean isUnavailable(HttpResponse<?> response) {
+        int status = response.statusCode();
+        return status == 502 || status == 503 || status == 504;
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Held by another thread of this process
+            return null;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+// Iterates over a collection endpoint page by page using ?limit=&cursor= (the cursor is the ID of the
+// last record of the previous page). Each page is parsed element by element from the response stream,
+// so records are available before the page has fully arrived and only one record is held at a time.
+// Backends that ignore the paging parameters return everything in one response, which is then
+// streamed the same way.
+public class PageIterator<T> implements Iterator<T>, Closeable {
+    private final GatewayClient gateway;
+    private final String path;
+    private final ObjectReader elementReader;
+    private final Function<T, String> idOf;
+    private final int pageSize;
+    private final long limit;
+
+    private String cursor;
+    private String previousPageFirstId;
+    private JsonParser parser;
+    private InputStream body;
+    private int readOnPage;
+    private long returned;
+    private boolean lastPage;
+    private boolean finished;
+    private T next;
+
+    public PageIterator(GatewayClient gateway, String path, ObjectReader elementReader, Function<T, String> idOf,
+                        int pageSize, String cursor, long limit) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("page size must be positive");
+        }
+        this.gateway = gateway;
+        this.path = path;
+        this.elementReader = elementReader;
+        this.idOf = idOf;
+        this.pageSize = pageSize;
+        this.cursor = cursor;
+        this.limit = limit > 0 ? limit : Long.MAX_VALUE;
+    }
+
+    // ID of the last record returned, to resume listing with --cursor
+    public String getCursor() {
+        return cursor;
+    }
+
+    // True when iteration stopped at the limit and the backend may have more records
+    public boolean hasMore() {
+        return returned >= limit && !lastPage;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                finish();
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T record = next;
+        next = null;
+        returned++;
+        cursor = idOf.apply(record);
+        return record;
+    }
+
+    private T readNext() throws IOException {
+        if (returned >= limit) {
+            finish();
+            return null;
+        }
+
+        while (true) {
+            if (parser == null) {
+                if (lastPage) {
+                    finish();
+                    return null;
+                }
+                openPage();
+            }
+
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.VALUE_STRING) {
+                T record = elementReader.readValue(parser);
+                if (readOnPage++ == 0) {
+                    // A backend that ignores the cursor would hand out the same page forever
+                    String firstId = idOf.apply(record);
+                    if (Objects.equals(firstId, previousPageFirstId)) {
+                        finish();
+                        return null;
+                    }
+                    previousPageFirstId = firstId;
+                }
+                if (readOnPage > pageSize) {
+                    // The backend ignored the limit and sent everything in this response
+                    lastPage = true;
+                }
+                return record;
+            }
+
+            // End of this page: a short page means there is nothing after it
+            if (readOnPage < pageSize) {
+                lastPage = true;
+            }
+            closePage(true);
+        }
+    }
+
+    private void openPage() throws IOException {
+        StringBuilder query = new StringBuilder(path).append("?limit=").append(pageSize);
+        if (cursor != null) {
+            query.append("&cursor=").append(URLEncoder.encode(cursor, StandardCharsets.UTF_8));
+        }
+
+        HttpRequest request = gateway.newRequest(query.toString())
+                .header("Accept", gateway.acceptHeader())
+                .GET()
+                .build();
+        try {
+            body = gateway.openCached(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + path);
+        }
+
+        parser = gateway.createParser(body);
+        readOnPage = 0;
+        JsonToken start = parser.nextToken();
+        if (start == JsonToken.VALUE_NULL || start == null) {
+            // Some backends encode an empty page as null; the next read sees the end of the page
+            return;
+        }
+        if (start != JsonToken.START_ARRAY) {
+            closePage(false);
+            throw new IOException("Expected an array from " + path);
+        }
+    }
+
+    private void closePage(boolean fullyRead) throws IOException {
+        if (fullyRead) {
+            // Reach the end of the stream so a completely read page can be cached
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        parser.close();
+        body.close();
+        parser = null;
+        body = null;
+    }
+
+    private void finish() {
+        finished = true;
+        if (parser != null) {
+            try {
+                closePage(false);
+            } catch (IOException ignored) {
+                // Abandoning the rest of the response
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        finish();
+    }
+}
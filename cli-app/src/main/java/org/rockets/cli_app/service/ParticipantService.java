@@ -1,38 +1,52 @@
 package org.rockets.cli_app.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.rockets.cli_app.components.Participant;
 
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
 
 public class ParticipantService {
 
-    private final HttpClient httpClient;
-    private final ObjectMapper objectMapper;
-    private final String baseUrl = "http://localhost:8080";
+    private final GatewayClient gateway;
+    // Counts the writes of the command that built this service that were queued in the outbox instead of
+    // applied; see GatewayClient.trackQueuedWrites
+    private final LongAdder queuedWrites;
 
     public ParticipantService() {
-        this.httpClient = HttpClient.newHttpClient();
-        this.objectMapper = new ObjectMapper();
+        this(GatewayClient.getInstance());
+    }
+
+    public ParticipantService(GatewayClient gateway) {
+        this.gateway = gateway;
+        this.queuedWrites = GatewayClient.queuedWriteCounter();
     }
 
     public List<Participant> getParticipants() {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/participants"))
-                    .GET()
-                    .build();
+            List<Participant> apiResponse = gateway.sendCached(getParticipantsRequest(), gateway.listReader(Participant.class));
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            List<Participant> apiResponse = objectMapper.readValue(response.body(), new TypeReference<>() {
-            });
+            return Objects.requireNonNull(apiResponse);
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching participants", e);
+        }
+    }
+
+    public CompletableFuture<List<Participant>> getParticipantsAsync() {
+        return gateway.<List<Participant>>sendCachedAsync(getParticipantsRequest(), gateway.listReader(Participant.class))
+                .exceptionally(e -> {
+                    throw new RuntimeException("Error fetching participants", e);
+                });
+    }
+
+    public List<Participant> getParticipantsByIds(List<String> ids) {
+        try {
+            List<Participant> apiResponse = gateway.sendCached(getParticipantsByIdsRequest(ids), gateway.listReader(Participant.class));
 
             return Objects.requireNonNull(apiResponse);
         } catch (Exception e) {
@@ -40,19 +54,34 @@ public class ParticipantService {
         }
     }
 
-    public Participant createParticipant(Participant participant) {
+    public CompletableFuture<List<Participant>> getParticipantsByIdsAsync(List<String> ids) {
+        return gateway.<List<Participant>>sendCachedAsync(getParticipantsByIdsRequest(ids), gateway.listReader(Participant.class))
+                .exceptionally(e -> {
+                    throw new RuntimeException("Error fetching participants", e);
+                });
+    }
+
+    // Single lookups made at about the same time are batched into one ?ids= request
+    public Participant getParticipantById(String id) {
         try {
-            String requestBody = objectMapper.writeValueAsString(participant);
+            return GatewayClient.await(getParticipantByIdAsync(id));
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching participant", e);
+        }
+    }
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/participants"))
-                    .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
-                    .build();
+    public CompletableFuture<Participant> getParticipantByIdAsync(String id) {
+        return gateway.loader("/participants", Participant.class, Participant::getId).load(id);
+    }
+
+    // Lazily pages through /participants and parses each page as it streams in; limit <= 0 means no limit
+    public PageIterator<Participant> iterateParticipants(int pageSize, String cursor, long limit) {
+        return new PageIterator<>(gateway, "/participants", gateway.reader(Participant.class), Participant::getId, pageSize, cursor, limit);
+    }
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            Participant apiResponse = objectMapper.readValue(response.body(), new TypeReference<>() {
-            });
+    public Participant createParticipant(Participant participant) {
+        try {
+            Participant apiResponse = gateway.send(createParticipantRequest(participant), gateway.reader(Participant.class), queuedWrites);
 
             return Objects.requireNonNull(apiResponse);
         } catch (Exception e) {
@@ -60,32 +89,76 @@ public class ParticipantService {
         }
     }
 
+    public CompletableFuture<Participant> createParticipantAsync(Participant participant) {
+        return gateway.<Participant>sendAsync(() -> createParticipantRequest(participant), gateway.reader(Participant.class))
+                .exceptionally(e -> {
+                    throw new RuntimeException("Error creating participant", e);
+                });
+    }
+
     public void updateParticipantById(String id, Participant participant) {
         try {
-            String requestBody = objectMapper.writeValueAsString(participant);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/participants/" + id))
-                    .header("Content-Type", "application/json")
-                    .method("PUT", HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
-                    .build();
-
-            httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            gateway.send(updateParticipantRequest(id, participant), HttpResponse.BodyHandlers.discarding(), queuedWrites);
         } catch (Exception e) {
             throw new RuntimeException("Error updating participant", e);
         }
     }
 
+    public CompletableFuture<Void> updateParticipantByIdAsync(String id, Participant participant) {
+        return gateway.sendAsyncDiscarding(() -> updateParticipantRequest(id, participant), queuedWrites)
+                .exceptionally(e -> {
+                    throw new RuntimeException("Error updating participant", e);
+                });
+    }
+
     public void deleteParticipantById(String id) {
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + "/participants/" + id))
-                    .DELETE()
-                    .build();
-
-            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            gateway.send(deleteParticipantRequest(id), HttpResponse.BodyHandlers.discarding(), queuedWrites);
         } catch (Exception e) {
             throw new RuntimeException("Error deleting participant", e);
         }
     }
+
+    public CompletableFuture<Void> deleteParticipantByIdAsync(String id) {
+        return gateway.sendAsyncDiscarding(() -> deleteParticipantRequest(id), queuedWrites)
+                .exceptionally(e -> {
+                    throw new RuntimeException("Error deleting participant", e);
+                });
+    }
+
+    private HttpRequest getParticipantsRequest() {
+        return gateway.newRequest("/participants")
+                .GET()
+                .build();
+    }
+
+    private HttpRequest getParticipantsByIdsRequest(List<String> ids) {
+        return gateway.newRequest(GatewayClient.withIds("/participants", ids))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest createParticipantRequest(Participant participant) throws JsonProcessingException {
+        String requestBody = gateway.writer(Participant.class).writeValueAsString(participant);
+
+        return gateway.newCreateRequest("/participants", participant.getId())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpRequest updateParticipantRequest(String id, Participant participant) throws JsonProcessingException {
+        String requestBody = gateway.writer(Participant.class).writeValueAsString(participant);
+
+        return gateway.newRequest("/participants/" + id)
+                .header("Content-Type", "application/json")
+                .method("PUT", HttpRequest.BodyPublishers.ofString(requestBody, StandardCharsets.UTF_8))
+                .build();
+    }
+
+    private HttpRequest deleteParticipantRequest(String id) {
+        return gateway.newRequest("/participants/" + id)
+                .DELETE()
+                .build();
+    }
 }
@@ -0,0 +1,37 @@
+package org.rockets.cli_app.service;
+
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+// Stands in for the gateway's answer to a write that was queued in the outbox instead of sent: 202 Accepted
+// with the request body echoed back, which is what the services would have received for a create.
+public class QueuedResponse<T> extends StoredResponse<T> {
+    public static final String QUEUED_CHANGE = "X-Queued-Change";
+
+    private final Outbox.Change change;
+
+    private QueuedResponse(HttpRequest request, HttpHeaders headers, T body, Outbox.Change change) {
+        super(request, 202, headers, body);
+        this.change = change;
+    }
+
+    public static <T> CompletableFuture<HttpResponse<T>> of(HttpRequest request, Outbox.Change change,
+                                                          HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpHeaders headers = HttpHeaders.of(Map.of(
+                QUEUED_CHANGE, List.of(String.valueOf(change.seq())),
+                "Content-Type", List.of(change.contentType() != null ? change.contentType() : "application/json")),
+                (name, value) -> true);
+        byte[] bytes = change.body() != null ? change.body().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return StoredResponse.body(202, headers, bytes, bodyHandler)
+                .thenApply(body -> new QueuedResponse<>(request, headers, body, change));
+    }
+
+    public Outbox.Change getChange() {
+        return change;
+    }
+}
@@ -0,0 +1,28 @@
+package org.rockets.cli_app.service;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+// How the gateway client treats slow or failing backends: how often idempotent requests are retried and
+// how long to back off between tries, after how many consecutive failures a backend's circuit opens and
+// for how long, and after what delay a second copy of a slow GET is sent (null or zero disables hedging).
+public record ResiliencePolicy(int maxRetries, Duration baseBackoff, Duration maxBackoff,
+                               int failureThreshold, Duration openDuration, Duration hedgeDelay) {
+
+    public static final ResiliencePolicy DEFAULT = new ResiliencePolicy(
+            3, Duration.ofMillis(100), Duration.ofSeconds(2), 5, Duration.ofSeconds(30), null);
+
+    // Every request is sent exactly once and circuits never open
+    public static final ResiliencePolicy NONE = new ResiliencePolicy(
+            0, Duration.ZERO, Duration.ZERO, Integer.MAX_VALUE, Duration.ZERO, null);
+
+    public boolean isHedging() {
+        return hedgeDelay != null && !hedgeDelay.isZero() && !hedgeDelay.isNegative();
+    }
+
+    // Exponential backoff with full jitter, so clients that failed together do not retry together
+    public Duration backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(attempt, 20));
+        return Duration.ofMillis(cap > 0 ? ThreadLocalRandom.current().nextLong(cap + 1) : 0);
+    }
+}
@@ -0,0 +1,320 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// Bounded LRU cache of GET response bodies keyed by request path. Entries are served without a request
+// while younger than the TTL and revalidated with If-None-Match / If-Modified-Since afterwards.
+// When a directory is configured, entries are also written to disk so they survive between CLI runs.
+public class ResponseCache {
+
+    public static class Entry {
+        private final String key;
+        private final String body;
+        private final String etag;
+        private final String lastModified;
+        private volatile long storedAt;
+
+        @JsonCreator
+        public Entry(@JsonProperty("key") String key, @JsonProperty("body") String body,
+                     @JsonProperty("etag") String etag, @JsonProperty("lastModified") String lastModified,
+                     @JsonProperty("storedAt") long storedAt) {
+            this.key = key;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAt = storedAt;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public long getStoredAt() {
+            return storedAt;
+        }
+
+        public boolean isFresh(Duration ttl) {
+            return System.currentTimeMillis() - storedAt < ttl.toMillis();
+        }
+
+        private long size() {
+            return (long) body.length() * 2;
+        }
+    }
+
+    // Collections whose responses embed records of the collection being written to
+    private static final Map<String, List<String>> DEPENDENT_PATHS = Map.of(
+            "/meetings", List.of("/meetings", "/calendars"),
+            "/calendars", List.of("/calendars", "/meetings"),
+            "/participants", List.of("/participants", "/meetings"),
+            "/attachments", List.of("/attachments", "/meetings"));
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    // Version of each record as last read, e.g. "meetings/{id}", whichever response it came in. The most
+    // recently read ones are also kept in memory; on disk there is one small file per record.
+    private final LinkedHashMap<String, String> versions = new LinkedHashMap<>(16, 0.75f, true);
+
+    public ResponseCache(Duration ttl, int maxEntries, long maxBytes, Path directory, ObjectMapper objectMapper) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null && directory != null) {
+            entry = readFromDisk(key);
+            if (entry != null) {
+                putInMemory(entry);
+            }
+        }
+        return entry;
+    }
+
+    public Entry put(String key, String body, String etag, String lastModified) {
+        Entry entry = new Entry(key, body, etag, lastModified, System.currentTimeMillis());
+        synchronized (this) {
+            putInMemory(entry);
+        }
+        writeToDisk(entry);
+        return entry;
+    }
+
+    // Marks an entry as fresh again after the server confirmed it is unchanged
+    public void touch(Entry entry) {
+        entry.storedAt = System.currentTimeMillis();
+        writeToDisk(entry);
+    }
+
+    // Drops every entry whose key starts with the given path, e.g. "/meetings" after a meeting was modified
+    public void invalidate(String pathPrefix) {
+        synchronized (this) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.key.startsWith(pathPrefix)) {
+                    totalBytes -= entry.size();
+                    iterator.remove();
+                }
+            }
+        }
+        invalidateOnDisk(pathPrefix);
+    }
+
+    // Invalidates everything a write to the given path may have changed, e.g. PUT /participants/{id}
+    // drops cached participant lists and the meeting lists that embed participants
+    public void invalidateWritesTo(String path) {
+        String collection = "/" + collectionOf(path);
+        for (String prefix : DEPENDENT_PATHS.getOrDefault(collection, List.of(collection))) {
+            invalidate(prefix);
+        }
+    }
+
+    public String getVersion(String record) {
+        synchronized (this) {
+            String version = versions.get(record);
+            if (version != null || directory == null) {
+                return version;
+            }
+        }
+        try {
+            String version = Files.readString(versionFileFor(record), StandardCharsets.UTF_8);
+            putVersionInMemory(record, version);
+            return version;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void putVersion(String record, String version) {
+        if (version.equals(putVersionInMemory(record, version)) || directory == null) {
+            return;
+        }
+        try {
+            Path file = versionFileFor(record);
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "version", ".tmp");
+            Files.writeString(temp, version, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write record version: " + e.getMessage());
+        }
+    }
+
+    // After a write the version last read is no longer the one on the server
+    public void removeVersion(String record) {
+        synchronized (this) {
+            versions.remove(record);
+        }
+        if (directory != null) {
+            deleteQuietly(versionFileFor(record));
+        }
+    }
+
+    private synchronized String putVersionInMemory(String record, String version) {
+        String previous = versions.put(record, version);
+        Iterator<String> iterator = versions.values().iterator();
+        while (versions.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        return previous;
+    }
+
+    private void putInMemory(Entry entry) {
+        Entry previous = entries.put(entry.key, entry);
+        if (previous != null) {
+            totalBytes -= previous.size();
+        }
+        totalBytes += entry.size();
+
+        // Evict least recently used entries until both limits hold again
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || totalBytes > maxBytes) && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            if (eldest == entry) {
+                break;
+            }
+            totalBytes -= eldest.size();
+            iterator.remove();
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            Entry entry = objectMapper.readValue(file.toFile(), Entry.class);
+            return key.equals(entry.key) ? entry : null;
+        } catch (IOException e) {
+            // Unreadable entries are treated as misses and overwritten on the next store
+            return null;
+        }
+    }
+
+    private void writeToDisk(Entry entry) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            Path file = fileFor(entry.key);
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            objectMapper.writeValue(temp.toFile(), entry);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write cache entry: " + e.getMessage());
+        }
+    }
+
+    private void invalidateOnDisk(String pathPrefix) {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return;
+        }
+        String collectionPrefix = collectionOf(pathPrefix) + "-";
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(collectionPrefix))
+                    .forEach(file -> {
+                        Entry entry = readEntry(file);
+                        if (entry == null || entry.key.startsWith(pathPrefix)) {
+                            deleteQuietly(file);
+                        }
+                    });
+        } catch (IOException e) {
+            System.err.println("Could not invalidate cache entries: " + e.getMessage());
+        }
+    }
+
+    private Entry readEntry(Path file) {
+        try {
+            return objectMapper.readValue(file.toFile(), Entry.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // Another process may have removed it already
+        }
+    }
+
+    // Files are grouped by collection so invalidation only has to look at the affected ones
+    private Path fileFor(String key) {
+        return directory.resolve(collectionOf(key) + "-" + hash(key) + ".json");
+    }
+
+    private Path versionFileFor(String record) {
+        return directory.resolve("versions").resolve(collectionOf("/" + record) + "-" + hash(record));
+    }
+
+    private static String collectionOf(String path) {
+        int end = path.indexOf('/', 1);
+        String collection = end < 0 ? path : path.substring(0, end);
+        int query = collection.indexOf('?');
+        return (query < 0 ? collection : collection.substring(0, query)).replace("/", "");
+    }
+
+    private static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+}
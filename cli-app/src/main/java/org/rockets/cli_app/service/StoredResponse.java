@@ -0,0 +1,119 @@
+package org.rockets.cli_app.service;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+// A response the client puts together itself from bytes it already holds, rather than one read off the wire
+public class StoredResponse<T> implements HttpResponse<T> {
+
+    private final HttpRequest request;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final T body;
+
+    protected StoredResponse(HttpRequest request, int statusCode, HttpHeaders headers, T body) {
+        this.request = request;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public static <T> CompletableFuture<HttpResponse<T>> of(HttpRequest request, int statusCode, HttpHeaders headers,
+                                                          byte[] bytes, HttpResponse.BodyHandler<T> bodyHandler) {
+        return body(statusCode, headers, bytes, bodyHandler)
+                .thenApply(body -> new StoredResponse<>(request, statusCode, headers, body));
+    }
+
+    // Runs the caller's body handler over the bytes, so any handler (string, stream, discarding) works
+    static <T> CompletableFuture<T> body(int statusCode, HttpHeaders headers, byte[] bytes,
+                                         HttpResponse.BodyHandler<T> bodyHandler) {
+        HttpResponse.ResponseInfo info = new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        };
+
+        HttpResponse.BodySubscriber<T> subscriber = bodyHandler.apply(info);
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean delivered;
+
+            @Override
+            public synchronized void request(long n) {
+                if (delivered || n <= 0) {
+                    return;
+                }
+                delivered = true;
+                if (bytes.length > 0) {
+                    subscriber.onNext(List.of(ByteBuffer.wrap(bytes)));
+                }
+                subscriber.onComplete();
+            }
+
+            @Override
+            public synchronized void cancel() {
+                delivered = true;
+            }
+        });
+        return subscriber.getBody().toCompletableFuture();
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpRequest request() {
+        return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    @Override
+    public T body() {
+        return body;
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return Optional.empty();
+    }
+
+    @Override
+    public URI uri() {
+        return request.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return HttpClient.Version.HTTP_1_1;
+    }
+}
@@ -0,0 +1,27 @@
+package org.rockets.cli_app.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+// Appends each command's trace as one line of OTLP/JSON, so a nightly job builds up one file of traces
+public class FileSpanExporter implements SpanExporter {
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileSpanExporter(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void export(List<Span> spans) throws IOException {
+        String line = objectMapper.writeValueAsString(SpanExporter.toOtlpJson(spans, objectMapper)) + "\n";
+        Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
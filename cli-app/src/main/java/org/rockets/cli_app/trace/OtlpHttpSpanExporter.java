@@ -0,0 +1,44 @@
+package org.rockets.cli_app.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+
+// Posts spans to an OTLP/HTTP collector, e.g. http://localhost:4318/v1/traces
+public class OtlpHttpSpanExporter implements SpanExporter {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final URI endpoint;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+
+    public OtlpHttpSpanExporter(URI endpoint, HttpClient httpClient, ObjectMapper objectMapper) {
+        this.endpoint = endpoint;
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void export(List<Span> spans) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(endpoint)
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(SpanExporter.toOtlpJson(spans, objectMapper))))
+                .build();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() / 100 != 2) {
+                throw new IOException("Trace collector at " + endpoint + " returned HTTP " + response.statusCode());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting spans", e);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.rockets.cli_app.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// One timed operation of a trace. IDs are lowercase hex as in the W3C traceparent header.
+public class Span {
+
+    // Numbering follows the OTLP SpanKind enum
+    public enum Kind {
+        INTERNAL(1), CLIENT(3);
+
+        private final int otlpValue;
+
+        Kind(int otlpValue) {
+            this.otlpValue = otlpValue;
+        }
+
+        public int getOtlpValue() {
+            return otlpValue;
+        }
+    }
+
+    private final Tracer tracer;
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final Kind kind;
+    private final long startEpochNanos;
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+    private volatile long endEpochNanos;
+    private volatile String errorMessage;
+
+    Span(Tracer tracer, String traceId, String spanId, String parentSpanId, String name, Kind kind, long startEpochNanos) {
+        this.tracer = tracer;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startEpochNanos = startEpochNanos;
+    }
+
+    // Value of the traceparent header that makes the receiving service's work a child of this span
+    public String traceparent() {
+        return "00-" + traceId + "-" + spanId + "-01";
+    }
+
+    public synchronized Span setAttribute(String key, Object value) {
+        attributes.put(key, value);
+        return this;
+    }
+
+    public Span setError(String message) {
+        this.errorMessage = message != null ? message : "error";
+        return this;
+    }
+
+    public void end() {
+        if (endEpochNanos == 0) {
+            endEpochNanos = tracer.now();
+            tracer.finished(this);
+        }
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    public synchronized Map<String, Object> getAttributes() {
+        return new LinkedHashMap<>(attributes);
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+}
@@ -0,0 +1,59 @@
+package org.rockets.cli_app.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+// Sends the finished spans of a command somewhere. Both exporters use the OTLP/JSON encoding, so the
+// output can be loaded by any OpenTelemetry collector or trace viewer.
+public interface SpanExporter {
+
+    void export(List<Span> spans) throws IOException;
+
+    static ObjectNode toOtlpJson(List<Span> spans, ObjectMapper objectMapper) {
+        ObjectNode request = objectMapper.createObjectNode();
+        ObjectNode resourceSpans = request.putArray("resourceSpans").addObject();
+        addAttribute(resourceSpans.putObject("resource").putArray("attributes"), "service.name", "cli-app");
+
+        ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", "org.rockets.cli_app");
+        ArrayNode encoded = scopeSpans.putArray("spans");
+        for (Span span : spans) {
+            ObjectNode node = encoded.addObject();
+            node.put("traceId", span.getTraceId());
+            node.put("spanId", span.getSpanId());
+            if (span.getParentSpanId() != null) {
+                node.put("parentSpanId", span.getParentSpanId());
+            }
+            node.put("name", span.getName());
+            node.put("kind", span.getKind().getOtlpValue());
+            node.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+            node.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+            ArrayNode attributes = node.putArray("attributes");
+            for (Map.Entry<String, Object> attribute : span.getAttributes().entrySet()) {
+                addAttribute(attributes, attribute.getKey(), attribute.getValue());
+            }
+            if (span.getErrorMessage() != null) {
+                node.putObject("status").put("code", 2).put("message", span.getErrorMessage());
+            }
+        }
+        return request;
+    }
+
+    private static void addAttribute(ArrayNode attributes, String key, Object value) {
+        ObjectNode attribute = attributes.addObject().put("key", key);
+        ObjectNode encoded = attribute.putObject("value");
+        if (value instanceof Integer || value instanceof Long) {
+            // OTLP/JSON encodes 64-bit integers as strings
+            encoded.put("intValue", value.toString());
+        } else if (value instanceof Boolean bool) {
+            encoded.put("boolValue", bool);
+        } else {
+            encoded.put("stringValue", String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.rockets.cli_app.trace;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Collects the spans of one command: a root span for the command itself and a child span for every
+// request it sends. Requests run on the gateway's executor threads, so children attach to the root span
+// rather than to whatever happens to be running on the current thread.
+public class Tracer {
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final long epochNanosAtStart;
+    private final long nanoTimeAtStart;
+    private final Queue<Span> finished = new ConcurrentLinkedQueue<>();
+    private final Span root;
+
+    public Tracer(String commandName) {
+        Instant now = Instant.now();
+        this.epochNanosAtStart = now.getEpochSecond() * 1_000_000_000L + now.getNano();
+        this.nanoTimeAtStart = System.nanoTime();
+        this.root = new Span(this, randomHex(16), randomHex(8), null, commandName, Span.Kind.INTERNAL, now());
+    }
+
+    public Span getRoot() {
+        return root;
+    }
+
+    public String getTraceId() {
+        return root.getTraceId();
+    }
+
+    public Span startSpan(String name, Span.Kind kind) {
+        return new Span(this, root.getTraceId(), randomHex(8), root.getSpanId(), name, kind, now());
+    }
+
+    // Spans ended so far, the root last once it has ended
+    public List<Span> getFinishedSpans() {
+        return new ArrayList<>(finished);
+    }
+
+    // Wall-clock time with nanosecond resolution, measured from a monotonic clock
+    long now() {
+        return epochNanosAtStart + (System.nanoTime() - nanoTimeAtStart);
+    }
+
+    void finished(Span span) {
+        finished.add(span);
+    }
+
+    private static String randomHex(int bytes) {
+        byte[] id = new byte[bytes];
+        do {
+            ThreadLocalRandom.current().nextBytes(id);
+        } while (isZero(id)); // All-zero IDs are invalid in traceparent
+        return HEX.formatHex(id);
+    }
+
+    private static boolean isZero(byte[] id) {
+        for (byte b : id) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
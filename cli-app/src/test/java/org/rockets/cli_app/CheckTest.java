@@ -0,0 +1,222 @@
+package org.rockets;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Boundary cases of the hand-written scanners, and a differential fuzz against the library parsing they
+// replaced: DateTimeFormatter, the email regex and new URL(...). The scanners may only differ from it
+// where they are meant to be stricter.
+class CheckTest {
+    private static final int FUZZ_ROUNDS = 200_000;
+
+    private static final DateTimeFormatter OLD_DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter STRICT_DATE_TIME = DateTimeFormatter.ofPattern("uuuu-MM-dd HH:mm")
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final Pattern OLD_EMAIL = Pattern.compile("^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@"
+            + "(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$");
+
+    @Test
+    void acceptsExistingDateTimes() {
+        for (String dateTime : new String[]{"2024-06-01 10:00", "2024-02-29 00:00", "2000-02-29 23:59", "0001-01-01 00:00", "9999-12-31 23:59"}) {
+            assertTrue(Check.validateDateTimeFormat(dateTime), dateTime);
+        }
+    }
+
+    // The lenient resolver rolled the first three over to another day; a year beyond four digits is not "yyyy"
+    @Test
+    void rejectsDateTimesThatDoNotExistOrAreMalformed() {
+        for (String dateTime : new String[]{"2023-02-29 10:00", "1900-02-29 10:00", "2024-04-31 10:00", "2024-01-01 24:00",
+                "+12345-01-01 10:00", "0000-01-01 10:00", "2024-13-01 10:00", "2024-01-00 10:00", "2024-01-01 10:60",
+                "2024-1-01 10:00", "2024-01-01T10:00", "2024-01-01 10:00 ", "", " "}) {
+            assertFalse(Check.validateDateTimeFormat(dateTime), dateTime);
+        }
+    }
+
+    @Test
+    void rejectsMissingDateTime() {
+        assertFalse(Check.validateDateTimeFormat(null));
+        assertFalse(Check.validateDateTime(null));
+    }
+
+    @Test
+    void acceptsEmails() {
+        for (String email : new String[]{"a@example.com", "first.last+tag@mail.example.co", "a_b&c*d-e@x-y.io", "x@y.abcdefg"}) {
+            assertTrue(Check.isValidEmail(email), email);
+        }
+    }
+
+    @Test
+    void rejectsMalformedEmails() {
+        for (String email : new String[]{"@example.com", "a@", "a@example", "a@.com", "a@example.c", "a@example.abcdefgh",
+                "a..b@example.com", ".a@example.com", "a.@example.com", "a@exa..mple.com", "a@example.c0m", "a b@example.com", ""}) {
+            assertFalse(Check.isValidEmail(email), email);
+        }
+    }
+
+    @Test
+    void acceptsUrls() {
+        for (String url : new String[]{"https://example.com", "http://example.com:8080/path?q=1#f", "HTTP://example.com",
+                "ftp://user@files.example.com/a.pdf", "http://[::1]:8080/", "http://[1:2:3:4:5:6:7:8]/", "http://h:", "file:/tmp/a.pdf",
+                "mailto:a@example.com", "jar:file:/a.jar!/b.txt", "jrt:/java.base"}) {
+            assertTrue(Check.isValidURL(url), url);
+        }
+    }
+
+    // The first six have no host and the seventh has a space, which new URL(...) let through in some schemes
+    @Test
+    void rejectsMalformedUrls() {
+        for (String url : new String[]{"http://", "https://:80", "http://@/", "http:example.com", "ftp:/x", "file:",
+                "http://exa mple.com", "http://h:8a", "http://[::1", "http://[zz]/", "http://[1::2::3]/",
+                "http://e<x>.com/", "http://a[b@h/", "mailto:#f", "jar:x", "jar:nope!/a", "example.com", "://x", ""}) {
+            assertFalse(Check.isValidURL(url), url);
+        }
+    }
+
+    @Test
+    void dateTimesMatchTheFormatterExceptForRolledOverDates() {
+        Random random = new Random(12);
+        for (int i = 0; i < FUZZ_ROUNDS; i++) {
+            String dateTime = mutate(random, String.format("%04d-%02d-%02d %02d:%02d", random.nextInt(10_000),
+                    random.nextInt(14), random.nextInt(33), random.nextInt(26), random.nextInt(62)), "0123456789-: +T");
+            // Old and strict: the format parses and the date needed no rolling over
+            boolean expected = oldDateTime(dateTime) && strictDateTime(dateTime);
+            assertEquals(expected, Check.validateDateTimeFormat(dateTime), dateTime);
+        }
+    }
+
+    @Test
+    void emailsMatchTheOldRegex() {
+        Random random = new Random(34);
+        String[] seeds = {"a@example.com", "first.last@mail.example.co", "x_y+z@a-b.io", "a@b.cd"};
+        for (int i = 0; i < FUZZ_ROUNDS; i++) {
+            String email = random.nextInt(4) == 0
+                    ? randomText(random, "ab09_+&*-.@ Z", 16)
+                    : mutate(random, seeds[random.nextInt(seeds.length)], "ab09_+&*-.@ Zé");
+            assertEquals(OLD_EMAIL.matcher(email).matches(), Check.isValidEmail(email), email);
+        }
+    }
+
+    @Test
+    void urlsAcceptedAreAcceptedByUrlAndOnlyHostlessSpacedOrMalformedOnesDiffer() {
+        Random random = new Random(56);
+        String[] schemes = {"http", "https", "ftp", "HTTP", "file", "mailto", "jar", "jrt", "gopher", ""};
+        String[] hosts = {"", "example.com", "h", "[::1]", "[::1", "user@h", "@", "exa mple"};
+        String[] ports = {"", ":", ":80", ":8a"};
+        String[] paths = {"", "/", "/p/q", "?x=1", "#f", " x", "!/a"};
+        for (int i = 0; i < FUZZ_ROUNDS; i++) {
+            String url = schemes[random.nextInt(schemes.length)] + ":" + (random.nextBoolean() ? "//" : "")
+                    + hosts[random.nextInt(hosts.length)] + ports[random.nextInt(ports.length)] + paths[random.nextInt(paths.length)];
+            if (random.nextInt(4) == 0) {
+                url = mutate(random, url, ":/@[]!. ab");
+            }
+            boolean old = oldUrl(url);
+            boolean scanned = Check.isValidURL(url);
+            if (scanned) {
+                assertTrue(old, url);
+            } else if (old) {
+                assertTrue(isHostless(url) || hasMalformedAuthority(url) || url.chars().anyMatch(c -> c <= ' '), url);
+            }
+        }
+    }
+
+    private static boolean oldDateTime(String dateTime) {
+        try {
+            LocalDateTime.parse(dateTime, OLD_DATE_TIME);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static boolean strictDateTime(String dateTime) {
+        try {
+            LocalDateTime.parse(dateTime, STRICT_DATE_TIME);
+            return dateTime.length() == 16;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean oldUrl(String url) {
+        try {
+            new URL(url);
+            return true;
+        } catch (MalformedURLException e) {
+            return false;
+        }
+    }
+
+    // A hierarchical URL without a host, or a scheme with nothing after it, as new URL(...) allowed
+    private static boolean isHostless(String url) {
+        int colon = url.indexOf(':');
+        String scheme = url.substring(0, colon).toLowerCase();
+        String rest = url.substring(colon + 1);
+        if (!scheme.equals("http") && !scheme.equals("https") && !scheme.equals("ftp")) {
+            return rest.isEmpty();
+        }
+        if (!rest.startsWith("//")) {
+            return true;
+        }
+        String authority = rest.substring(2).split("[/?#]", -1)[0];
+        String host = authority.substring(authority.lastIndexOf('@') + 1);
+        return host.isEmpty() || host.startsWith(":");
+    }
+
+    // An authority with several '@' or a bracket outside a host of the form [...]; new URL(...) skipped
+    // some of its checks on these
+    private static boolean hasMalformedAuthority(String url) {
+        int start = url.indexOf("//");
+        if (start < 0) {
+            return false;
+        }
+        String authority = url.substring(start + 2).split("[/?#]", -1)[0];
+        String host = authority.substring(authority.lastIndexOf('@') + 1);
+        String userInfo = authority.substring(0, authority.length() - host.length());
+        return userInfo.indexOf('@') < userInfo.length() - 1 || userInfo.contains("[") || userInfo.contains("]")
+                || (host.startsWith("[") ? host.indexOf(']') < 0 : host.contains("[") || host.contains("]"));
+    }
+
+    // Replaces, inserts or deletes up to three characters
+    private static String mutate(Random random, String text, String alphabet) {
+        StringBuilder result = new StringBuilder(text);
+        for (int edits = random.nextInt(4); edits > 0; edits--) {
+            int at = random.nextInt(result.length() + 1);
+            char c = alphabet.charAt(random.nextInt(alphabet.length()));
+            switch (random.nextInt(3)) {
+                case 0 -> result.insert(at, c);
+                case 1 -> {
+                    if (at < result.length()) {
+                        result.setCharAt(at, c);
+                    }
+                }
+                default -> {
+                    if (at < result.length()) {
+                        result.deleteCharAt(at);
+                    }
+                }
+            }
+        }
+        return result.toString();
+    }
+
+    private static String randomText(Random random, String alphabet, int maxLength) {
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
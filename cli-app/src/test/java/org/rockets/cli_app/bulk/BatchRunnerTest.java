@@ -0,0 +1,58 @@
+package org.rockets.cli_app.bulk;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.rockets.cli_app.cli.parser.CommandLineParser;
+import org.rockets.cli_app.service.FakeGateway;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchRunnerTest {
+
+    @TempDir
+    static Path directory;
+
+    private static FakeGateway gateway;
+
+    // The commands use the default gateway client, which reads its settings once per JVM
+    @BeforeAll
+    static void startGateway() throws Exception {
+        gateway = new FakeGateway(request -> request.method().equals("GET")
+                ? new FakeGateway.Reply(200, "[]")
+                : new FakeGateway.Reply(503, null));
+        System.setProperty("cli.gateway.url", gateway.baseUrl());
+        System.setProperty("cli.outbox.file", directory.resolve("outbox.ndjson").toString());
+        System.setProperty("cli.retry.max", "0");
+        System.setProperty("cli.cache.ttlSeconds", "0");
+    }
+
+    @AfterAll
+    static void stopGateway() {
+        gateway.close();
+    }
+
+    @Test
+    void stepsWhoseWritesWereQueuedAreReportedAndTheirDependentsSkipped() throws Exception {
+        List<CommandScript.Step> steps = CommandScript.parse(new BufferedReader(new StringReader("""
+                name=p create participant --name Ada --email ada@example.com
+                after=p update participant --id 3f0b6a52-8c57-4c0e-9d0a-5c1f6f0f2b11 --name Grace
+                list participant
+                """)));
+
+        BatchRunner.Result result = new BatchRunner(4,
+                () -> CommandLineParser.newCommandLine().setExecutionStrategy(new CommandLine.RunLast())).run(steps);
+
+        assertEquals(1, result.succeeded());
+        assertEquals(1, result.queued());
+        assertEquals(0, result.failed());
+        assertEquals(1, result.skipped());
+    }
+}
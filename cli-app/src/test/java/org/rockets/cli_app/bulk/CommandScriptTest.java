@@ -0,0 +1,84 @@
+package org.rockets.cli_app.bulk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CommandScriptTest {
+
+    @Test
+    void linesAreSplitLikeTheShellSplitsThem() throws IOException {
+        List<CommandScript.Step> steps = parse("""
+                # comment
+
+                create meeting --title "Team sync" --location 'Room 4'
+                  list meetings
+                """);
+
+        assertEquals(2, steps.size());
+        assertEquals(List.of("create", "meeting", "--title", "Team sync", "--location", "Room 4"), steps.get(0).args());
+        assertEquals(3, steps.get(0).lineNumber());
+        assertEquals(List.of("list", "meetings"), steps.get(1).args());
+        assertEquals(4, steps.get(1).lineNumber());
+    }
+
+    @Test
+    void namedLinesCanBeRunAfter() throws IOException {
+        List<CommandScript.Step> steps = parse("""
+                name=a create calendar --name A
+                name=b create calendar --name B
+                after=a,b name=c list calendars
+                list meetings
+                """);
+
+        assertEquals("a", steps.get(0).label());
+        assertEquals(Set.of(), steps.get(0).dependsOn());
+        assertEquals("c", steps.get(2).label());
+        assertEquals(Set.of(0, 1), steps.get(2).dependsOn());
+        assertEquals(List.of("list", "calendars"), steps.get(2).args());
+        assertNull(steps.get(3).label());
+        assertEquals(Set.of(), steps.get(3).dependsOn());
+    }
+
+    @Test
+    void waitHoldsBackEveryLaterLine() throws IOException {
+        List<CommandScript.Step> steps = parse("""
+                list meetings
+                list calendars
+                wait
+                list participants
+                wait
+                list attachments
+                """);
+
+        assertEquals(0, steps.get(0).barrier());
+        assertEquals(0, steps.get(1).barrier());
+        assertEquals(2, steps.get(2).barrier());
+        assertEquals(3, steps.get(3).barrier());
+    }
+
+    @Test
+    void malformedLinesNameTheLine() {
+        assertError("Line 2: no earlier line is named 'b'", "name=a list meetings\nafter=b list calendars\n");
+        assertError("Line 1: no earlier line is named 'b'", "after=b name=b list meetings\n");
+        assertError("Line 2: duplicate name 'a'", "name=a list meetings\nname=a list calendars\n");
+        assertError("Line 1: empty name", "name= list meetings\n");
+        assertError("Line 1: no command", "name=a\n");
+    }
+
+    private static void assertError(String message, String script) {
+        assertEquals(message, assertThrows(IOException.class, () -> parse(script)).getMessage());
+    }
+
+    private static List<CommandScript.Step> parse(String script) throws IOException {
+        return CommandScript.parse(new BufferedReader(new StringReader(script)));
+    }
+}
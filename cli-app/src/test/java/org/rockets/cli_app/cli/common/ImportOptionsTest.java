@@ -0,0 +1,30 @@
+package org.rockets.cli_app.cli.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ImportOptionsTest {
+
+    @Test
+    void defaultsAreValid() {
+        assertNull(options(16, 3, 5).invalidOption());
+        assertNull(options(1, 0, 1).invalidOption());
+    }
+
+    @Test
+    void valuesThatWouldHangOrFailTheImportAreRejected() {
+        assertEquals("--concurrency must be at least 1", options(0, 3, 5).invalidOption());
+        assertEquals("--retries must not be negative", options(16, -1, 5).invalidOption());
+        assertEquals("--progress-interval must be at least 1", options(16, 3, 0).invalidOption());
+    }
+
+    private static ImportOptions options(int concurrency, int retries, int progressInterval) {
+        ImportOptions options = new ImportOptions();
+        options.concurrency = concurrency;
+        options.retries = retries;
+        options.progressInterval = progressInterval;
+        return options;
+    }
+}
@@ -0,0 +1,27 @@
+package org.rockets.cli_app.cli.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PageOptionsTest {
+
+    @Test
+    void positivePageSizesAreValid() {
+        assertNull(options(100).invalidOption());
+        assertNull(options(1).invalidOption());
+    }
+
+    @Test
+    void pageSizesBelowOneAreRejected() {
+        assertEquals("--page-size must be at least 1", options(0).invalidOption());
+        assertEquals("--page-size must be at least 1", options(-5).invalidOption());
+    }
+
+    private static PageOptions options(int pageSize) {
+        PageOptions options = new PageOptions();
+        options.pageSize = pageSize;
+        return options;
+    }
+}
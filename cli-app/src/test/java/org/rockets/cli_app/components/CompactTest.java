@@ -0,0 +1,80 @@
+package org.rockets.cli_app.components;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompactTest {
+
+    @Test
+    void uuidsArePackedIntoTheirTwoHalvesAndFormattedBack() {
+        Random random = new Random(24);
+        List<String> ids = new ArrayList<>(List.of("00000000-0000-0000-0000-000000000001",
+                "ffffffff-ffff-ffff-ffff-ffffffffffff", "80000000-0000-0000-8000-000000000000"));
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(new UUID(random.nextLong(), random.nextLong()).toString());
+        }
+        for (String id : ids) {
+            UUID uuid = UUID.fromString(id);
+            assertNull(Compact.idText(id), id);
+            assertEquals(uuid.getMostSignificantBits(), Compact.idHigh(id), id);
+            assertEquals(uuid.getLeastSignificantBits(), Compact.idLow(id), id);
+            assertEquals(id, Compact.id(Compact.idHigh(id), Compact.idLow(id), null));
+        }
+    }
+
+    @Test
+    void idsThatAreNotLowercaseUuidsAreKeptAsText() {
+        for (String id : new String[]{"3F2504E0-4F89-11D3-9A0C-0305E82C3301", "00000000-0000-0000-0000-000000000000",
+                "3f2504e0-4f89-11d3-9a0c-0305e82c330", "3f2504e04f8911d39a0c0305e82c3301", "3f2504e0+4f89-11d3-9a0c-0305e82c3301",
+                "3g2504e0-4f89-11d3-9a0c-0305e82c3301", "meeting-42", ""}) {
+            assertSame(id, Compact.idText(id), id);
+            assertSame(id, Compact.id(0, 0, Compact.idText(id)), id);
+        }
+    }
+
+    @Test
+    void aNullIdIsAllZeros() {
+        assertNull(Compact.idText(null));
+        assertEquals(0, Compact.idHigh(null));
+        assertEquals(0, Compact.idLow(null));
+        assertNull(Compact.id(0, 0, null));
+    }
+
+    @Test
+    void recordsGiveBackTheIdTheyWereDecodedWith() {
+        for (String id : new String[]{"3f2504e0-4f89-11d3-9a0c-0305e82c3301", "3F2504E0-4F89-11D3-9A0C-0305E82C3301",
+                "00000000-0000-0000-0000-000000000000", "meeting-42"}) {
+            Meeting meeting = new Meeting(id);
+            assertEquals(id, meeting.getId());
+            assertEquals(new Meeting(id), meeting);
+            assertEquals(new Meeting(id).hashCode(), meeting.hashCode());
+        }
+        assertNull(new Meeting((String) null).getId());
+        assertNotEquals(new Meeting("3f2504e0-4f89-11d3-9a0c-0305e82c3301"), new Meeting("3F2504E0-4F89-11D3-9A0C-0305E82C3301"));
+    }
+
+    @Test
+    void emptyListsShareOneInstanceUntilAddedTo() {
+        List<String> empty = Compact.list(new ArrayList<>());
+        assertSame(Collections.emptyList(), empty);
+        assertSame(Collections.emptyList(), Compact.list(null));
+
+        List<String> added = Compact.mutable(empty);
+        assertNotSame(empty, added);
+        added.add("a");
+        List<String> list = Compact.list(added);
+        assertSame(added, list);
+        assertSame(list, Compact.mutable(list));
+    }
+}
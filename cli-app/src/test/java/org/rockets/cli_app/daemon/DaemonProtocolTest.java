@@ -0,0 +1,40 @@
+package org.rockets.cli_app.daemon;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DaemonProtocolTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void theDefaultSocketIsNotInTheSharedTempDirectory() {
+        Path socket = DaemonProtocol.defaultSocket().toAbsolutePath();
+        assertNotEquals(Path.of(System.getProperty("java.io.tmpdir")).toAbsolutePath(), socket.getParent());
+    }
+
+    @Test
+    void aMissingSocketDirectoryIsCreatedOwnerOnly() throws Exception {
+        Path socket = directory.resolve("run").resolve("cli_app").resolve("daemon.sock");
+        DaemonProtocol.prepareDirectory(socket);
+
+        assertTrue(Files.isDirectory(socket.getParent()));
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(socket.getParent())));
+    }
+
+    @Test
+    void aSocketTheUserOwnsIsAccepted() throws Exception {
+        Path socket = Files.createFile(directory.resolve("daemon.sock"));
+        assertDoesNotThrow(() -> DaemonProtocol.checkSocket(socket));
+    }
+}
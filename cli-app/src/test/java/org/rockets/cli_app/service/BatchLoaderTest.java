@@ -0,0 +1,188 @@
+package org.rockets.cli_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchLoaderTest {
+
+    @Test
+    void lookupsWithinTheWindowGoOutAsOneRequest() throws Exception {
+        Items items = new Items("a", "b", "c");
+        BatchLoader<Item> loader = items.loader(100, Duration.ofMillis(50));
+
+        CompletableFuture<Item> a = loader.load("a");
+        CompletableFuture<Item> b = loader.load("b");
+        CompletableFuture<Item> c = loader.load("c");
+
+        assertEquals("a", get(a).id);
+        assertEquals("b", get(b).id);
+        assertEquals("c", get(c).id);
+        assertEquals(List.of(List.of("a", "b", "c")), items.requests);
+        assertEquals(3, loader.getLoadCount());
+        assertEquals(1, loader.getBatchCount());
+    }
+
+    @Test
+    void aFullBatchGoesOutWithoutWaitingForTheWindow() throws Exception {
+        Items items = new Items("a", "b", "c");
+        BatchLoader<Item> loader = items.loader(2, Duration.ofMillis(200));
+
+        CompletableFuture<Item> a = loader.load("a");
+        loader.load("b");
+        assertEquals(List.of(List.of("a", "b")), items.requests);
+        assertTrue(a.isDone());
+
+        CompletableFuture<Item> c = loader.load("c");
+        assertFalse(c.isDone());
+        assertEquals("c", get(c).id);
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), items.requests);
+    }
+
+    @Test
+    void callersAskingForTheSameIdEachGetTheirOwnCopy() throws Exception {
+        Items items = new Items("a");
+        BatchLoader<Item> loader = items.loader(100, Duration.ofMillis(20));
+
+        CompletableFuture<Item> first = loader.load("a");
+        CompletableFuture<Item> second = loader.load("a");
+
+        assertNotSame(get(first), get(second));
+        assertEquals(get(first).name, get(second).name);
+        assertEquals(List.of(List.of("a")), items.requests);
+    }
+
+    @Test
+    void anIdAlreadyOnTheWireJoinsThatRequest() throws Exception {
+        Items items = new Items("a");
+        CompletableFuture<List<Item>> response = new CompletableFuture<>();
+        items.pending = response;
+        BatchLoader<Item> loader = items.loader(1, Duration.ofSeconds(10));
+
+        CompletableFuture<Item> first = loader.load("a");
+        CompletableFuture<Item> second = loader.load("a");
+        response.complete(List.of(new Item("a", "name of a")));
+
+        assertEquals("a", get(first).id);
+        assertEquals("a", get(second).id);
+        assertEquals(1, items.requests.size());
+    }
+
+    @Test
+    void idsTheBackendDoesNotReturnFailWithNotFound() throws Exception {
+        Items items = new Items("a");
+        BatchLoader<Item> loader = items.loader(100, Duration.ofMillis(20));
+
+        CompletableFuture<Item> found = loader.load("a");
+        CompletableFuture<Item> missing = loader.load("x");
+
+        assertEquals("a", get(found).id);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> get(missing));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertEquals("Item not found: x", e.getCause().getMessage());
+    }
+
+    @Test
+    void aFailedRequestFailsEveryCallerInIt() {
+        Items items = new Items();
+        items.pending = CompletableFuture.failedFuture(new IOException("gateway down"));
+        BatchLoader<Item> loader = items.loader(100, Duration.ofMillis(20));
+
+        CompletableFuture<Item> a = loader.load("a");
+        CompletableFuture<Item> b = loader.load("b");
+
+        assertEquals("gateway down", assertThrows(ExecutionException.class, () -> get(a)).getCause().getMessage());
+        assertEquals("gateway down", assertThrows(ExecutionException.class, () -> get(b)).getCause().getMessage());
+    }
+
+    @Test
+    void cachedRecordsSkipTheBatch() throws Exception {
+        Items items = new Items("a");
+        Item cached = new Item("a", "cached");
+        items.cache.put("a", cached);
+        BatchLoader<Item> loader = items.loader(100, Duration.ofMillis(20));
+
+        assertSame(cached, get(loader.load("a")));
+        assertTrue(items.requests.isEmpty());
+        assertEquals(0, loader.getBatchCount());
+    }
+
+    private static Item get(CompletableFuture<Item> future) throws Exception {
+        return future.get(5, TimeUnit.SECONDS);
+    }
+
+    private static final class Item {
+        final String id;
+        String name;
+
+        Item(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    // A backend holding the given IDs that records each ?ids= request
+    private static final class Items implements BatchLoader.Source<Item> {
+        final List<String> known;
+        final List<List<String>> requests = new CopyOnWriteArrayList<>();
+        final Map<String, Item> cache = new ConcurrentHashMap<>();
+        // Answer to hand out instead of looking the IDs up, if set
+        CompletableFuture<List<Item>> pending;
+
+        Items(String... known) {
+            this.known = List.of(known);
+        }
+
+        BatchLoader<Item> loader(int maxBatchSize, Duration delay) {
+            return new BatchLoader<>("Item", this, maxBatchSize, delay, ForkJoinPool.commonPool());
+        }
+
+        @Override
+        public CompletableFuture<List<Item>> loadAll(List<String> ids) {
+            requests.add(ids);
+            if (pending != null) {
+                return pending;
+            }
+            List<Item> found = new ArrayList<>();
+            for (String id : ids) {
+                if (known.contains(id)) {
+                    found.add(new Item(id, "name of " + id));
+                }
+            }
+            return CompletableFuture.completedFuture(found);
+        }
+
+        @Override
+        public Item cached(String id) {
+            return cache.get(id);
+        }
+
+        @Override
+        public String idOf(Item record) {
+            return record.id;
+        }
+
+        @Override
+        public Item copy(Item record) {
+            return new Item(record.id, record.name);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.rockets.cli_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompressionTest {
+
+    @Test
+    void bodiesAreInflatedWhateverTheChunking() throws Exception {
+        byte[] data = text(1 << 20);
+        byte[] compressed = Compression.gzip(data);
+        for (int slice : new int[]{7, 1000, compressed.length}) {
+            assertArrayEquals(data, inflate(compressed, slice), "slice " + slice);
+        }
+        byte[] small = text(5_000);
+        assertArrayEquals(small, inflate(Compression.gzip(small), 1));
+    }
+
+    @Test
+    void optionalHeaderFieldsConcatenatedMembersAndTrailingBytesAreHandledLikeGzipInputStream() throws Exception {
+        byte[] first = text(3_000);
+        byte[] second = "second member".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.writeBytes(member(first, true));
+        body.writeBytes(Compression.gzip(second));
+        body.writeBytes("trailing garbage".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.writeBytes(first);
+        expected.writeBytes(second);
+        for (int slice : new int[]{1, 3, 64, body.size()}) {
+            assertArrayEquals(expected.toByteArray(), inflate(body.toByteArray(), slice), "slice " + slice);
+        }
+    }
+
+    @Test
+    void anEmptyBodyIsEmpty() throws Exception {
+        assertArrayEquals(new byte[0], inflate(new byte[0], 10));
+    }
+
+    @Test
+    void onlyAsMuchInputIsRequestedAsTheReaderNeeds() throws Exception {
+        Random random = new Random(18);
+        byte[] data = new byte[8 << 20];
+        random.nextBytes(data);
+        byte[] compressed = Compression.gzip(data);
+
+        Publisher publisher = new Publisher(compressed, 16 * 1024);
+        InputStream in = publisher.subscribe(HttpResponse.BodyHandlers.ofInputStream()).get();
+        byte[] start = in.readNBytes(100);
+
+        assertArrayEquals(Arrays.copyOf(data, 100), start);
+        assertTrue(publisher.delivered() < 4, publisher.delivered() + " of " + publisher.slices() + " chunks read for 100 bytes");
+        assertArrayEquals(Arrays.copyOfRange(data, 100, data.length), in.readAllBytes());
+        in.close();
+    }
+
+    @Test
+    void damagedStreamsFail() {
+        byte[] compressed = Compression.gzip(text(10_000));
+
+        byte[] badCrc = compressed.clone();
+        badCrc[badCrc.length - 8] ^= 1;
+        assertEquals("Corrupt gzip trailer: CRC mismatch", failure(badCrc, ZipException.class).getMessage());
+
+        failure(Arrays.copyOf(compressed, compressed.length - 3), EOFException.class);
+        failure(Arrays.copyOf(compressed, compressed.length / 2), EOFException.class);
+        assertEquals("Not in GZIP format", failure("plain text".getBytes(StandardCharsets.UTF_8), ZipException.class).getMessage());
+    }
+
+    private static Throwable failure(byte[] body, Class<? extends IOException> type) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> inflate(body, 100));
+        return assertInstanceOf(type, e.getCause());
+    }
+
+    private static byte[] inflate(byte[] compressed, int slice) throws Exception {
+        return new Publisher(compressed, slice).subscribe(HttpResponse.BodyHandlers.ofByteArray()).get();
+    }
+
+    private static byte[] text(int length) {
+        Random random = new Random(length);
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("meeting-").append(random.nextInt(10_000)).append(random.nextBoolean() ? ",standup " : ",review ");
+        }
+        return text.substring(0, length).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // A gzip member, optionally with every optional header field set (RFC 1952)
+    private static byte[] member(byte[] data, boolean allFields) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{0x1f, (byte) 0x8b, 8, (byte) (allFields ? 4 | 8 | 16 | 2 : 0), 0, 0, 0, 0, 0, (byte) 255});
+        if (allFields) {
+            out.writeBytes(new byte[]{3, 0, 'a', 'b', 'c'});
+            out.writeBytes("name.json\0".getBytes(StandardCharsets.ISO_8859_1));
+            out.writeBytes("comment\0".getBytes(StandardCharsets.ISO_8859_1));
+            out.writeBytes(new byte[]{0, 0});
+        }
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[4096];
+        while (!deflater.finished()) {
+            out.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        out.writeBytes(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt((int) crc.getValue()).putInt(data.length).array());
+        return out.toByteArray();
+    }
+
+    // Hands the body out in slices, one per item requested, the way the client's connection would
+    private static final class Publisher implements Flow.Subscription {
+        private final byte[] body;
+        private final int slice;
+        private Flow.Subscriber<List<ByteBuffer>> subscriber;
+        private int offset;
+        private int delivered;
+        private boolean completed;
+
+        Publisher(byte[] body, int slice) {
+            this.body = body;
+            this.slice = slice;
+        }
+
+        <T> CompletableFuture<T> subscribe(HttpResponse.BodyHandler<T> handler) {
+            HttpHeaders headers = HttpHeaders.of(Map.of("Content-Encoding", List.of("gzip")), (name, value) -> true);
+            HttpResponse.BodySubscriber<T> bodySubscriber = Compression.decoding(handler).apply(new HttpResponse.ResponseInfo() {
+                @Override
+                public int statusCode() {
+                    return 200;
+                }
+
+                @Override
+                public HttpHeaders headers() {
+                    return headers;
+                }
+
+                @Override
+                public HttpClient.Version version() {
+                    return HttpClient.Version.HTTP_1_1;
+                }
+            });
+            subscriber = bodySubscriber;
+            bodySubscriber.onSubscribe(this);
+            return bodySubscriber.getBody().toCompletableFuture();
+        }
+
+        int delivered() {
+            return delivered;
+        }
+
+        int slices() {
+            return (body.length + slice - 1) / slice;
+        }
+
+        @Override
+        public void request(long n) {
+            for (long i = 0; i < n && !completed; i++) {
+                if (offset >= body.length) {
+                    completed = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                int length = Math.min(slice, body.length - offset);
+                ByteBuffer buffer = ByteBuffer.wrap(body, offset, length).slice();
+                offset += length;
+                delivered++;
+                subscriber.onNext(List.of(buffer));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.rockets.cli_app.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// In-process gateway whose answers the test scripts, recording every request it receives
+public final class FakeGateway implements AutoCloseable {
+
+    public record Request(String method, String target, String body) {
+    }
+
+    public record Reply(int status, String body) {
+    }
+
+    public interface Handler {
+        Reply handle(Request request) throws Exception;
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+
+    public FakeGateway(Handler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> respond(exchange, handler));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public List<Request> requests() {
+        return requests;
+    }
+
+    private void respond(HttpExchange exchange, Handler handler) throws IOException {
+        try (InputStream in = exchange.getRequestBody(); OutputStream out = exchange.getResponseBody()) {
+            Request request = new Request(exchange.getRequestMethod(), exchange.getRequestURI().toString(),
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            requests.add(request);
+            Reply reply;
+            try {
+                reply = handler.handle(request);
+            } catch (Exception e) {
+                reply = new Reply(500, e.toString());
+            }
+            byte[] body = reply.body() != null ? reply.body().getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(reply.status(), body.length > 0 ? body.length : -1);
+            out.write(body);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
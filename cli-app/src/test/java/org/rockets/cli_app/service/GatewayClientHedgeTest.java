@@ -0,0 +1,65 @@
+package org.rockets.cli_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GatewayClientHedgeTest {
+
+    @Test
+    void aFailedCopyWaitsForTheOtherOne() throws Exception {
+        AtomicInteger received = new AtomicInteger();
+        try (FakeGateway gateway = new FakeGateway(request -> {
+            if (received.incrementAndGet() == 1) {
+                Thread.sleep(100);
+                return new FakeGateway.Reply(500, null);
+            }
+            Thread.sleep(300);
+            return new FakeGateway.Reply(200, "[]");
+        })) {
+            GatewayClient client = client(gateway, Duration.ofMinutes(5));
+
+            HttpResponse<String> response = client.send(client.newRequest("/meetings").GET().build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, response.statusCode());
+            assertEquals(1, client.getHedgeCount());
+        }
+    }
+
+    @Test
+    void aHalfOpenCircuitSendsASingleProbe() throws Exception {
+        AtomicBoolean healthy = new AtomicBoolean();
+        AtomicInteger probes = new AtomicInteger();
+        try (FakeGateway gateway = new FakeGateway(request -> {
+            if (!healthy.get()) {
+                return new FakeGateway.Reply(503, null);
+            }
+            probes.incrementAndGet();
+            Thread.sleep(300);
+            return new FakeGateway.Reply(200, "[]");
+        })) {
+            GatewayClient client = client(gateway, Duration.ofMillis(100));
+            assertEquals(503, client.send(client.newRequest("/meetings").GET().build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            long hedgesWhileFailing = client.getHedgeCount();
+            healthy.set(true);
+            Thread.sleep(200);
+
+            HttpResponse<String> probe = client.send(client.newRequest("/meetings").GET().build(), HttpResponse.BodyHandlers.ofString());
+
+            assertEquals(200, probe.statusCode());
+            assertEquals(1, probes.get());
+            assertEquals(hedgesWhileFailing, client.getHedgeCount());
+        }
+    }
+
+    private static GatewayClient client(FakeGateway gateway, Duration openDuration) {
+        GatewayClient client = new GatewayClient(gateway.baseUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), 4);
+        client.setResiliencePolicy(new ResiliencePolicy(0, Duration.ZERO, Duration.ZERO, 1, openDuration, Duration.ofMillis(50)));
+        return client;
+    }
+}
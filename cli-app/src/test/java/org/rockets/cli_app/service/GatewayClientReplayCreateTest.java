@@ -0,0 +1,60 @@
+package org.rockets.cli_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A retried create whose first try went through is answered by the ?ids= lookup instead of failing
+class GatewayClientReplayCreateTest {
+    private static final String ID = "3f0b6a52-8c57-4c0e-9d0a-5c1f6f0f2b11";
+    private static final String MEETING = "{\"id\":\"" + ID + "\",\"title\":\"Standup\"}";
+
+    @Test
+    void createThatWentThroughBeforeFailingIsReportedAsTheRecord() throws Exception {
+        AtomicInteger posts = new AtomicInteger();
+        try (FakeGateway gateway = new FakeGateway(request -> {
+            if (request.method().equals("POST")) {
+                // The first try is stored but its answer is lost; the retry then hits the duplicate
+                return posts.incrementAndGet() == 1 ? new FakeGateway.Reply(503, null) : new FakeGateway.Reply(409, "duplicate id");
+            }
+            return new FakeGateway.Reply(200, "[" + MEETING + "]");
+        })) {
+            HttpResponse<String> response = create(gateway, "/meetings");
+
+            assertEquals(200, response.statusCode());
+            assertEquals(MEETING, response.body());
+            assertEquals("/meetings?ids=" + ID, gateway.requests().get(2).target());
+        }
+    }
+
+    @Test
+    void createThatNeverWentThroughKeepsTheBackendsAnswer() throws Exception {
+        AtomicInteger posts = new AtomicInteger();
+        try (FakeGateway gateway = new FakeGateway(request -> {
+            if (request.method().equals("POST")) {
+                return posts.incrementAndGet() == 1 ? new FakeGateway.Reply(503, null) : new FakeGateway.Reply(400, "title is required");
+            }
+            return new FakeGateway.Reply(200, "[]");
+        })) {
+            HttpResponse<String> response = create(gateway, "/meetings");
+
+            assertEquals(400, response.statusCode());
+            assertEquals("title is required", response.body());
+        }
+    }
+
+    private static HttpResponse<String> create(FakeGateway gateway, String path) throws Exception {
+        GatewayClient client = new GatewayClient(gateway.baseUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), 2);
+        client.setResiliencePolicy(new ResiliencePolicy(2, Duration.ZERO, Duration.ZERO, 100, Duration.ofSeconds(1), null));
+        HttpRequest request = client.newCreateRequest(path, ID)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MEETING))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,45 @@
+package org.rockets.cli_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GatewayClientSendAllTest {
+
+    // Once the circuit opens every request fails before sendAsync returns, which must not grow the stack
+    @Test
+    void longListsFinishWhenEveryRequestFailsImmediately() throws Exception {
+        String baseUrl;
+        try (ServerSocket closed = new ServerSocket(0)) {
+            baseUrl = "http://localhost:" + closed.getLocalPort();
+        }
+        GatewayClient client = new GatewayClient(baseUrl, Duration.ofSeconds(2), Duration.ofSeconds(5), 2);
+        client.setResiliencePolicy(new ResiliencePolicy(0, Duration.ZERO, Duration.ZERO, 1, Duration.ofMinutes(5), null));
+
+        int maxInFlight = 4;
+        int count = maxInFlight * 5_000;
+        List<HttpRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(HttpRequest.newBuilder(URI.create(baseUrl + "/meetings/" + i)).DELETE().build());
+        }
+
+        ExecutionException e = assertThrows(ExecutionException.class,
+                () -> client.sendAllAsync(requests, maxInFlight).get(60, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().startsWith(count + " of " + count + " requests failed"), e.getCause().getMessage());
+        assertEquals(0, client.getQueuedWriteCount());
+    }
+}
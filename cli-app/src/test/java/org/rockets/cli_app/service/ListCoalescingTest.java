@@ -0,0 +1,45 @@
+package org.rockets.cli_app.service;
+
+import org.junit.jupiter.api.Test;
+import org.rockets.cli_app.components.Calendar;
+import org.rockets.cli_app.components.Meeting;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Concurrent async list calls, as an embedding application makes them, share one request
+class ListCoalescingTest {
+
+    @Test
+    void concurrentListCallsSendOneRequestPerCollection() throws Exception {
+        try (FakeGateway gateway = new FakeGateway(request -> {
+            // Keeps the first request on the wire while the others are made
+            Thread.sleep(300);
+            return new FakeGateway.Reply(200, request.target().startsWith("/meetings")
+                    ? "[{\"id\":\"3f0b6a52-8c57-4c0e-9d0a-5c1f6f0f2b11\",\"title\":\"Standup\"}]"
+                    : "[{\"id\":\"9a1d2c3e-0000-4c0e-9d0a-5c1f6f0f2b11\",\"title\":\"Team\"}]");
+        })) {
+            GatewayClient client = new GatewayClient(gateway.baseUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), 4);
+            MeetingService meetings = new MeetingService(client);
+            CalendarService calendars = new CalendarService(client);
+
+            List<CompletableFuture<List<Meeting>>> meetingLists = new ArrayList<>();
+            List<CompletableFuture<List<Calendar>>> calendarLists = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                meetingLists.add(meetings.getMeetingsAsync());
+                calendarLists.add(calendars.getCalendarsAsync());
+            }
+            for (int i = 0; i < 5; i++) {
+                assertEquals("Standup", meetingLists.get(i).get().get(0).getTitle());
+                assertEquals("Team", calendarLists.get(i).get().get(0).getTitle());
+            }
+
+            assertEquals(2, gateway.requests().size());
+            assertEquals(8, client.getCoalescedReadCount());
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.rockets.cli_app.service;
+
+import org.junit.jupiter.api.Test;
+import org.rockets.cli_app.components.Meeting;
+import org.rockets.cli_app.dto.MeetingBatchDTO;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MeetingServiceBatchTest {
+    private static final String MEETING = "{\"id\":\"m1\",\"title\":\"Standup\"}";
+
+    @Test
+    void anUnknownMeetingFailsWithoutFallingBack() throws Exception {
+        try (FakeGateway gateway = new FakeGateway(request -> new FakeGateway.Reply(404, "{\"error\":\"Meeting not found\"}\n"))) {
+            IOException e = assertThrows(IOException.class, () -> service(gateway).batchUpdateMeeting("m1", addParticipant("p1")));
+
+            assertEquals("POST /meetings/m1/batch returned HTTP 404: Meeting not found", e.getMessage());
+            assertEquals(1, gateway.requests().size());
+        }
+    }
+
+    @Test
+    void errorsAreReportedByStatusInsteadOfDecodedAsAMeeting() throws Exception {
+        try (FakeGateway gateway = new FakeGateway(request -> new FakeGateway.Reply(500, "{\"error\":\"database unavailable\"}"))) {
+            IOException e = assertThrows(IOException.class, () -> service(gateway).batchUpdateMeeting("m1", addParticipant("p1")));
+            assertEquals("POST /meetings/m1/batch returned HTTP 500: database unavailable", e.getMessage());
+
+            IOException async = assertThrows(IOException.class,
+                    () -> GatewayClient.await(service(gateway).batchUpdateMeetingAsync("m1", addParticipant("p1"))));
+            assertEquals("POST /meetings/m1/batch returned HTTP 500: database unavailable", async.getMessage());
+        }
+    }
+
+    @Test
+    void aGatewayWithoutTheBatchRouteGetsThePerIdCalls() throws Exception {
+        try (FakeGateway gateway = new FakeGateway(request -> {
+            if (request.target().endsWith("/batch")) {
+                return new FakeGateway.Reply(404, "404 page not found\n");
+            }
+            return new FakeGateway.Reply(200, request.target().startsWith("/meetings?ids=") ? "[" + MEETING + "]" : MEETING);
+        })) {
+            Meeting meeting = service(gateway).batchUpdateMeeting("m1", addParticipant("p1"));
+
+            assertEquals("Standup", meeting.getTitle());
+            assertEquals(List.of("/meetings/m1/batch", "/meetings/m1/addParticipant/p1", "/meetings?ids=m1"),
+                    gateway.requests().stream().map(FakeGateway.Request::target).toList());
+        }
+    }
+
+    private static MeetingService service(FakeGateway gateway) {
+        GatewayClient client = new GatewayClient(gateway.baseUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), 2);
+        client.setResiliencePolicy(ResiliencePolicy.NONE);
+        return new MeetingService(client);
+    }
+
+    private static MeetingBatchDTO addParticipant(String participantId) {
+        MeetingBatchDTO batch = new MeetingBatchDTO();
+        batch.setAddParticipants(List.of(participantId));
+        return batch;
+    }
+}
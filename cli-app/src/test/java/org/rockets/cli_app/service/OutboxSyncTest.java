@@ -0,0 +1,79 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class OutboxSyncTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void updatesToRecordsReadInABatchAreCheckedForConflicts() throws Exception {
+        Map<String, String> titles = new ConcurrentHashMap<>(Map.of("a", "first", "b", "second"));
+        AtomicBoolean online = new AtomicBoolean(true);
+        try (FakeGateway gateway = new FakeGateway(request -> {
+            if (!online.get()) {
+                return new FakeGateway.Reply(503, null);
+            }
+            if (request.method().equals("GET") && request.target().startsWith("/meetings?ids=")) {
+                List<String> records = new ArrayList<>();
+                for (String id : request.target().substring("/meetings?ids=".length()).split(",")) {
+                    if (titles.containsKey(id)) {
+                        records.add("{\"id\":\"" + id + "\",\"title\":\"" + titles.get(id) + "\"}");
+                    }
+                }
+                return new FakeGateway.Reply(200, "[" + String.join(",", records) + "]");
+            }
+            if (request.method().equals("PUT")) {
+                return new FakeGateway.Reply(200, "{}");
+            }
+            return new FakeGateway.Reply(404, null);
+        })) {
+            GatewayClient client = new GatewayClient(gateway.baseUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), 2);
+            client.setResiliencePolicy(ResiliencePolicy.NONE);
+            client.enableResponseCache(Duration.ofMinutes(1), 100, 1 << 20, directory.resolve("cache"));
+            Outbox outbox = new Outbox(directory.resolve("outbox.ndjson"), new ObjectMapper());
+            client.setOutbox(outbox);
+
+            // Both records read in one request; neither was ever looked up on its own
+            client.sendCached(client.newRequest("/meetings?ids=a,b").GET().build());
+
+            online.set(false);
+            assertEquals(202, client.send(put(client, "/meetings/a"), HttpResponse.BodyHandlers.discarding()).statusCode());
+            assertEquals(202, client.send(put(client, "/meetings/b"), HttpResponse.BodyHandlers.discarding()).statusCode());
+            for (Outbox.Entry entry : outbox.entries()) {
+                assertNotNull(entry.change().baseVersion(), entry.change().path());
+            }
+
+            // Someone else edits b while the changes are queued
+            titles.put("b", "edited elsewhere");
+            online.set(true);
+            OutboxSync.Result result = new OutboxSync(client, outbox).sync(10, false, null);
+
+            assertEquals(1, result.sent());
+            assertEquals(1, result.conflicts());
+        }
+    }
+
+    private static HttpRequest put(GatewayClient client, String path) {
+        return client.newRequest(path)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"title\":\"offline\"}"))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void sequenceNumbersContinueAcrossInstances() throws Exception {
+        Path file = directory.resolve("outbox.ndjson");
+        Outbox first = new Outbox(file, new ObjectMapper());
+        assertEquals(1, first.append(put("/meetings/a"), null).seq());
+        assertEquals(2, first.append(put("/meetings/b"), null).seq());
+
+        // Another process appending to the same log
+        Outbox second = new Outbox(file, new ObjectMapper());
+        assertEquals(3, second.append(put("/meetings/c"), null).seq());
+        assertEquals(4, first.append(put("/meetings/d"), null).seq());
+        assertEquals(4, first.entries().size());
+    }
+
+    @Test
+    void sequenceNumbersAreNotReusedAfterCompactionRemovesTheLog() throws Exception {
+        Path file = directory.resolve("outbox.ndjson");
+        Outbox outbox = new Outbox(file, new ObjectMapper());
+        Outbox.Change change = outbox.append(put("/meetings/a"), null);
+        outbox.acknowledge(change, Outbox.Status.SENT, null);
+        outbox.compact();
+        assertFalse(Files.exists(file));
+
+        assertEquals(2, outbox.append(put("/meetings/b"), null).seq());
+        assertEquals(3, new Outbox(file, new ObjectMapper()).append(put("/meetings/c"), null).seq());
+        // The number printed for the first change can no longer drop a different one
+        assertFalse(outbox.drop(1));
+        assertTrue(outbox.drop(2));
+    }
+
+    @Test
+    void logsWithoutAStoredNumberContinueFromTheirHighestChange() throws Exception {
+        Path file = directory.resolve("outbox.ndjson");
+        new Outbox(file, new ObjectMapper()).append(put("/meetings/a"), null);
+        Files.delete(directory.resolve("outbox.ndjson.lock"));
+
+        assertEquals(2, new Outbox(file, new ObjectMapper()).append(put("/meetings/b"), null).seq());
+    }
+
+    private static HttpRequest put(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:8080" + path))
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"title\":\"t\"}"))
+                .build();
+    }
+}
@@ -0,0 +1,52 @@
+package org.rockets.cli_app.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Writes sent after the first few go out from completion callbacks on other threads; they still count
+// for the command whose service sent them
+class QueuedWriteCountTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesQueuedFromOtherThreadsCountForTheCommandThatSentThem() throws Exception {
+        try (FakeGateway gateway = new FakeGateway(request -> new FakeGateway.Reply(503, null))) {
+            GatewayClient client = new GatewayClient(gateway.baseUrl(), Duration.ofSeconds(2), Duration.ofSeconds(5), 2);
+            client.setResiliencePolicy(ResiliencePolicy.NONE);
+            client.setOutbox(new Outbox(directory.resolve("outbox.ndjson"), new ObjectMapper()));
+
+            LongAdder tracked = new LongAdder();
+            CalendarService calendars;
+            GatewayClient.trackQueuedWrites(tracked);
+            try {
+                calendars = new CalendarService(client);
+            } finally {
+                GatewayClient.untrackQueuedWrites();
+            }
+            CalendarService untracked = new CalendarService(client);
+
+            List<String> meetingIds = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                meetingIds.add("m" + i);
+            }
+            // The calendar read-back fails against this gateway; only the writes matter here
+            calendars.changeMeetingsAsync("c1", meetingIds, List.of()).handle((calendar, error) -> null).get(30, TimeUnit.SECONDS);
+            untracked.changeMeetingsAsync("c2", List.of("m1", "m2"), List.of()).handle((calendar, error) -> null).get(30, TimeUnit.SECONDS);
+
+            assertEquals(40, tracked.sum());
+            assertEquals(42, client.getQueuedWriteCount());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package main
 
 import (
+	"context"
 	"encoding/json"
 	"fmt"
 	"log"
@@ -13,14 +14,20 @@ var httpClient = &http.Client{
 	Timeout: time.Second * 10,
 }
 
-func GetCalendarsByIds(ids []string) []Calendar {
+func GetCalendarsByIds(ctx context.Context, ids []string) []Calendar {
 	idsParam := strings.Join(ids, ",")
 
 	log.Println(idsParam)
 
 	url := fmt.Sprintf("http://krakend:8080/calendars?ids=%s", idsParam)
 
-	resp, err := httpClient.Get(url)
+	req, err := newOutgoingRequest(ctx, http.MethodGet, url)
+	if err != nil {
+		fmt.Println("Error:", err)
+		return []Calendar{}
+	}
+
+	resp, err := httpClient.Do(req)
 	if err != nil {
 		fmt.Println("Error:", err)
 		return []Calendar{}
@@ -36,12 +43,18 @@ func GetCalendarsByIds(ids []string) []Calendar {
 	return data
 }
 
-func getParticipantsByIds(ids []string) []Participant {
+func getParticipantsByIds(ctx context.Context, ids []string) []Participant {
 	idsParam := strings.Join(ids, ",")
 
 	url := fmt.Sprintf("http://krakend:8080/participants?ids=%s", idsParam)
 
-	resp, err := httpClient.Get(url)
+	req, err := newOutgoingRequest(ctx, http.MethodGet, url)
+	if err != nil {
+		fmt.Println("Error:", err)
+		return []Participant{}
+	}
+
+	resp, err := httpClient.Do(req)
 	if err != nil {
 		fmt.Println("Error:", err)
 		return []Participant{}
@@ -57,12 +70,18 @@ func getParticipantsByIds(ids []string) []Participant {
 	return data
 }
 
-func GetAttachmentsByIds(ids []string) []Attachment {
+func GetAttachmentsByIds(ctx context.Context, ids []string) []Attachment {
 	idsParam := strings.Join(ids, ",")
 
 	url := fmt.Sprintf("http://krakend:8080/attachments?ids=%s", idsParam)
 
-	resp, err := httpClient.Get(url)
+	req, err := newOutgoingRequest(ctx, http.MethodGet, url)
+	if err != nil {
+		fmt.Println("Error:", err)
+		return []Attachment{}
+	}
+
+	resp, err := httpClient.Do(req)
 	if err != nil {
 		fmt.Println("Error:", err)
 		return []Attachment{}
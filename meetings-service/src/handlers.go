@@ -3,12 +3,15 @@ package main
 import (
 	"context"
 	"encoding/json"
+	"errors"
 	"log"
 	"net/http"
+	"strconv"
 	"strings"
 	"time"
 
 	"github.com/google/uuid"
+	"go.mongodb.org/mongo-driver/mongo"
 	"go.mongodb.org/mongo-driver/mongo/options"
 
 	"github.com/gorilla/mux"
@@ -20,7 +23,13 @@ func GetMeetings(w http.ResponseWriter, r *http.Request) {
 	ctx, cancel := context.WithTimeout(context.Background(), 10*time.Second)
 	defer cancel()
 
-	cursor, err := collection.Find(ctx, bson.M{})
+	filter, findOptions, err := parsePageQuery(r)
+	if err != nil {
+		http.Error(w, err.Error(), http.StatusBadRequest)
+		return
+	}
+
+	cursor, err := collection.Find(ctx, filter, findOptions)
 	if err != nil {
 		http.Error(w, "Error fetching meetingSummaries", http.StatusInternalServerError)
 		return
@@ -33,9 +42,9 @@ func GetMeetings(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	var meetings []Meeting
+	meetings := []Meeting{}
 	for _, meetingSummary := range meetingSummaries {
-		meetings = append(meetings, ConvertSummaryToFull(meetingSummary))
+		meetings = append(meetings, ConvertSummaryToFull(r.Context(), meetingSummary))
 	}
 
 	responseData, err := json.Marshal(meetings)
@@ -140,6 +149,83 @@ func DeleteMeetingById(w http.ResponseWriter, r *http.Request) {
 	respondWithJSON(w, http.StatusOK, map[string]string{"message": "meeting successfully deleted"})
 }
 
+// Applies field changes and any number of participant/attachment additions and removals in one
+// atomic update, instead of one request per ID.
+func BatchUpdateMeeting(w http.ResponseWriter, r *http.Request) {
+	vars := mux.Vars(r)
+	id := vars["id"]
+
+	var batch MeetingBatchUpdate
+	err := json.NewDecoder(r.Body).Decode(&batch)
+	if err != nil {
+		respondWithError(w, http.StatusBadRequest, "Invalid request payload")
+		return
+	}
+
+	// Values are wrapped in $literal because strings starting with '$' would otherwise be read as
+	// field paths inside an aggregation pipeline
+	set := bson.M{}
+	for field, value := range map[string]*string{
+		"title":    batch.Title,
+		"details":  batch.Details,
+		"datetime": batch.DateTime,
+		"location": batch.Location,
+	} {
+		if value != nil {
+			set[field] = bson.M{"$literal": *value}
+		}
+	}
+	if len(batch.AddParticipants) != 0 || len(batch.RemoveParticipants) != 0 {
+		set["participants"] = mergeIds("$participants", batch.AddParticipants, batch.RemoveParticipants)
+	}
+	if len(batch.AddAttachments) != 0 || len(batch.RemoveAttachments) != 0 {
+		set["attachments"] = mergeIds("$attachments", batch.AddAttachments, batch.RemoveAttachments)
+	}
+	if len(set) == 0 {
+		respondWithError(w, http.StatusBadRequest, "Nothing to update")
+		return
+	}
+
+	collection := database.Collection("meetings")
+	ctx, cancel := context.WithTimeout(context.Background(), 10*time.Second)
+	defer cancel()
+
+	// A pipeline update is used because $addToSet and $pull cannot target the same array in one update
+	update := mongo.Pipeline{{{Key: "$set", Value: set}}}
+
+	var meetingSummary MeetingSummary
+
+	opts := options.FindOneAndUpdate().SetReturnDocument(options.After)
+	err = collection.FindOneAndUpdate(ctx, bson.M{"_id": id}, update, opts).Decode(&meetingSummary)
+	if err == mongo.ErrNoDocuments {
+		respondWithError(w, http.StatusNotFound, "Meeting not found")
+		return
+	}
+	if err != nil {
+		log.Println(err)
+		respondWithError(w, http.StatusInternalServerError, "Error fetching updated meeting")
+		return
+	}
+
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), meetingSummary))
+}
+
+// Expression for the array field with the added IDs included once and the removed IDs left out
+func mergeIds(field string, add []string, remove []string) bson.M {
+	if add == nil {
+		add = []string{}
+	}
+	if remove == nil {
+		remove = []string{}
+	}
+	return bson.M{
+		"$setDifference": bson.A{
+			bson.M{"$setUnion": bson.A{bson.M{"$ifNull": bson.A{field, bson.A{}}}, bson.M{"$literal": add}}},
+			bson.M{"$literal": remove},
+		},
+	}
+}
+
 func AddCalendarToMeeting(w http.ResponseWriter, r *http.Request) {
 	vars := mux.Vars(r)
 	meetingId := vars["meetingId"]
@@ -168,7 +254,7 @@ func AddCalendarToMeeting(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(meetingSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), meetingSummary))
 }
 
 func RemoveCalendarFromMeeting(w http.ResponseWriter, r *http.Request) {
@@ -199,7 +285,7 @@ func RemoveCalendarFromMeeting(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(meetingSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), meetingSummary))
 }
 
 func AddParticipantToMeeting(w http.ResponseWriter, r *http.Request) {
@@ -231,7 +317,7 @@ func AddParticipantToMeeting(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(meetingSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), meetingSummary))
 }
 
 func RemoveParticipantFromMeeting(w http.ResponseWriter, r *http.Request) {
@@ -262,7 +348,7 @@ func RemoveParticipantFromMeeting(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(meetingSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), meetingSummary))
 }
 
 func AddAttachmentToMeeting(w http.ResponseWriter, r *http.Request) {
@@ -294,7 +380,7 @@ func AddAttachmentToMeeting(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(meetingSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), meetingSummary))
 }
 
 func RemoveAttachmentFromMeeting(w http.ResponseWriter, r *http.Request) {
@@ -325,7 +411,7 @@ func RemoveAttachmentFromMeeting(w http.ResponseWriter, r *http.Request) {
 		return
 	}
 
-	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(meetingSummary))
+	respondWithJSON(w, http.StatusOK, ConvertSummaryToFull(r.Context(), meetingSummary))
 }
 
 func GetMeetingsByIds(w http.ResponseWriter, r *http.Request) {
@@ -366,13 +452,13 @@ func GetMeetingsByIds(w http.ResponseWriter, r *http.Request) {
 
 	var meetings []Meeting
 	for _, meetingSummary := range meetingSummaries {
-		meetings = append(meetings, ConvertSummaryToFull(meetingSummary))
+		meetings = append(meetings, ConvertSummaryToFull(r.Context(), meetingSummary))
 	}
 
 	respondWithJSON(w, http.StatusOK, meetingSummaries)
 }
 
-func ConvertSummaryToFull(meetingSummary MeetingSummary) Meeting {
+func ConvertSummaryToFull(ctx context.Context, meetingSummary MeetingSummary) Meeting {
 	parsedDateTime, err := parseCustomDateTime(meetingSummary.DateTime)
 	if err != nil {
 		parsedDateTime = time.Now()
@@ -390,20 +476,41 @@ func ConvertSummaryToFull(meetingSummary MeetingSummary) Meeting {
 	}
 
 	if len(meetingSummary.Calendars) != 0 {
-		meeting.Calendars = GetCalendarsByIds(meetingSummary.Calendars)
+		meeting.Calendars = GetCalendarsByIds(ctx, meetingSummary.Calendars)
 	}
 
 	if len(meetingSummary.Participants) != 0 {
-		meeting.Participants = getParticipantsByIds(meetingSummary.Participants)
+		meeting.Participants = getParticipantsByIds(ctx, meetingSummary.Participants)
 	}
 
 	if len(meetingSummary.Attachments) != 0 {
-		meeting.Attachments = GetAttachmentsByIds(meetingSummary.Attachments)
+		meeting.Attachments = GetAttachmentsByIds(ctx, meetingSummary.Attachments)
 	}
 
 	return meeting
 }
 
+// Builds the filter and options for ?limit=&cursor= paging. Results are ordered by ID and the cursor is
+// the ID of the last record of the previous page; without a limit every record is returned.
+func parsePageQuery(r *http.Request) (bson.M, *options.FindOptions, error) {
+	query := r.URL.Query()
+	filter := bson.M{}
+	findOptions := options.Find().SetSort(bson.D{{Key: "_id", Value: 1}})
+
+	if cursor := query.Get("cursor"); cursor != "" {
+		filter["_id"] = bson.M{"$gt": cursor}
+	}
+	if limitParam := query.Get("limit"); limitParam != "" {
+		limit, err := strconv.ParseInt(limitParam, 10, 64)
+		if err != nil || limit <= 0 {
+			return nil, nil, errors.New("'limit' must be a positive integer")
+		}
+		findOptions.SetLimit(limit)
+	}
+
+	return filter, findOptions, nil
+}
+
 func respondWithError(w http.ResponseWriter, code int, message string) {
 	w.Header().Set("Content-Type", "application/json")
 	w.WriteHeader(code)
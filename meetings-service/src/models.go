@@ -32,6 +32,18 @@ type MeetingSummary struct {
 	Attachments  []string `json:"attachments" bson:"attachments"`
 }
 
+// Body of POST /meetings/{id}/batch: only the fields present are changed
+type MeetingBatchUpdate struct {
+	Title              *string  `json:"title"`
+	Details            *string  `json:"details"`
+	DateTime           *string  `json:"datetime"`
+	Location           *string  `json:"location"`
+	AddParticipants    []string `json:"addParticipants"`
+	RemoveParticipants []string `json:"removeParticipants"`
+	AddAttachments     []string `json:"addAttachments"`
+	RemoveAttachments  []string `json:"removeAttachments"`
+}
+
 type Participant struct {
 	ID    string `json:"id" bson:"_id,omitempty"`
 	Name  string `json:"name" bson:"name"`
@@ -6,12 +6,14 @@ import (
 
 func initializeRouter() *mux.Router {
 	router := mux.NewRouter()
+	router.Use(tracingMiddleware)
 
 	router.HandleFunc("/meetings", GetMeetingsByIds).Methods("GET").Queries("ids", "{ids}")
 	router.HandleFunc("/meetings", GetMeetings).Methods("GET")
 	router.HandleFunc("/meetings", CreateMeeting).Methods("POST")
 	router.HandleFunc("/meetings/{id}", UpdateMeetingById).Methods("PUT")
 	router.HandleFunc("/meetings/{id}", DeleteMeetingById).Methods("DELETE")
+	router.HandleFunc("/meetings/{id}/batch", BatchUpdateMeeting).Methods("POST")
 	router.HandleFunc("/meetings/{meetingId}/addCalendar/{calendarId}", AddCalendarToMeeting).Methods("GET")
 	router.HandleFunc("/meetings/{meetingId}/removeCalendar/{calendarId}", RemoveCalendarFromMeeting).Methods("GET")
 	router.HandleFunc("/meetings/{meetingId}/addParticipant/{participantId}", AddParticipantToMeeting).Methods("GET")
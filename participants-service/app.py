@@ -22,6 +22,13 @@ def get_participants():
         participant_ids = ids.split(',')
         participants = Participant.get_multiple(participant_ids)
         return jsonify([p.to_dict() for p in participants if p is not None]), 200
+    elif request.args.get('limit') or request.args.get('cursor'):
+        # Keyset paging: records are ordered by id and the cursor is the last id of the previous page
+        limit = request.args.get('limit', '100')
+        if not limit.isdigit() or int(limit) <= 0:
+            return jsonify({"error": "limit must be a positive integer"}), 400
+        participants = Participant.get_page(int(limit), request.args.get('cursor'))
+        return jsonify([p.to_dict() for p in participants]), 200
     else:
         participants = Participant.get_all()
         return jsonify([p.to_dict() for p in participants]), 200
@@ -10,6 +10,16 @@ class Participant:
         rows = cur.fetchall()
         return [Participant.from_row(row) for row in rows]
 
+    @staticmethod
+    def get_page(limit, cursor=None):
+        conn = get_db()
+        if cursor:
+            cur = conn.execute('SELECT * FROM participants WHERE id > ? ORDER BY id LIMIT ?', (cursor, limit))
+        else:
+            cur = conn.execute('SELECT * FROM participants ORDER BY id LIMIT ?', (limit,))
+        rows = cur.fetchall()
+        return [Participant.from_row(row) for row in rows]
+
     @staticmethod
     def get(participant_id):
         conn = get_db()
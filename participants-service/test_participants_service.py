@@ -39,6 +39,17 @@ class TestParticipantsMicroservice(unittest.TestCase):
         participant = response.json()['data']
         self.assertEqual(participant['name'], self.sample_participant['name'])
 
+    def test_get_participants_page(self):
+        response = requests.get(self.participant_url, params={'limit': 1})
+        self.assertIn(response.status_code, [200, 201])
+        first_page = response.json()['data']
+        self.assertEqual(len(first_page), 1)
+
+        response = requests.get(self.participant_url, params={'limit': 1, 'cursor': first_page[0]['id']})
+        self.assertIn(response.status_code, [200, 201])
+        for participant in response.json()['data']:
+            self.assertGreater(participant['id'], first_page[0]['id'])
+
     def test_update_participant(self):
         updated_data = {"name": "John Doe Updated", "email": "johnupdated@example.com"}
         url = f"{self.participant_url}/{self.sample_participant['id']}"
@@ -60,6 +71,7 @@ if __name__ == '__main__':
     suite = unittest.TestSuite()
     suite.addTest(TestParticipantsMicroservice('test_get_all_participants'))
     suite.addTest(TestParticipantsMicroservice('test_get_single_participant'))
+    suite.addTest(TestParticipantsMicroservice('test_get_participants_page'))
     suite.addTest(TestParticipantsMicroservice('test_update_participant'))
     suite.addTest(TestParticipantsMicroservice('test_delete_participant'))
     runner = unittest.TextTestRunner()